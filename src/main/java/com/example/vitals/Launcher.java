@@ -4,7 +4,7 @@ package com.example.vitals;
  * Launcher class for JavaFX Application.
  */
 public class Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
         Main.main(args);
     }
 }
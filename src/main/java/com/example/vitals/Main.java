@@ -1,23 +1,51 @@
 package com.example.vitals;
 
 import com.example.vitals.controllers.DashboardController;
+import com.example.vitals.controllers.SystemProbe;
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.loadgen.SyntheticLoadGenerator;
+import com.example.vitals.net.AgentClient;
+import com.example.vitals.net.CollectorServer;
+import com.example.vitals.utils.StartupTrace;
 import com.example.vitals.utils.SystemMonitor;
+import com.example.vitals.utils.VitalsConfig;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.image.Image;
 
+import java.io.IOException;
+import java.net.InetAddress;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class Main extends Application {
 
+    // Port the collector listens on for agent connections
+    private static final int DEFAULT_COLLECTOR_PORT = 7411;
+
+    private volatile CollectorServer collectorServer;
+    private volatile SyntheticLoadGenerator syntheticLoad;
+    private volatile SystemMonitor monitor;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
+        StartupTrace.mark("JavaFX started");
+
+        // Open the database in parallel with building the window; OSHI is initialized on the monitor thread
+        CompletableFuture<HistoricalDataDAO> daoFuture = CompletableFuture.supplyAsync(() -> {
+            HistoricalDataDAO dao = new HistoricalDataDAO();
+            StartupTrace.mark("database ready");
+            return dao;
+        });
+
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/dashboard.fxml"));
         Parent root = loader.load();
         DashboardController dashboardController = loader.getController();
+        StartupTrace.mark("dashboard FXML loaded");
 
         // Set application icon
         try {
@@ -32,14 +60,94 @@ public class Main extends Application {
         primaryStage.setTitle("Vitals - System Monitoring Dashboard");
         primaryStage.setScene(scene);
         primaryStage.show();
+        StartupTrace.mark("window shown");
+
+        // Runs after the pulse that rendered the first frame
+        Platform.runLater(() -> {
+            StartupTrace.mark("first paint");
+            // Used by the AppCDS training run, which only needs the startup path
+            if (VitalsConfig.getBoolean("vitals.startup.exitAfterFirstPaint", false)) {
+                Platform.exit();
+            }
+        });
 
         // Start system monitoring in a background thread using the FXML controller instance.
-        Thread monitorThread = new Thread(new SystemMonitor(dashboardController));
+        // Hardware enumeration happens there, so it never delays the first window.
+        Thread monitorThread = new Thread(() -> {
+            SystemProbe infoController = SystemProbe.create();
+            StartupTrace.mark("probes ready");
+            monitor = new SystemMonitor(dashboardController, infoController, daoFuture.join(), null);
+            StartupTrace.mark("collector running");
+            monitor.run();
+        }, "vitals-monitor");
         monitorThread.setDaemon(true);
         monitorThread.start();
+
+        // In collector mode, also ingest samples streamed by remote agents, once the database is open
+        if (VitalsConfig.getString("vitals.mode", "standalone").equalsIgnoreCase("collector")) {
+            int port = (int) VitalsConfig.getLong("vitals.collector.port", DEFAULT_COLLECTOR_PORT);
+            daoFuture.thenAcceptAsync(dao -> {
+                try {
+                    collectorServer = new CollectorServer(port, (host, samples) -> {
+                        dao.logSamples(host, samples);
+                        dashboardController.updateFromSample(host, samples.getLast());
+                    });
+                } catch (IOException e) {
+                    System.err.println("Could not start the collector on port " + port + ": " + e.getMessage());
+                    e.printStackTrace();
+                }
+            });
+        }
+
+        // With the synthetic probe, optionally generate further hosts as if agents were connected
+        int syntheticHosts = (int) VitalsConfig.getLong("vitals.synthetic.hosts", 1);
+        if (syntheticHosts > 1 && VitalsConfig.getString("vitals.probe", "auto").equalsIgnoreCase("synthetic")) {
+            daoFuture.thenAccept(dao -> syntheticLoad = new SyntheticLoadGenerator("synthetic-", 1, syntheticHosts - 1,
+                    VitalsConfig.getLong("vitals.synthetic.intervalMs", 2_000), (host, samples) -> {
+                dao.logSamples(host, samples);
+                dashboardController.updateFromSample(host, samples.getLast());
+            }));
+        }
     }
 
-    public static void main(String[] args) {
+    @Override
+    public void stop() throws Exception {
+        if (collectorServer != null) {
+            collectorServer.close();
+        }
+        if (syntheticLoad != null) {
+            syntheticLoad.close();
+        }
+        if (monitor != null) {
+            // Lets storage write what the collector already published
+            monitor.close();
+        }
+        HistoricalDataDAO.shutdown();
+    }
+
+    /**
+     * Headless agent mode: samples this machine and streams everything to the collector
+     * given by vitals.collector.address (host:port), without opening a window.
+     */
+    private static void runAgent() throws Exception {
+        String address = VitalsConfig.getString("vitals.collector.address", "localhost:" + DEFAULT_COLLECTOR_PORT);
+        int separator = address.lastIndexOf(':');
+        String collectorHost = separator > 0 ? address.substring(0, separator) : address;
+        int collectorPort = separator > 0 ? Integer.parseInt(address.substring(separator + 1)) : DEFAULT_COLLECTOR_PORT;
+        String hostName = VitalsConfig.getString("vitals.agent.host", InetAddress.getLocalHost().getHostName());
+
+        System.out.println("Running as agent '" + hostName + "', streaming to " + collectorHost + ":" + collectorPort);
+        AgentClient agentClient = new AgentClient(collectorHost, collectorPort, hostName);
+        HistoricalDataDAO localDAO = VitalsConfig.getBoolean("vitals.agent.storeLocally", false) ? new HistoricalDataDAO() : null;
+        new SystemMonitor(null, SystemProbe.create(), localDAO, agentClient).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupTrace.mark("main");
+        if (VitalsConfig.getString("vitals.mode", "standalone").equalsIgnoreCase("agent")) {
+            runAgent();
+            return;
+        }
         launch(args);
     }
 }
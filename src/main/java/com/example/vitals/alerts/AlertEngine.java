@@ -0,0 +1,97 @@
+package com.example.vitals.alerts;
+
+import com.example.vitals.models.SystemSample;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Evaluates alert rules incrementally against the live sample stream.
+ * Each rule keeps a few fields of state (breach start, firing flag, resolve time), so a sample costs
+ * O(1) per rule with no history scans or database queries.
+ */
+public class AlertEngine {
+
+    private final List<RuleState> rules = new CopyOnWriteArrayList<>();
+    private final List<AlertSink> sinks = new CopyOnWriteArrayList<>();
+
+    public void addRule(AlertRule rule) {
+        rules.add(new RuleState(rule));
+    }
+
+    public void addSink(AlertSink sink) {
+        sinks.add(sink);
+    }
+
+    public List<AlertRule> getRules() {
+        return rules.stream().map(state -> state.rule).toList();
+    }
+
+    /**
+     * Feeds one sample through every rule, notifying the sinks of any rule that fires or resolves.
+     */
+    public void evaluate(SystemSample sample) {
+        for (RuleState state : rules) {
+            AlertEvent event = state.update(sample);
+            if (event != null) {
+                publish(event);
+            }
+        }
+    }
+
+    /**
+     * Notifies every sink of an event raised outside the threshold rules, e.g. by the exhaustion forecaster.
+     */
+    public void publish(AlertEvent event) {
+        for (AlertSink sink : sinks) {
+            try {
+                sink.onAlert(event);
+            } catch (RuntimeException e) {
+                System.err.println("Alert sink failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static final class RuleState {
+        private final AlertRule rule;
+        // Start of the current uninterrupted breach, or -1 while the threshold is not breached
+        private long breachStart = -1;
+        private boolean firing;
+        private long resolvedAt = Long.MIN_VALUE / 2;
+
+        private RuleState(AlertRule rule) {
+            this.rule = rule;
+        }
+
+        private AlertEvent update(SystemSample sample) {
+            double value = rule.metric().valueOf(sample);
+            long now = sample.timestamp();
+
+            if (firing) {
+                // Hysteresis: stay firing until the value gets back past the clear level
+                if (rule.isCleared(value)) {
+                    firing = false;
+                    breachStart = -1;
+                    resolvedAt = now;
+                    return new AlertEvent(rule, false, value, now);
+                }
+                return null;
+            }
+
+            if (!rule.isBreached(value)) {
+                breachStart = -1;
+                return null;
+            }
+            if (breachStart < 0) {
+                breachStart = now;
+            }
+            boolean sustained = now - breachStart >= rule.sustainMs();
+            boolean rearmed = now - resolvedAt >= rule.rearmMs();
+            if (sustained && rearmed) {
+                firing = true;
+                return new AlertEvent(rule, true, value, now);
+            }
+            return null;
+        }
+    }
+}
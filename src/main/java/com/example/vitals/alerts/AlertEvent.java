@@ -0,0 +1,18 @@
+package com.example.vitals.alerts;
+
+/**
+ * A state change of an alert rule, delivered to every {@link AlertSink}.
+ *
+ * @param rule      the rule that changed state
+ * @param firing    true when the rule started firing, false when it resolved
+ * @param value     the metric value of the sample that caused the change
+ * @param timestamp sample time in epoch millis
+ */
+public record AlertEvent(AlertRule rule, boolean firing, double value, long timestamp) {
+
+    public String message() {
+        String state = firing ? "FIRING" : "RESOLVED";
+        return String.format("[%s] %s: %s (current: %.2f %s)",
+                state, rule.name(), rule.describe(), value, rule.metric().getUnit());
+    }
+}
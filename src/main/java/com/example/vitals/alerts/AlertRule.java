@@ -0,0 +1,71 @@
+package com.example.vitals.alerts;
+
+import com.example.vitals.models.Metric;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A threshold rule such as "CPU > 90% for 60s".
+ *
+ * @param name           display name used in notifications
+ * @param metric         the live metric the rule watches
+ * @param above          true to fire when the value is above the threshold, false when below
+ * @param threshold      the level that must be breached
+ * @param clearThreshold hysteresis level the value must get back past before the alert resolves
+ * @param sustainMs      how long every sample must breach the threshold before the rule fires
+ * @param rearmMs        minimum time after the alert resolves before it may fire again
+ */
+public record AlertRule(String name, Metric metric, boolean above, double threshold, double clearThreshold,
+                        long sustainMs, long rearmMs) {
+
+    // name: METRIC >|< threshold [for <n>s] [clear <level>] [rearm <n>s]
+    private static final Pattern RULE_PATTERN = Pattern.compile(
+            "\\s*([^:]+):\\s*(\\w+)\\s*([<>])\\s*([\\d.]+)"
+                    + "(?:\\s+for\\s+(\\d+)s)?"
+                    + "(?:\\s+clear\\s+([\\d.]+))?"
+                    + "(?:\\s+rearm\\s+(\\d+)s)?\\s*");
+
+    public AlertRule {
+        if (above ? clearThreshold > threshold : clearThreshold < threshold) {
+            throw new IllegalArgumentException("Clear level of rule '" + name + "' must be on the safe side of its threshold");
+        }
+    }
+
+    public boolean isBreached(double value) {
+        return above ? value > threshold : value < threshold;
+    }
+
+    public boolean isCleared(double value) {
+        return above ? value <= clearThreshold : value >= clearThreshold;
+    }
+
+    /**
+     * Parses a rule from its one-line form, e.g.
+     * {@code CPU high: CPU_USAGE > 90 for 60s clear 80 rearm 300s}.
+     * Without a clear level the rule resolves as soon as the threshold is no longer breached.
+     */
+    public static AlertRule parse(String line) {
+        Matcher matcher = RULE_PATTERN.matcher(line);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid alert rule: " + line);
+        }
+        String name = matcher.group(1).trim();
+        Metric metric = Metric.valueOf(matcher.group(2).toUpperCase(Locale.ROOT));
+        boolean above = matcher.group(3).equals(">");
+        double threshold = Double.parseDouble(matcher.group(4));
+        long sustainMs = matcher.group(5) != null ? Long.parseLong(matcher.group(5)) * 1000 : 0;
+        double clearThreshold = matcher.group(6) != null ? Double.parseDouble(matcher.group(6)) : threshold;
+        long rearmMs = matcher.group(7) != null ? Long.parseLong(matcher.group(7)) * 1000 : 0;
+        return new AlertRule(name, metric, above, threshold, clearThreshold, sustainMs, rearmMs);
+    }
+
+    /**
+     * Human-readable condition, e.g. "CPU Usage > 90.0 % for 60s".
+     */
+    public String describe() {
+        String condition = metric.getDisplayName() + (above ? " > " : " < ") + threshold + " " + metric.getUnit();
+        return sustainMs > 0 ? condition + " for " + (sustainMs / 1000) + "s" : condition;
+    }
+}
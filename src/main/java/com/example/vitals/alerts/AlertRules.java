@@ -0,0 +1,68 @@
+package com.example.vitals.alerts;
+
+import com.example.vitals.utils.VitalsConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the alert rules and builds the alert engine with the configured sinks.
+ * Rules come from the file named by vitals.alerts.rules (one rule per line, '#' for comments),
+ * or the built-in defaults when no file is configured.
+ */
+public final class AlertRules {
+
+    private static final List<String> DEFAULT_RULES = List.of(
+            "CPU high: CPU_USAGE > 90 for 60s clear 80 rearm 300s",
+            "Low memory: MEMORY_AVAILABLE < 1 for 10s clear 1.5 rearm 300s"
+    );
+
+    private AlertRules() {
+    }
+
+    public static List<AlertRule> loadRules() {
+        List<String> lines = DEFAULT_RULES;
+        String rulesFile = VitalsConfig.getString("vitals.alerts.rules", null);
+        if (rulesFile != null) {
+            try {
+                lines = Files.readAllLines(Path.of(rulesFile));
+            } catch (IOException e) {
+                System.err.println("Error reading alert rules from " + rulesFile + ", using defaults: " + e.getMessage());
+            }
+        }
+
+        List<AlertRule> rules = new ArrayList<>();
+        for (String line : lines) {
+            if (line.isBlank() || line.trim().startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(AlertRule.parse(line));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Skipping alert rule: " + e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Creates an engine with the configured rules and the log file and script sinks, if configured.
+     */
+    public static AlertEngine createEngine() {
+        AlertEngine engine = new AlertEngine();
+        loadRules().forEach(engine::addRule);
+
+        String logFile = VitalsConfig.getString("vitals.alerts.log", null);
+        if (logFile != null) {
+            engine.addSink(new LogFileAlertSink(Path.of(logFile)));
+        }
+        String script = VitalsConfig.getString("vitals.alerts.script", null);
+        if (script != null) {
+            engine.addSink(new ScriptAlertSink(script));
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.vitals.alerts;
+
+/**
+ * Receives alert state changes. Sinks are called on the alert consumer of the sample bus and must not
+ * block it for long; anything slow (I/O, processes, UI) should be handed off.
+ */
+public interface AlertSink {
+
+    void onAlert(AlertEvent event);
+}
@@ -0,0 +1,20 @@
+package com.example.vitals.alerts;
+
+import com.example.vitals.controllers.DashboardController;
+
+/**
+ * Shows firing alerts in the dashboard's alert banner.
+ */
+public class DashboardBannerSink implements AlertSink {
+
+    private final DashboardController dashboardController;
+
+    public DashboardBannerSink(DashboardController dashboardController) {
+        this.dashboardController = dashboardController;
+    }
+
+    @Override
+    public void onAlert(AlertEvent event) {
+        dashboardController.updateAlert(event);
+    }
+}
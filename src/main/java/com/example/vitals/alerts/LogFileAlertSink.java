@@ -0,0 +1,45 @@
+package com.example.vitals.alerts;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Appends one line per alert state change to a log file, off the collector thread.
+ */
+public class LogFileAlertSink implements AlertSink {
+
+    private final Path logFile;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vitals-alert-log");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LogFileAlertSink(Path logFile) {
+        this.logFile = logFile;
+    }
+
+    @Override
+    public void onAlert(AlertEvent event) {
+        String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.timestamp()), ZoneId.systemDefault())
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        String line = time + " " + event.message() + System.lineSeparator();
+        writer.execute(() -> {
+            try {
+                Files.writeString(logFile, line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("Error writing alert log: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.vitals.alerts;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs an external script for every alert state change. The event is passed as environment variables
+ * (VITALS_ALERT_NAME, VITALS_ALERT_STATE, VITALS_ALERT_METRIC, VITALS_ALERT_VALUE, VITALS_ALERT_TIMESTAMP,
+ * VITALS_ALERT_MESSAGE) so scripts do not have to parse anything.
+ */
+public class ScriptAlertSink implements AlertSink {
+
+    private final String command;
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vitals-alert-script");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ScriptAlertSink(String command) {
+        this.command = command;
+    }
+
+    @Override
+    public void onAlert(AlertEvent event) {
+        launcher.execute(() -> {
+            ProcessBuilder builder = new ProcessBuilder(command);
+            Map<String, String> env = builder.environment();
+            env.put("VITALS_ALERT_NAME", event.rule().name());
+            env.put("VITALS_ALERT_STATE", event.firing() ? "FIRING" : "RESOLVED");
+            env.put("VITALS_ALERT_METRIC", event.rule().metric().name());
+            env.put("VITALS_ALERT_VALUE", Double.toString(event.value()));
+            env.put("VITALS_ALERT_TIMESTAMP", Long.toString(event.timestamp()));
+            env.put("VITALS_ALERT_MESSAGE", event.message());
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            try {
+                builder.start().waitFor();
+            } catch (IOException e) {
+                System.err.println("Error running alert script " + command + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+}
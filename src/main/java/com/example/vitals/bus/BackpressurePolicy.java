@@ -0,0 +1,31 @@
+package com.example.vitals.bus;
+
+import com.example.vitals.utils.VitalsConfig;
+
+/**
+ * What happens when a consumer falls a full ring behind the collector.
+ */
+public enum BackpressurePolicy {
+    /** The collector waits for the consumer; nothing is lost. Use for storage. */
+    BLOCK,
+    /** The consumer skips the samples that were overwritten and carries on with the oldest remaining one. */
+    DROP_OLDEST,
+    /** The consumer skips straight to the newest sample whenever it is behind. Use for displays. */
+    LATEST;
+
+    /**
+     * The policy configured by vitals.bus.&lt;consumer&gt;.policy, or the default.
+     */
+    public static BackpressurePolicy forConsumer(String consumer, BackpressurePolicy defaultPolicy) {
+        String configured = VitalsConfig.getString("vitals.bus." + consumer + ".policy", null);
+        if (configured == null) {
+            return defaultPolicy;
+        }
+        try {
+            return valueOf(configured.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for vitals.bus." + consumer + ".policy: " + configured + ", using " + defaultPolicy);
+            return defaultPolicy;
+        }
+    }
+}
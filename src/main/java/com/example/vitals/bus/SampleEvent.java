@@ -0,0 +1,70 @@
+package com.example.vitals.bus;
+
+import com.example.vitals.models.SystemSample;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * One preallocated slot of the ring: a sample and the anomaly flags a processing stage stamped on it.
+ * The slot's sequence works as a seqlock, so consumers that may be overtaken by the collector can tell
+ * whether the slot was overwritten while they read it.
+ */
+public final class SampleEvent {
+
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(SampleEvent.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Sequence of the sample in the slot, or -1 while the collector is writing it
+    private volatile long sequence = -1;
+    private SystemSample sample;
+    private int anomalyFlags;
+
+    SampleEvent() {
+    }
+
+    public SystemSample getSample() {
+        return sample;
+    }
+
+    public int getAnomalyFlags() {
+        return anomalyFlags;
+    }
+
+    public void setAnomalyFlags(int anomalyFlags) {
+        this.anomalyFlags = anomalyFlags;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void write(long newSequence, SystemSample newSample) {
+        sequence = -1;
+        // The slot must read as in-progress before any field changes
+        VarHandle.storeStoreFence();
+        sample = newSample;
+        anomalyFlags = 0;
+        SEQUENCE.setRelease(this, newSequence);
+    }
+
+    /**
+     * Copies the slot into the target and returns whether it still held the given sequence throughout.
+     */
+    boolean copyTo(SampleEvent target, long expectedSequence) {
+        if (sequence != expectedSequence) {
+            return false;
+        }
+        target.sample = sample;
+        target.anomalyFlags = anomalyFlags;
+        VarHandle.loadLoadFence();
+        return sequence == expectedSequence;
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.vitals.bus;
+
+import com.example.vitals.models.SystemSample;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-producer ring buffer carrying collector samples to independent consumers, Disruptor style.
+ * Slots are preallocated and reused, so publishing allocates nothing and takes no lock. Every consumer
+ * runs on its own thread with its own cursor and waits on a sequence barrier: the collector cursor plus
+ * the cursors of the stages it depends on (storage waits for the stage that stamps the anomaly flags).
+ * Only BLOCK consumers ever hold the collector back, and only once they are a whole ring behind;
+ * DROP_OLDEST and LATEST consumers skip samples instead, so they cannot slow collection at all.
+ * Consumers are normally subscribed before the collector starts publishing.
+ */
+public class SampleEventBus implements AutoCloseable {
+
+    // Consumers are woken on publish; the timeout only bounds a missed wake-up
+    private static final long CONSUMER_PARK_NANOS = 100_000_000L;
+    private static final long PRODUCER_PARK_NANOS = 1_000_000L;
+    private static final long CLOSE_TIMEOUT_MS = 5_000;
+
+    private final SampleEvent[] slots;
+    private final int mask;
+    private final Sequence cursor = new Sequence(-1);
+    private volatile Consumer[] consumers = new Consumer[0];
+    // BLOCK consumers, whose cursors the collector may not overtake by a whole ring
+    private volatile Consumer[] gating = new Consumer[0];
+    // Collector-only cache of the slowest gating cursor, so most publishes skip the scan
+    private long cachedGatingSequence = -1;
+    private volatile Thread waitingProducer;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public SampleEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new SampleEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new SampleEvent();
+        }
+        mask = size - 1;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Sequence of the newest published sample, -1 before the first.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    public List<Consumer> getConsumers() {
+        return List.of(consumers);
+    }
+
+    /**
+     * Starts a consumer on its own thread, beginning with the next published sample.
+     *
+     * @param dependencies stages that must have processed a sample before this consumer sees it; they must use BLOCK
+     */
+    public synchronized Consumer subscribe(String name, BackpressurePolicy policy, SampleHandler handler, Consumer... dependencies) {
+        for (Consumer dependency : dependencies) {
+            if (dependency.policy != BackpressurePolicy.BLOCK) {
+                throw new IllegalArgumentException("Consumer " + name + " can only depend on BLOCK consumers, "
+                        + dependency.name + " uses " + dependency.policy);
+            }
+        }
+        Consumer consumer = new Consumer(name, policy, handler, dependencies);
+        consumers = append(consumers, consumer);
+        if (policy == BackpressurePolicy.BLOCK) {
+            gating = append(gating, consumer);
+        }
+        for (Consumer dependency : dependencies) {
+            dependency.dependents = append(dependency.dependents, consumer);
+        }
+        consumer.thread.start();
+        return consumer;
+    }
+
+    /**
+     * Publishes a sample to every consumer and returns its sequence, or -1 once the bus is closed.
+     * Only one thread, the collector, may publish.
+     */
+    public long publish(SystemSample sample) {
+        if (closed) {
+            return -1;
+        }
+        long next = cursor.get() + 1;
+        long wrapPoint = next - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long slowest;
+            while (wrapPoint > (slowest = slowestGatingSequence(next - 1))) {
+                // A BLOCK consumer is a whole ring behind: wait for it to free the slot
+                if (closed) {
+                    return -1;
+                }
+                waitingProducer = Thread.currentThread();
+                if (wrapPoint > slowestGatingSequence(next - 1)) {
+                    LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+                }
+                waitingProducer = null;
+            }
+            cachedGatingSequence = slowest;
+        }
+
+        slots[(int) (next & mask)].write(next, sample);
+        cursor.set(next);
+        for (Consumer consumer : consumers) {
+            consumer.wakeIfWaiting();
+        }
+        return next;
+    }
+
+    private long slowestGatingSequence(long slowest) {
+        for (Consumer consumer : gating) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    /**
+     * Stops accepting samples and waits for every consumer to finish what was already published.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        long deadline = System.currentTimeMillis() + CLOSE_TIMEOUT_MS;
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static Consumer[] append(Consumer[] array, Consumer consumer) {
+        Consumer[] appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = consumer;
+        return appended;
+    }
+
+    /**
+     * One consumer: its cursor, its barrier and the thread running its handler.
+     */
+    public final class Consumer {
+        private final String name;
+        private final BackpressurePolicy policy;
+        private final SampleHandler handler;
+        private final Consumer[] dependencies;
+        private final Sequence[] barrier;
+        private final Sequence sequence;
+        private volatile Consumer[] dependents = new Consumer[0];
+        // Consumers that may be overtaken read each slot into this copy and check it was not overwritten meanwhile
+        private final SampleEvent copy = new SampleEvent();
+        private final Thread thread;
+        private volatile boolean waiting;
+        private volatile long processed;
+        private volatile long dropped;
+
+        private Consumer(String name, BackpressurePolicy policy, SampleHandler handler, Consumer[] dependencies) {
+            this.name = name;
+            this.policy = policy;
+            this.handler = handler;
+            this.dependencies = dependencies;
+            this.barrier = new Sequence[dependencies.length];
+            for (int i = 0; i < dependencies.length; i++) {
+                barrier[i] = dependencies[i].sequence;
+            }
+            this.sequence = new Sequence(cursor.get());
+            this.thread = new Thread(this::run, "vitals-bus-" + name);
+            thread.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public BackpressurePolicy getPolicy() {
+            return policy;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        /**
+         * Samples this consumer skipped because it fell behind (never for BLOCK).
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Published samples this consumer has not processed yet.
+         */
+        public long getLag() {
+            return Math.max(0, cursor.get() - sequence.get());
+        }
+
+        private long available() {
+            long available = cursor.get();
+            for (Sequence dependency : barrier) {
+                available = Math.min(available, dependency.get());
+            }
+            return available;
+        }
+
+        private boolean dependenciesRunning() {
+            for (Consumer dependency : dependencies) {
+                if (dependency.thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void wakeIfWaiting() {
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        private void run() {
+            long next = sequence.get() + 1;
+            while (true) {
+                long available = available();
+                if (available < next) {
+                    // Everything published before close() has been handled, or the stages before this one stopped short of it
+                    if (closed && (next > cursor.get() || !dependenciesRunning() && available() < next)) {
+                        return;
+                    }
+                    waiting = true;
+                    if (available() < next && !closed) {
+                        LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+                    }
+                    waiting = false;
+                    continue;
+                }
+
+                if (policy != BackpressurePolicy.BLOCK) {
+                    long skipTo = policy == BackpressurePolicy.LATEST ? available : cursor.get() - slots.length + 1;
+                    if (next < skipTo) {
+                        dropped += skipTo - next;
+                        next = skipTo;
+                    }
+                }
+
+                while (next <= available) {
+                    SampleEvent event = slots[(int) (next & mask)];
+                    if (policy != BackpressurePolicy.BLOCK) {
+                        if (!event.copyTo(copy, next)) {
+                            // Overwritten while this consumer was behind; skip ahead again
+                            dropped++;
+                            next++;
+                            break;
+                        }
+                        event = copy;
+                    }
+                    try {
+                        handler.onSample(event, next, next == available);
+                    } catch (Exception e) {
+                        System.err.println("Bus consumer " + name + " failed on sample " + next + ": " + e.getMessage());
+                        e.printStackTrace();
+                    }
+                    processed++;
+                    next++;
+                }
+
+                sequence.set(next - 1);
+                Thread producer = waitingProducer;
+                if (producer != null) {
+                    LockSupport.unpark(producer);
+                }
+                for (Consumer dependent : dependents) {
+                    dependent.wakeIfWaiting();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.vitals.bus;
+
+/**
+ * Processes the samples of one bus consumer, on that consumer's own thread.
+ */
+@FunctionalInterface
+public interface SampleHandler {
+
+    /**
+     * @param event      the sample; only BLOCK consumers get the ring slot itself and may update it for later stages
+     * @param sequence   position of the sample in the stream
+     * @param endOfBatch whether this is the last sample currently available, e.g. to flush batched writes
+     */
+    void onSample(SampleEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
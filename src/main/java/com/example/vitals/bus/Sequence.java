@@ -0,0 +1,26 @@
+package com.example.vitals.bus;
+
+/**
+ * A sequence number padded onto its own cache line, so the collector cursor and the consumer
+ * cursors, each written by a different thread, never invalidate each other's cache lines.
+ */
+final class Sequence {
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long value;
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    Sequence(long initial) {
+        value = initial;
+    }
+
+    long get() {
+        return value;
+    }
+
+    void set(long newValue) {
+        value = newValue;
+    }
+}
@@ -1,7 +1,17 @@
 package com.example.vitals.controllers;
 
+import com.example.vitals.alerts.AlertEvent;
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.ResourceForecast;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.RollingStats;
+import com.example.vitals.utils.VitalsConfig;
+import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -9,16 +19,38 @@ import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
+import javafx.scene.control.Tooltip;
 import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.DoubleFunction;
 
 public class DashboardController {
     // Load HistoricalView Component
     @FXML private Button viewHistoryButton;
 
+    // History window, created on first use and reused afterwards
+    private Stage historyStage;
+    private HistoricalController historicalController;
+
+    // Alert banner, shown while at least one alert rule is firing
+    @FXML private Label alertBannerLabel;
+
+    // Host selector, shown once samples from remote agents arrive
+    @FXML private ComboBox<String> hostComboBox;
+
     // CPU Components
     @FXML private LineChart<String, Number> cpuChart;
     @FXML private Label cpuPercentageLabel;
@@ -43,10 +75,22 @@ public class DashboardController {
     @FXML private Label uploadSpeedLabel;
     @FXML private Label downloadSpeedLabel;
 
+    // 1, 5 and 15 minute averages next to each live value; min and max in the tooltip
+    @FXML private Label cpuRollingLabel;
+    @FXML private Label memoryRollingLabel;
+    @FXML private Label diskRollingLabel;
+    @FXML private Label networkRollingLabel;
+
+    // Estimated time until memory and the first disk run full
+    @FXML private Label memoryForecastLabel;
+    @FXML private Label diskForecastLabel;
+
     // Chart data series
     private XYChart.Series<String, Number> cpuSeries;
     private XYChart.Series<String, Number> networkUploadSeries;
     private XYChart.Series<String, Number> networkDownloadSeries;
+    // One series per physical interface, only touched on the FX thread
+    private final Map<String, XYChart.Series<String, Number>> interfaceSeries = new LinkedHashMap<>();
 
     // Data point counter for time axis
     private int dataPointCounter = 0;
@@ -62,15 +106,74 @@ public class DashboardController {
     private static final double MEMORY_CIRCLE_RADIUS = 60.0;
     private static final double MEMORY_CIRCLE_CIRCUMFERENCE = 2 * Math.PI * MEMORY_CIRCLE_RADIUS;
 
-    // Animation timeline for smooth updates
+    // Redraws at a reduced rate while the window is visible but not focused
     private Timeline updateTimeline;
 
+    // Drawing follows the window: live while focused, throttled while in the background, suspended while hidden
+    private enum RenderMode { LIVE, THROTTLED, SUSPENDED }
+
+    private static final boolean SUSPEND_WHEN_HIDDEN = VitalsConfig.getBoolean("vitals.dashboard.suspendWhenHidden", true);
+    private static final long BACKGROUND_RENDER_MS = VitalsConfig.getLong("vitals.dashboard.backgroundRenderMs", 2_000);
+
+    private volatile RenderMode renderMode = RenderMode.LIVE;
+    private volatile boolean renderingPaused;
+    private final AtomicBoolean renderScheduled = new AtomicBoolean();
+    private Window dashboardWindow;
+
+    // Last chart's worth of samples of the selected host, kept even while nothing is drawn; guarded by itself
+    private final SystemSample[] recentSamples = new SystemSample[MAX_DATA_POINTS];
+    private long recentCount;
+    // Samples from this sequence on belong to the selected host; set, with chartsReset, when the host changes
+    private long recentStart;
+    private boolean chartsReset;
+    // Samples already drawn, only touched on the FX thread under the same lock
+    private long renderedCount;
+
+    // Host whose live samples are displayed; samples from other hosts are ignored
+    private volatile String selectedHost = HistoricalDataDAO.LOCAL_HOST;
+    private final Set<String> knownHosts = ConcurrentHashMap.newKeySet();
+
+    // Rolling windows of the selected host, fed on the thread that delivers its samples and guarded by their own lock
+    private static final long[] ROLLING_WINDOWS_MS = {60_000, 5 * 60_000, 15 * 60_000};
+    private static final String[] ROLLING_WINDOW_NAMES = {"1m", "5m", "15m"};
+    private final RollingStats cpuStats = new RollingStats(ROLLING_WINDOWS_MS);
+    private final RollingStats memoryStats = new RollingStats(ROLLING_WINDOWS_MS);
+    private final RollingStats diskStats = new RollingStats(ROLLING_WINDOWS_MS);
+    private final RollingStats uploadStats = new RollingStats(ROLLING_WINDOWS_MS);
+    private final RollingStats downloadStats = new RollingStats(ROLLING_WINDOWS_MS);
+    private final Object rollingStatsLock = new Object();
+    // Set when the host changes; the sample thread clears the windows before its next sample
+    private volatile boolean rollingStatsReset;
+    // Newest readouts for the next redraw, and the ones on screen (FX thread only)
+    private volatile RollingReadout rollingReadout;
+    private RollingReadout shownRollingReadout;
+    private volatile List<ResourceForecast> latestForecasts;
+    private List<ResourceForecast> shownForecasts;
+
+    private record RollingReadout(RollingStats.Summary cpu, RollingStats.Summary memory, RollingStats.Summary disk,
+                                  RollingStats.Summary upload, RollingStats.Summary download) {
+    }
+
+    // Currently firing alerts by rule name, only touched on the FX thread
+    private final Map<String, AlertEvent> activeAlerts = new LinkedHashMap<>();
+
     @FXML
     private void handleViewHistory() {
+        // The history window is built once and reused; reopening only fetches rows added since it was last shown
+        if (historyStage != null) {
+            historicalController.setHost(selectedHost);
+            historicalController.refreshCharts();
+            historyStage.show();
+            historyStage.toFront();
+            return;
+        }
+
         // Load HistoricalView.fxml and display it in a new Scene or Dialog
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/HistoricalView.fxml"));
             Parent historicalRoot = loader.load();
+            historicalController = loader.getController();
+            historicalController.setHost(selectedHost);
             Scene historicalScene = new Scene(historicalRoot, 800, 600);
             historicalScene.getStylesheets().add(Objects.requireNonNull(getClass().getResource("/css/historical-styles.css")).toExternalForm());
             Stage stage = new Stage();
@@ -78,6 +181,7 @@ public class DashboardController {
             stage.setScene(historicalScene);
             stage.setTitle("Historical Metrics");
             stage.show();
+            historyStage = stage;
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -90,6 +194,8 @@ public class DashboardController {
         initializeNetworkChart();
         initializeDiskBar();
         initializeAnimations();
+        initializeHostSelector();
+        initializeVisibilityTracking();
 
         // Apply initial styling classes
         applyInitialStyling();
@@ -135,7 +241,7 @@ public class DashboardController {
         networkDownloadSeries = new XYChart.Series<>();
         networkDownloadSeries.setName("Download");
 
-        networkChart.getData().addAll(networkUploadSeries, networkDownloadSeries);
+        networkChart.getData().addAll(List.of(networkUploadSeries, networkDownloadSeries));
         networkChart.setCreateSymbols(false);
         networkChart.setLegendVisible(false);
         networkChart.setAnimated(false);
@@ -161,11 +267,87 @@ public class DashboardController {
     }
 
     private void initializeAnimations() {
-        // Create a timeline for smooth UI updates (optional - for future enhancements)
-        updateTimeline = new Timeline();
+        // Draws whatever arrived since the last tick; only runs while the window is in the background
+        updateTimeline = new Timeline(new KeyFrame(Duration.millis(Math.max(1, BACKGROUND_RENDER_MS)), event -> renderPending()));
         updateTimeline.setCycleCount(Timeline.INDEFINITE);
     }
 
+    private void initializeVisibilityTracking() {
+        // Main puts the dashboard into its stage after loading, so follow the scene to its window
+        cpuChart.sceneProperty().addListener((obsScene, oldScene, scene) -> {
+            if (scene != null) {
+                scene.windowProperty().addListener((obsWindow, oldWindow, window) -> watchWindow(window));
+            }
+        });
+    }
+
+    private void watchWindow(Window window) {
+        dashboardWindow = window;
+        if (window == null) {
+            return;
+        }
+        InvalidationListener stateChanged = observable -> updateRenderMode();
+        window.showingProperty().addListener(stateChanged);
+        window.focusedProperty().addListener(stateChanged);
+        if (window instanceof Stage stage) {
+            stage.iconifiedProperty().addListener(stateChanged);
+        }
+        updateRenderMode();
+    }
+
+    /**
+     * Picks the render mode from the window state. Minimized or closed suspends all drawing while samples are
+     * still collected, stored and buffered; unfocused, e.g. while the history window is in front, redraws at
+     * most every vitals.dashboard.backgroundRenderMs. Leaving suspension redraws the charts and the rolling
+     * readout once from the buffer and the windows.
+     */
+    private void updateRenderMode() {
+        Window window = dashboardWindow;
+        boolean hidden = window != null && (!window.isShowing() || window instanceof Stage stage && stage.isIconified());
+        RenderMode mode;
+        if (renderingPaused || (SUSPEND_WHEN_HIDDEN && hidden)) {
+            mode = RenderMode.SUSPENDED;
+        } else if (window != null && !window.isFocused() && BACKGROUND_RENDER_MS > 0) {
+            mode = RenderMode.THROTTLED;
+        } else {
+            mode = RenderMode.LIVE;
+        }
+        if (mode == renderMode) {
+            return;
+        }
+        boolean resumed = renderMode == RenderMode.SUSPENDED;
+        renderMode = mode;
+        if (resumed) {
+            // The readout stopped updating while suspended; rebuild it from the windows, which kept counting
+            synchronized (rollingStatsLock) {
+                if (!rollingStatsReset) {
+                    rollingReadout = readRollingStats();
+                }
+            }
+        }
+        if (mode == RenderMode.THROTTLED) {
+            updateTimeline.play();
+        } else {
+            updateTimeline.stop();
+        }
+        if (mode != RenderMode.SUSPENDED) {
+            renderPending();
+        }
+    }
+
+    private void initializeHostSelector() {
+        knownHosts.add(HistoricalDataDAO.LOCAL_HOST);
+        hostComboBox.getItems().add(HistoricalDataDAO.LOCAL_HOST);
+        hostComboBox.setValue(HistoricalDataDAO.LOCAL_HOST);
+        hostComboBox.setOnAction(event -> {
+            String host = hostComboBox.getValue();
+            if (host != null && !host.equals(selectedHost)) {
+                selectedHost = host;
+                resetAllCharts();
+            }
+        });
+    }
+
     private void applyInitialStyling() {
         // Ensure all components have their proper style classes
         cpuPercentageLabel.getStyleClass().add("stat-value");
@@ -179,10 +361,239 @@ public class DashboardController {
         downloadSpeedLabel.getStyleClass().add("network-speed-large");
     }
 
+    /**
+     * Displays a sample if it belongs to the selected host, and makes new hosts selectable.
+     * Called from the local collector and, in collector mode, from every agent connection.
+     * The sample is buffered and drawn on the next render pass; nothing is drawn while the window is hidden.
+     */
+    public void updateFromSample(String host, SystemSample sample) {
+        if (knownHosts.add(host)) {
+            Platform.runLater(() -> {
+                hostComboBox.getItems().add(host);
+                hostComboBox.setVisible(true);
+                hostComboBox.setManaged(true);
+            });
+        }
+        if (!host.equals(selectedHost)) {
+            return;
+        }
+
+        synchronized (recentSamples) {
+            recentSamples[(int) (recentCount % MAX_DATA_POINTS)] = sample;
+            recentCount++;
+        }
+        updateRollingStats(sample);
+        requestRender();
+    }
+
+    /**
+     * Adds the sample to the rolling windows and keeps their readout for the next render pass, load-average style.
+     * Each update is O(1), so the windows cost the same however many samples they span.
+     */
+    private void updateRollingStats(SystemSample sample) {
+        synchronized (rollingStatsLock) {
+            addRollingSample(sample);
+        }
+    }
+
+    private void addRollingSample(SystemSample sample) {
+        if (rollingStatsReset) {
+            rollingStatsReset = false;
+            cpuStats.clear();
+            memoryStats.clear();
+            diskStats.clear();
+            uploadStats.clear();
+            downloadStats.clear();
+        }
+        long timestamp = sample.timestamp();
+        cpuStats.add(timestamp, sample.cpu().usagePercentage());
+        if (sample.memory().totalGB() > 0) {
+            memoryStats.add(timestamp, sample.memory().usedGB() / sample.memory().totalGB() * 100);
+        }
+        if (sample.disk().totalGB() > 0) {
+            diskStats.add(timestamp, sample.disk().usedGB() / sample.disk().totalGB() * 100);
+        }
+        uploadStats.add(timestamp, sample.network().uploadSpeedKbps());
+        downloadStats.add(timestamp, sample.network().downloadSpeedKbps());
+
+        // The windows keep counting while hidden; their readout is only built when someone can see it
+        if (renderMode != RenderMode.SUSPENDED) {
+            rollingReadout = readRollingStats();
+        }
+    }
+
+    private RollingReadout readRollingStats() {
+        return new RollingReadout(cpuStats.summary(), memoryStats.summary(), diskStats.summary(),
+                uploadStats.summary(), downloadStats.summary());
+    }
+
+    private void requestRender() {
+        // Throttled mode leaves drawing to the timeline, suspended mode to the next change of window state
+        if (renderMode == RenderMode.LIVE && renderScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::renderPending);
+        }
+    }
+
+    /**
+     * Draws what arrived since the last pass, on the FX thread. Samples that came in together cost one chart
+     * update; after a host change or more than a chart's worth of missed samples, the charts are rebuilt from
+     * the buffer instead, and the labels always show only the newest sample.
+     */
+    private void renderPending() {
+        renderScheduled.set(false);
+        if (renderMode == RenderMode.SUSPENDED) {
+            return;
+        }
+        SystemSample[] pending;
+        boolean rebuild;
+        synchronized (recentSamples) {
+            rebuild = chartsReset || recentCount - renderedCount > MAX_DATA_POINTS;
+            chartsReset = false;
+            long from = Math.max(Math.max(renderedCount, recentCount - MAX_DATA_POINTS), recentStart);
+            pending = new SystemSample[(int) (recentCount - from)];
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = recentSamples[(int) ((from + i) % MAX_DATA_POINTS)];
+            }
+            renderedCount = recentCount;
+        }
+        if (rebuild) {
+            clearCharts();
+            shownForecasts = null;
+        }
+        if (pending.length > 0) {
+            plotSamples(pending);
+            showSample(pending[pending.length - 1]);
+        }
+
+        RollingReadout rolling = rollingReadout;
+        if (rolling != null && rolling != shownRollingReadout) {
+            shownRollingReadout = rolling;
+            showRollingReadout(rolling);
+        }
+        List<ResourceForecast> forecasts = latestForecasts;
+        if (forecasts != null && forecasts != shownForecasts) {
+            shownForecasts = forecasts;
+            showForecasts(forecasts);
+        }
+    }
+
+    private void plotSamples(SystemSample[] samples) {
+        // With a single interface the totals already say it all, so per-interface series appear from the second one
+        boolean perInterface = !interfaceSeries.isEmpty();
+        for (SystemSample sample : samples) {
+            perInterface |= sample.interfaces().size() > 1;
+        }
+
+        List<XYChart.Data<String, Number>> cpuPoints = new ArrayList<>(samples.length);
+        List<XYChart.Data<String, Number>> uploadPoints = new ArrayList<>(samples.length);
+        List<XYChart.Data<String, Number>> downloadPoints = new ArrayList<>(samples.length);
+        Map<String, List<XYChart.Data<String, Number>>> interfacePoints = new LinkedHashMap<>();
+        for (SystemSample sample : samples) {
+            String timePoint = String.valueOf(dataPointCounter++);
+            cpuPoints.add(new XYChart.Data<>(timePoint, sample.cpu().usagePercentage()));
+            uploadPoints.add(new XYChart.Data<>(timePoint, sample.network().uploadSpeedKbps()));
+            downloadPoints.add(new XYChart.Data<>(timePoint, sample.network().downloadSpeedKbps()));
+            if (perInterface) {
+                for (InterfaceActivity nic : sample.interfaces()) {
+                    double busierKbps = Math.max(nic.rxBytesPerSec(), nic.txBytesPerSec()) * 8 / 1024;
+                    interfacePoints.computeIfAbsent(nic.name(), name -> new ArrayList<>()).add(new XYChart.Data<>(timePoint, busierKbps));
+                }
+            }
+        }
+
+        appendPoints(cpuSeries, cpuPoints);
+        appendPoints(networkUploadSeries, uploadPoints);
+        appendPoints(networkDownloadSeries, downloadPoints);
+        for (Map.Entry<String, List<XYChart.Data<String, Number>>> entry : interfacePoints.entrySet()) {
+            appendPoints(interfaceSeriesFor(entry.getKey()), entry.getValue());
+        }
+        updateChartYAxisRange(cpuChart, cpuSeries);
+        updateNetworkChartYAxisRange();
+    }
+
+    // One change per series and pass, however many points it adds or drops
+    private static void appendPoints(XYChart.Series<String, Number> series, List<XYChart.Data<String, Number>> points) {
+        ObservableList<XYChart.Data<String, Number>> data = series.getData();
+        data.addAll(points);
+        if (data.size() > MAX_DATA_POINTS) {
+            data.remove(0, data.size() - MAX_DATA_POINTS);
+        }
+    }
+
+    private XYChart.Series<String, Number> interfaceSeriesFor(String name) {
+        XYChart.Series<String, Number> series = interfaceSeries.get(name);
+        if (series == null) {
+            series = new XYChart.Series<>();
+            series.setName(name);
+            interfaceSeries.put(name, series);
+            networkChart.getData().add(series);
+            networkChart.setLegendVisible(true);
+        }
+        return series;
+    }
+
+    private void showSample(SystemSample sample) {
+        showCPUUsage(sample.cpu().usagePercentage());
+        showMemoryUsage(sample.memory().totalGB(), sample.memory().usedGB(), sample.memory().availableGB());
+        showDiskUsage(sample.disk().totalGB(), sample.disk().usedGB(), sample.disk().totalGB() - sample.disk().usedGB());
+        showNetworkActivity(sample.network().uploadSpeedKbps(), sample.network().downloadSpeedKbps());
+    }
+
+    private void showRollingReadout(RollingReadout rolling) {
+        DoubleFunction<String> percent = value -> String.format("%.1f%%", value);
+        showRollingStats(cpuRollingLabel, formatRollingMeans("", rolling.cpu(), percent), formatRollingRanges("", rolling.cpu(), percent));
+        showRollingStats(memoryRollingLabel, formatRollingMeans("", rolling.memory(), percent), formatRollingRanges("", rolling.memory(), percent));
+        showRollingStats(diskRollingLabel, formatRollingMeans("", rolling.disk(), percent), formatRollingRanges("", rolling.disk(), percent));
+        showRollingStats(networkRollingLabel,
+                formatRollingMeans("↑ ", rolling.upload(), this::formatNetworkSpeed) + "\n" + formatRollingMeans("↓ ", rolling.download(), this::formatNetworkSpeed),
+                formatRollingRanges("Upload ", rolling.upload(), this::formatNetworkSpeed) + "\n" + formatRollingRanges("Download ", rolling.download(), this::formatNetworkSpeed));
+    }
+
+    private void showRollingStats(Label label, String means, String ranges) {
+        label.setText(means);
+        if (label.getTooltip() == null) {
+            label.setTooltip(new Tooltip());
+        }
+        label.getTooltip().setText(ranges);
+    }
+
+    private String formatRollingMeans(String prefix, RollingStats.Summary summary, DoubleFunction<String> format) {
+        StringBuilder text = new StringBuilder(prefix);
+        for (int w = 0; w < ROLLING_WINDOW_NAMES.length; w++) {
+            if (w > 0) {
+                text.append("   ");
+            }
+            text.append(ROLLING_WINDOW_NAMES[w]).append(' ');
+            text.append(Double.isNaN(summary.mean()[w]) ? "–" : format.apply(summary.mean()[w]));
+        }
+        return text.toString();
+    }
+
+    private String formatRollingRanges(String prefix, RollingStats.Summary summary, DoubleFunction<String> format) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < ROLLING_WINDOW_NAMES.length; w++) {
+            if (w > 0) {
+                text.append('\n');
+            }
+            text.append(prefix).append(ROLLING_WINDOW_NAMES[w]).append(": ");
+            if (Double.isNaN(summary.mean()[w])) {
+                text.append("no samples yet");
+            } else {
+                text.append("min ").append(format.apply(summary.min()[w]))
+                        .append(", mean ").append(format.apply(summary.mean()[w]))
+                        .append(", max ").append(format.apply(summary.max()[w]));
+            }
+        }
+        return text.toString();
+    }
+
+    public String getSelectedHost() {
+        return selectedHost;
+    }
+
     public void updateCPUUsage(double cpuPercentage) {
         Platform.runLater(() -> {
-            // Update label with proper formatting
-            cpuPercentageLabel.setText(String.format("%.1f%%", cpuPercentage));
+            showCPUUsage(cpuPercentage);
 
             // Add data point to chart with time-based x-axis
             String timePoint = String.valueOf(dataPointCounter++);
@@ -198,42 +609,51 @@ public class DashboardController {
         });
     }
 
+    private void showCPUUsage(double cpuPercentage) {
+        // Update label with proper formatting
+        cpuPercentageLabel.setText(String.format("%.1f%%", cpuPercentage));
+    }
+
     public void updateMemoryUsage(double totalGB, double usedGB, double availableGB) {
-        Platform.runLater(() -> {
-            // Update main circular display - show used amount
-            memoryUsedLabel.setText(String.format("%.1f GB", usedGB));
+        Platform.runLater(() -> showMemoryUsage(totalGB, usedGB, availableGB));
+    }
 
-            // Calculate and display percentage
-            double usagePercentage = (usedGB / totalGB) * 100;
-            memoryPercentageLabel.setText(String.format("%.1f%%", usagePercentage));
+    private void showMemoryUsage(double totalGB, double usedGB, double availableGB) {
+        // Update main circular display - show used amount
+        memoryUsedLabel.setText(String.format("%.1f GB", usedGB));
 
-            // Update detailed statistics
-            memoryUsedStatLabel.setText(String.format("%.1f GB", usedGB));
-            memoryAvailableLabel.setText(String.format("%.1f GB", availableGB));
-            memoryTotalLabel.setText(String.format("%.1f GB", totalGB));
+        // Calculate and display percentage
+        double usagePercentage = (usedGB / totalGB) * 100;
+        memoryPercentageLabel.setText(String.format("%.1f%%", usagePercentage));
 
-            // Update circular progress with smooth animation
-            updateMemoryCircularProgress(usagePercentage);
-        });
+        // Update detailed statistics
+        memoryUsedStatLabel.setText(String.format("%.1f GB", usedGB));
+        memoryAvailableLabel.setText(String.format("%.1f GB", availableGB));
+        memoryTotalLabel.setText(String.format("%.1f GB", totalGB));
+
+        // Update circular progress with smooth animation
+        updateMemoryCircularProgress(usagePercentage);
     }
 
     public void updateDiskUsage(double totalGB, double usedGB, double availableGB) {
-        Platform.runLater(() -> {
-            // Store total system values
-            totalSystemDiskSpace = totalGB;
-            totalSystemUsedSpace = usedGB;
+        Platform.runLater(() -> showDiskUsage(totalGB, usedGB, availableGB));
+    }
 
-            // Calculate and display percentage
-            double usagePercentage = totalGB > 0 ? (usedGB / totalGB) * 100 : 0;
+    private void showDiskUsage(double totalGB, double usedGB, double availableGB) {
+        // Store total system values
+        totalSystemDiskSpace = totalGB;
+        totalSystemUsedSpace = usedGB;
 
-            // Update progress bar
-            totalDiskProgressBar.setProgress(usagePercentage / 100.0);
+        // Calculate and display percentage
+        double usagePercentage = totalGB > 0 ? (usedGB / totalGB) * 100 : 0;
 
-            // Update labels with proper formatting
-            diskUsedLabel.setText(String.format("%.1f GB", usedGB));
-            diskAvailableLabel.setText(String.format("%.1f GB", availableGB));
-            diskTotalLabel.setText(String.format("%.1f GB", totalGB));
-        });
+        // Update progress bar
+        totalDiskProgressBar.setProgress(usagePercentage / 100.0);
+
+        // Update labels with proper formatting
+        diskUsedLabel.setText(String.format("%.1f GB", usedGB));
+        diskAvailableLabel.setText(String.format("%.1f GB", availableGB));
+        diskTotalLabel.setText(String.format("%.1f GB", totalGB));
     }
 
     private void updateMemoryCircularProgress(double percentage) {
@@ -247,11 +667,7 @@ public class DashboardController {
 
     public void updateNetworkActivity(double uploadKbps, double downloadKbps) {
         Platform.runLater(() -> {
-            // Update upload speed with appropriate units
-            uploadSpeedLabel.setText(formatNetworkSpeed(uploadKbps));
-
-            // Update download speed with appropriate units
-            downloadSpeedLabel.setText(formatNetworkSpeed(downloadKbps));
+            showNetworkActivity(uploadKbps, downloadKbps);
 
             // Add data points to network chart
             String timePoint = String.valueOf(dataPointCounter);
@@ -271,6 +687,109 @@ public class DashboardController {
         });
     }
 
+    private void showNetworkActivity(double uploadKbps, double downloadKbps) {
+        // Update upload speed with appropriate units
+        uploadSpeedLabel.setText(formatNetworkSpeed(uploadKbps));
+
+        // Update download speed with appropriate units
+        downloadSpeedLabel.setText(formatNetworkSpeed(downloadKbps));
+    }
+
+    /**
+     * Shows the time to full of memory and of the disk that fills first; the tooltip lists every disk.
+     * Forecasts are of the local machine, so they are hidden while another host is selected.
+     * They are drawn with the next render pass, so a hidden window only keeps the newest ones.
+     */
+    public void updateForecasts(List<ResourceForecast> forecasts) {
+        latestForecasts = forecasts;
+        requestRender();
+    }
+
+    private void showForecasts(List<ResourceForecast> forecasts) {
+        boolean local = HistoricalDataDAO.LOCAL_HOST.equals(selectedHost);
+        memoryForecastLabel.setVisible(local);
+        diskForecastLabel.setVisible(local);
+
+        ResourceForecast firstDisk = null;
+        StringBuilder disks = new StringBuilder();
+        for (ResourceForecast forecast : forecasts) {
+            if (!forecast.disk()) {
+                showForecast(memoryForecastLabel, forecast, "");
+                continue;
+            }
+            if (firstDisk == null || hoursOrMax(forecast) < hoursOrMax(firstDisk)) {
+                firstDisk = forecast;
+            }
+            if (!disks.isEmpty()) {
+                disks.append('\n');
+            }
+            disks.append(forecast.resource()).append(": ").append(String.format("%.1f of %.1f GB", forecast.usedGB(), forecast.capacityGB()));
+            if (forecast.hasEstimate()) {
+                disks.append(String.format(", %+.2f GB/day, ", forecast.growthPerDay())).append(formatTimeToFull(forecast.hoursToFull()));
+            }
+        }
+        if (firstDisk != null) {
+            showForecast(diskForecastLabel, firstDisk, " (" + firstDisk.resource() + ")");
+            if (diskForecastLabel.getTooltip() == null) {
+                diskForecastLabel.setTooltip(new Tooltip());
+            }
+            diskForecastLabel.getTooltip().setText(disks.toString());
+        }
+    }
+
+    private static double hoursOrMax(ResourceForecast forecast) {
+        return forecast.hasEstimate() ? forecast.hoursToFull() : Double.MAX_VALUE;
+    }
+
+    private void showForecast(Label label, ResourceForecast forecast, String suffix) {
+        label.setText(forecast.hasEstimate()
+                ? "Time to full: " + formatTimeToFull(forecast.hoursToFull()) + suffix
+                : "Time to full: collecting trend…");
+        label.getStyleClass().remove("forecast-warning");
+        if (forecast.warning()) {
+            label.getStyleClass().add("forecast-warning");
+        }
+    }
+
+    private static String formatTimeToFull(double hours) {
+        if (Double.isInfinite(hours)) {
+            return "not filling up";
+        } else if (hours <= 0) {
+            return "full now";
+        } else if (hours < 1) {
+            return String.format("~%.0f min", Math.max(1, hours * 60));
+        } else if (hours < 48) {
+            return String.format("~%.1f h", hours);
+        } else if (hours < 24 * 365) {
+            return String.format("~%.0f days", hours / 24);
+        }
+        return "over a year";
+    }
+
+    /**
+     * Adds a firing alert to the banner or removes a resolved one; the banner hides when nothing is firing.
+     */
+    public void updateAlert(AlertEvent event) {
+        Platform.runLater(() -> {
+            if (event.firing()) {
+                activeAlerts.put(event.rule().name(), event);
+            } else {
+                activeAlerts.remove(event.rule().name());
+            }
+
+            StringBuilder text = new StringBuilder();
+            for (AlertEvent active : activeAlerts.values()) {
+                if (!text.isEmpty()) {
+                    text.append("\n");
+                }
+                text.append("⚠ ").append(active.rule().name()).append(": ").append(active.rule().describe());
+            }
+            alertBannerLabel.setText(text.toString());
+            alertBannerLabel.setVisible(!activeAlerts.isEmpty());
+            alertBannerLabel.setManaged(!activeAlerts.isEmpty());
+        });
+    }
+
     private String formatNetworkSpeed(double speedKbps) {
         if (speedKbps >= 1000000) {
             return String.format("%.2f Gbps", speedKbps / 1000000.0);
@@ -313,25 +832,34 @@ public class DashboardController {
 
     // Utility method to reset all charts
     public void resetAllCharts() {
-        Platform.runLater(() -> {
-            cpuSeries.getData().clear();
-            networkUploadSeries.getData().clear();
-            networkDownloadSeries.getData().clear();
-            dataPointCounter = 0;
-        });
+        // Samples buffered so far belong to the previous host; the next render pass clears the charts
+        synchronized (recentSamples) {
+            recentStart = recentCount;
+            chartsReset = true;
+        }
+        rollingStatsReset = true;
+        requestRender();
     }
 
-    // Method to pause/resume chart updates
+    private void clearCharts() {
+        cpuSeries.getData().clear();
+        networkUploadSeries.getData().clear();
+        networkDownloadSeries.getData().clear();
+        networkChart.getData().removeAll(interfaceSeries.values());
+        interfaceSeries.clear();
+        networkChart.setLegendVisible(false);
+        dataPointCounter = 0;
+    }
+
+    // Method to pause/resume chart updates; samples are still buffered and drawn on resume
     public void pauseUpdates() {
-        if (updateTimeline != null) {
-            updateTimeline.pause();
-        }
+        renderingPaused = true;
+        Platform.runLater(this::updateRenderMode);
     }
 
     public void resumeUpdates() {
-        if (updateTimeline != null) {
-            updateTimeline.play();
-        }
+        renderingPaused = false;
+        Platform.runLater(this::updateRenderMode);
     }
 
     // Getters for current system state
@@ -1,62 +1,134 @@
 package com.example.vitals.controllers;
 
+import com.example.vitals.dao.Deadband;
 import com.example.vitals.dao.HistoricalDataDAO;
-import com.example.vitals.dao.HistoricalDataDAO.MetricRecord;
-import com.example.vitals.models.CPUUsage;
-import com.example.vitals.models.DiskUsage;
-import com.example.vitals.models.MemoryUsage;
-import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.dao.HistoricalDataDAO.PercentileBand;
+import com.example.vitals.dao.InterfaceColumns;
+import com.example.vitals.dao.MetricColumns;
+import com.example.vitals.models.Metric;
+import com.example.vitals.utils.AnomalyDetector;
+import com.example.vitals.utils.HistoryTileCache;
 import com.example.vitals.utils.ReportExporter;
+import com.example.vitals.utils.VitalsConfig;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.MenuButton;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.ProgressIndicator;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class HistoricalController {
 
     @FXML private LineChart<String, Number> cpuHistoryChart;
     @FXML private LineChart<String, Number> memoryHistoryChart;
+    @FXML private LineChart<String, Number> networkHistoryChart;
     @FXML private ComboBox<TimePeriod> timePeriodComboBox;
     @FXML private MenuButton exportMenuButton;
     @FXML private MenuItem exportPdfMenuItem;
     @FXML private MenuItem exportCsvMenuItem;
+    @FXML private ProgressIndicator loadingIndicator;
+    @FXML private CheckBox percentileCheckBox;
+    @FXML private Button zoomInButton;
+    @FXML private Button zoomOutButton;
+    @FXML private Button panLeftButton;
+    @FXML private Button panRightButton;
+    @FXML private Button liveButton;
+    @FXML private Label viewRangeLabel;
 
     private final HistoricalDataDAO historicalDataDAO = new HistoricalDataDAO();
 
-    // Enum to represent time periods with display names and SQLite modifiers
+    // Host whose history is shown; the collector stores every agent under its own host name
+    private String host = HistoricalDataDAO.LOCAL_HOST;
+
+    // Loaded data per period; switching periods reuses it and refreshes only fetch the new tail
+    private final Map<TimePeriod, CachedPeriod> periodCache = new EnumMap<>(TimePeriod.class);
+
+    // Periodic refresh while the window is showing (0 disables it)
+    private static final long AUTO_REFRESH_SECONDS = VitalsConfig.getLong("vitals.history.refreshSeconds", 10);
+    private Timeline autoRefreshTimeline;
+
+    // Queries and chart point building run here, never on the FX thread; shared by all history windows
+    private static final ExecutorService HISTORY_LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vitals-history-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Task<?> currentLoadTask;
+    // Per-interface network history, loaded alongside the CPU and memory rows
+    private Task<?> interfaceLoadTask;
+
+    // Zoomed or panned view: an explicit [viewFromMs, viewToMs) instead of the selected period up to now
+    private boolean viewportMode;
+    private long viewFromMs;
+    private long viewToMs;
+    private double dragStartX;
+    private long dragFromMs;
+    private long dragToMs;
+    private static final long MIN_VIEW_SPAN_MS = 2 * 60_000;
+    private static final long MAX_VIEW_SPAN_MS = Duration.ofDays(366).toMillis();
+    // Horizontal pixels per chart point when matching the fetch resolution to the chart width
+    private static final int PIXELS_PER_POINT = 4;
+
+    private final HistoryTileCache tileCache = new HistoryTileCache(historicalDataDAO);
+    // Adjacent windows are prefetched on their own thread so they never delay the visible one
+    private static final ExecutorService HISTORY_PREFETCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vitals-history-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> prefetchFuture;
+
+    // Enum to represent time periods with display names and durations
     public enum TimePeriod {
-        HOUR("Past Hour", "-1 hour"),
-        DAY("Past Day", "-1 day"),
-        WEEK("Past Week", "-7 days");
+        HOUR("Past Hour", Duration.ofHours(1)),
+        DAY("Past Day", Duration.ofDays(1)),
+        WEEK("Past Week", Duration.ofDays(7));
 
         private final String displayName;
-        private final String sqliteModifier;
+        private final Duration duration;
 
-        TimePeriod(String displayName, String sqliteModifier) {
+        TimePeriod(String displayName, Duration duration) {
             this.displayName = displayName;
-            this.sqliteModifier = sqliteModifier;
+            this.duration = duration;
         }
 
         public String getDisplayName() {
             return displayName;
         }
 
-        public String getSqliteModifier() {
-            return sqliteModifier;
+        public Duration getDuration() {
+            return duration;
         }
 
         @Override
@@ -65,6 +137,29 @@ public class HistoricalController {
         }
     }
 
+    /**
+     * The rows and chart series loaded for one period, kept in the same order so
+     * expired rows can be dropped from the head of both and new rows appended to the tail.
+     */
+    private static final class CachedPeriod {
+        private final MetricColumns rows = new MetricColumns(0);
+        private final XYChart.Series<String, Number> cpuSeries = new XYChart.Series<>();
+        private final XYChart.Series<String, Number> memorySeries = new XYChart.Series<>();
+        // Start of the newest loaded bucket, refetched by the next refresh; only meaningful once loaded
+        private long lastEpochMs;
+        private boolean loaded;
+        // Per-interface buckets and their series, refreshed the same way from the time of the previous load
+        private final Map<String, InterfaceColumns> interfaceRows = new LinkedHashMap<>();
+        private final Map<String, XYChart.Series<String, Number>> interfaceSeries = new LinkedHashMap<>();
+        private long interfacesQueriedAt;
+        private boolean interfacesLoaded;
+
+        private CachedPeriod() {
+            cpuSeries.setName("CPU Usage");
+            memorySeries.setName("Memory Used (GB)");
+        }
+    }
+
     @FXML
     public void initialize() {
         // Initialize ComboBox with time period options
@@ -73,69 +168,640 @@ public class HistoricalController {
 
         // Add listener for ComboBox selection changes
         timePeriodComboBox.setOnAction(event -> loadChartsForSelectedPeriod());
+        percentileCheckBox.setOnAction(event -> loadChartsForSelectedPeriod());
+
+        // Zoom with the buttons or the mouse wheel, pan with the buttons or by dragging a chart
+        zoomInButton.setOnAction(event -> zoomAt(0.5, 0.5));
+        zoomOutButton.setOnAction(event -> zoomAt(0.5, 2.0));
+        panLeftButton.setOnAction(event -> panBy(-0.5));
+        panRightButton.setOnAction(event -> panBy(0.5));
+        liveButton.setOnAction(event -> loadChartsForSelectedPeriod());
+        installZoomAndPan(cpuHistoryChart);
+        installZoomAndPan(memoryHistoryChart);
 
         // Initialize export menu button actions
         exportPdfMenuItem.setOnAction(event -> exportToPdf());
         exportCsvMenuItem.setOnAction(event -> exportToCsv());
 
+        // Refresh periodically while the window is open; the cache makes each refresh a small tail query
+        initializeAutoRefresh();
+
         // Load initial data for the default selection
         loadChartsForSelectedPeriod();
     }
 
+    private void initializeAutoRefresh() {
+        if (AUTO_REFRESH_SECONDS <= 0) {
+            return;
+        }
+        autoRefreshTimeline = new Timeline(new KeyFrame(javafx.util.Duration.seconds(AUTO_REFRESH_SECONDS), event -> refreshCharts()));
+        autoRefreshTimeline.setCycleCount(Timeline.INDEFINITE);
+
+        // Run only while the window showing the charts is open and not minimized
+        cpuHistoryChart.sceneProperty().addListener((obsScene, oldScene, scene) -> {
+            if (scene == null) {
+                autoRefreshTimeline.stop();
+                return;
+            }
+            scene.windowProperty().addListener((obsWindow, oldWindow, window) -> {
+                if (window == null) {
+                    autoRefreshTimeline.stop();
+                    return;
+                }
+                window.showingProperty().addListener((obsShowing, wasShowing, showing) -> {
+                    if (showing) {
+                        autoRefreshTimeline.play();
+                    } else {
+                        autoRefreshTimeline.stop();
+                    }
+                });
+                if (window instanceof Stage stage) {
+                    stage.iconifiedProperty().addListener((obsIconified, wasIconified, iconified) -> {
+                        if (iconified) {
+                            autoRefreshTimeline.stop();
+                        } else if (stage.isShowing()) {
+                            // One catch-up query for everything added while minimized
+                            refreshCharts();
+                            autoRefreshTimeline.play();
+                        }
+                    });
+                }
+            });
+        });
+    }
+
     private void loadChartsForSelectedPeriod() {
         TimePeriod selectedPeriod = timePeriodComboBox.getValue();
         if (selectedPeriod == null) {
             return;
         }
 
-        // Clear existing chart data
-        cpuHistoryChart.getData().clear();
-        memoryHistoryChart.getData().clear();
+        // A new selection supersedes whatever is still loading, and returns to following the period up to now
+        cancelCurrentLoad();
+        viewportMode = false;
+        viewRangeLabel.setText("");
+        CachedPeriod cached = periodCache.computeIfAbsent(selectedPeriod, period -> new CachedPeriod());
+        if (percentileCheckBox.isSelected()) {
+            startPercentileLoad(selectedPeriod);
+        } else {
+            if (cached.loaded) {
+                // Show what is cached right away; the loader only has to fetch the new tail
+                showCachedPeriod(selectedPeriod, cached);
+            } else {
+                cpuHistoryChart.setTitle("CPU Usage (" + selectedPeriod.getDisplayName() + ") - Loading...");
+                memoryHistoryChart.setTitle("Memory Usage (" + selectedPeriod.getDisplayName() + ") - Loading...");
+            }
+            startLoad(selectedPeriod, cached);
+        }
+        // Queued behind the CPU and memory load on the loader thread
+        if (cached.interfacesLoaded) {
+            showCachedInterfaces(selectedPeriod, cached);
+        }
+        startInterfaceLoad(selectedPeriod, cached);
+    }
 
-        // Load data for the selected period
-        List<MetricRecord> records = historicalDataDAO.getMetricsForPeriod(selectedPeriod.getSqliteModifier());
+    private void cancelCurrentLoad() {
+        if (currentLoadTask != null && !currentLoadTask.isDone()) {
+            currentLoadTask.cancel(true);
+        }
+        currentLoadTask = null;
+        loadingIndicator.setVisible(false);
+    }
 
-        if (records.isEmpty()) {
-            // Update chart titles to reflect no data
-            cpuHistoryChart.setTitle("CPU Usage (" + selectedPeriod.getDisplayName() + ") - No Data");
-            memoryHistoryChart.setTitle("Memory Usage (" + selectedPeriod.getDisplayName() + ") - No Data");
-            return;
+    /**
+     * Loads rows for the period on the background loader. On the first load a coarse preview is shown
+     * while the refined buckets are fetched; later loads refetch only the newest buckets, which may have
+     * been partial or missing a late row, and what came after them.
+     */
+    private void startLoad(TimePeriod period, CachedPeriod cached) {
+        long cutoff = System.currentTimeMillis() - period.getDuration().toMillis();
+        boolean initial = !cached.loaded;
+        // A plateau's end row is stored late, up to one row span after it happened, so those buckets are refetched too
+        long bucketMs = refinedBucketSeconds(period) * 1000L;
+        long refetchFrom = initial ? Long.MAX_VALUE : Math.floorDiv(cached.lastEpochMs - Deadband.MAX_ROW_SPAN_MS, bucketMs) * bucketMs;
+        String queryHost = host;
+
+        Task<LoadedRows> task = new Task<>() {
+            @Override
+            protected LoadedRows call() {
+                if (initial) {
+                    MetricColumns coarse = historicalDataDAO.getAggregatedMetricColumnsSince(queryHost, cutoff, coarseBucketSeconds(period));
+                    if (isCancelled()) {
+                        return null;
+                    }
+                    LoadedRows preview = LoadedRows.of(coarse, labelFormat(period, coarseBucketSeconds(period)));
+                    Platform.runLater(() -> {
+                        if (!isCancelled() && !isDone()) {
+                            showCoarsePreview(period, preview);
+                        }
+                    });
+                }
+
+                MetricColumns rows = historicalDataDAO.getAggregatedMetricColumnsSince(queryHost,
+                        initial ? cutoff : refetchFrom, refinedBucketSeconds(period));
+                return isCancelled() ? null : LoadedRows.of(rows, labelFormat(period, refinedBucketSeconds(period)));
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != currentLoadTask || task.getValue() == null) {
+                return;
+            }
+            loadingIndicator.setVisible(false);
+            applyLoadedRows(period, cached, task.getValue(), refetchFrom);
+            showCachedPeriod(period, cached);
+        });
+        task.setOnFailed(event -> {
+            if (task == currentLoadTask) {
+                loadingIndicator.setVisible(false);
+                System.err.println("Error loading historical metrics: " + task.getException().getMessage());
+            }
+        });
+
+        currentLoadTask = task;
+        // Only flash the indicator when the user is actually waiting for data
+        loadingIndicator.setVisible(initial);
+        HISTORY_LOADER.execute(task);
+    }
+
+    /**
+     * Loads p50/p95/p99 bands for the period from the rollup sketches; only rollup rows are read,
+     * so this is cheap even for a week.
+     */
+    private void startPercentileLoad(TimePeriod period) {
+        String cutoff = LocalDateTime.now().minus(period.getDuration()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        String queryHost = host;
+
+        Task<List<PercentileBand>> task = new Task<>() {
+            @Override
+            protected List<PercentileBand> call() {
+                return historicalDataDAO.getPercentileBands(queryHost, cutoff, coarseBucketSeconds(period));
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != currentLoadTask) {
+                return;
+            }
+            loadingIndicator.setVisible(false);
+            showPercentileBands(period, task.getValue());
+        });
+        task.setOnFailed(event -> {
+            if (task == currentLoadTask) {
+                loadingIndicator.setVisible(false);
+                System.err.println("Error loading metric percentiles: " + task.getException().getMessage());
+            }
+        });
+
+        currentLoadTask = task;
+        loadingIndicator.setVisible(true);
+        HISTORY_LOADER.execute(task);
+    }
+
+    private void showPercentileBands(TimePeriod period, List<PercentileBand> bands) {
+        List<XYChart.Series<String, Number>> cpuSeries = List.of(new XYChart.Series<>(), new XYChart.Series<>(), new XYChart.Series<>());
+        List<XYChart.Series<String, Number>> memorySeries = List.of(new XYChart.Series<>(), new XYChart.Series<>(), new XYChart.Series<>());
+        String[] names = {"p50", "p95", "p99"};
+        for (int i = 0; i < names.length; i++) {
+            cpuSeries.get(i).setName("CPU " + names[i]);
+            memorySeries.get(i).setName("Memory " + names[i] + " (GB)");
         }
+        // Bands are whole rollup minutes or hours
+        DateTimeFormatter format = labelFormat(period, Math.max(60, coarseBucketSeconds(period)));
+        for (PercentileBand band : bands) {
+            String timeLabel = formatTimeLabel(band.timestamp(), format);
+            cpuSeries.get(0).getData().add(new XYChart.Data<>(timeLabel, band.cpuP50()));
+            cpuSeries.get(1).getData().add(new XYChart.Data<>(timeLabel, band.cpuP95()));
+            cpuSeries.get(2).getData().add(new XYChart.Data<>(timeLabel, band.cpuP99()));
+            memorySeries.get(0).getData().add(new XYChart.Data<>(timeLabel, band.memoryP50()));
+            memorySeries.get(1).getData().add(new XYChart.Data<>(timeLabel, band.memoryP95()));
+            memorySeries.get(2).getData().add(new XYChart.Data<>(timeLabel, band.memoryP99()));
+        }
+        cpuHistoryChart.getData().setAll(cpuSeries);
+        memoryHistoryChart.getData().setAll(memorySeries);
 
-        // Update chart titles
-        cpuHistoryChart.setTitle("CPU Usage (" + selectedPeriod.getDisplayName() + ")");
-        memoryHistoryChart.setTitle("Memory Usage (" + selectedPeriod.getDisplayName() + ")");
+        String suffix = bands.isEmpty() ? " - No Data" : "";
+        cpuHistoryChart.setTitle("CPU Usage Percentiles (" + period.getDisplayName() + ")" + suffix);
+        memoryHistoryChart.setTitle("Memory Usage Percentiles (" + period.getDisplayName() + ")" + suffix);
+    }
 
-        // Create new data series
+    private void installZoomAndPan(LineChart<String, Number> chart) {
+        chart.setOnScroll(event -> {
+            if (event.getDeltaY() != 0) {
+                zoomAt(plotFraction(chart, event.getSceneX()), event.getDeltaY() > 0 ? 0.8 : 1.25);
+                event.consume();
+            }
+        });
+        chart.setOnMousePressed(event -> {
+            dragStartX = event.getSceneX();
+            dragFromMs = viewportMode ? viewFromMs : System.currentTimeMillis() - selectedDuration();
+            dragToMs = viewportMode ? viewToMs : System.currentTimeMillis();
+        });
+        chart.setOnMouseDragged(event -> {
+            double width = plotBounds(chart).getWidth();
+            if (width > 0) {
+                long shift = (long) ((dragStartX - event.getSceneX()) / width * (dragToMs - dragFromMs));
+                setViewport(dragFromMs + shift, dragToMs + shift);
+            }
+        });
+    }
+
+    private static Bounds plotBounds(LineChart<String, Number> chart) {
+        Node plot = chart.lookup(".chart-plot-background");
+        return plot != null ? plot.localToScene(plot.getBoundsInLocal()) : chart.localToScene(chart.getBoundsInLocal());
+    }
+
+    // Horizontal position of the scene x coordinate within the plot area, 0.0 - 1.0
+    private static double plotFraction(LineChart<String, Number> chart, double sceneX) {
+        Bounds bounds = plotBounds(chart);
+        return bounds.getWidth() > 0 ? Math.min(1, Math.max(0, (sceneX - bounds.getMinX()) / bounds.getWidth())) : 0.5;
+    }
+
+    private long selectedDuration() {
+        TimePeriod period = timePeriodComboBox.getValue();
+        return (period != null ? period : TimePeriod.HOUR).getDuration().toMillis();
+    }
+
+    /**
+     * Scales the visible span by the factor, keeping the time under the given fraction of the plot in place.
+     */
+    private void zoomAt(double fraction, double factor) {
+        long now = System.currentTimeMillis();
+        long from = viewportMode ? viewFromMs : now - selectedDuration();
+        long to = viewportMode ? viewToMs : now;
+        long span = to - from;
+        long newSpan = Math.max(MIN_VIEW_SPAN_MS, Math.min(MAX_VIEW_SPAN_MS, (long) (span * factor)));
+        long anchor = from + (long) (span * fraction);
+        long newFrom = anchor - (long) (newSpan * fraction);
+        setViewport(newFrom, newFrom + newSpan);
+    }
+
+    private void panBy(double spans) {
+        long now = System.currentTimeMillis();
+        long from = viewportMode ? viewFromMs : now - selectedDuration();
+        long to = viewportMode ? viewToMs : now;
+        long shift = (long) ((to - from) * spans);
+        setViewport(from + shift, to + shift);
+    }
+
+    private void setViewport(long from, long to) {
+        viewportMode = true;
+        viewFromMs = from;
+        viewToMs = to;
+        loadViewport();
+    }
+
+    /**
+     * Fetches only the visible window, at one point per few pixels of chart width, from the tile cache;
+     * then prefetches the windows on either side so the next pan is served from memory.
+     */
+    private void loadViewport() {
+        cancelCurrentLoad();
+        long from = viewFromMs;
+        long to = viewToMs;
+        String queryHost = host;
+        int targetPoints = Math.max(50, (int) (plotBounds(cpuHistoryChart).getWidth() / PIXELS_PER_POINT));
+        long bucketMs = HistoryTileCache.bucketMsFor(to - from, targetPoints);
+        DateTimeFormatter format = labelFormat(to - from, bucketMs);
+        String rangeText = formatTimeLabel(from, DAY_HOUR_MINUTE_FORMAT) + " – " + formatTimeLabel(to, DAY_HOUR_MINUTE_FORMAT);
+        viewRangeLabel.setText(rangeText);
+
+        Task<LoadedRows> task = new Task<>() {
+            @Override
+            protected LoadedRows call() {
+                MetricColumns window = tileCache.getWindow(queryHost, from, to, bucketMs);
+                return window == null || isCancelled() ? null : LoadedRows.of(window, format);
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != currentLoadTask || task.getValue() == null) {
+                return;
+            }
+            loadingIndicator.setVisible(false);
+            showViewport(rangeText, task.getValue());
+
+            if (prefetchFuture != null) {
+                prefetchFuture.cancel(true);
+            }
+            prefetchFuture = HISTORY_PREFETCHER.submit(() -> tileCache.prefetchAround(queryHost, from, to, bucketMs));
+        });
+        task.setOnFailed(event -> {
+            if (task == currentLoadTask) {
+                loadingIndicator.setVisible(false);
+                System.err.println("Error loading historical metrics: " + task.getException().getMessage());
+            }
+        });
+
+        currentLoadTask = task;
+        loadingIndicator.setVisible(true);
+        HISTORY_LOADER.execute(task);
+        startViewportInterfaceLoad(from, to, bucketMs, format, rangeText);
+    }
+
+    private void showViewport(String rangeText, LoadedRows loaded) {
         XYChart.Series<String, Number> cpuSeries = new XYChart.Series<>();
         cpuSeries.setName("CPU Usage");
+        cpuSeries.getData().addAll(loaded.cpuPoints());
         XYChart.Series<String, Number> memorySeries = new XYChart.Series<>();
         memorySeries.setName("Memory Used (GB)");
+        memorySeries.getData().addAll(loaded.memoryPoints());
+        cpuHistoryChart.getData().setAll(List.of(cpuSeries));
+        memoryHistoryChart.getData().setAll(List.of(memorySeries));
+
+        String suffix = loaded.rows().isEmpty() ? " - No Data" : "";
+        cpuHistoryChart.setTitle("CPU Usage (" + rangeText + ")" + suffix);
+        memoryHistoryChart.setTitle("Memory Usage (" + rangeText + ")" + suffix);
+        highlightAnomalies(loaded.rows(), cpuSeries, Metric.CPU_USAGE);
+        highlightAnomalies(loaded.rows(), memorySeries, Metric.MEMORY_USED);
+    }
 
-        // Populate series with data
-        for (MetricRecord record : records) {
-            String timeLabel = formatTimeLabel(record.timestamp(), selectedPeriod);
-            cpuSeries.getData().add(new XYChart.Data<>(timeLabel, record.cpuUsage()));
-            memorySeries.getData().add(new XYChart.Data<>(timeLabel, record.memoryUsed()));
+    /**
+     * Loads the per-interface network history of the period on the background loader, one series per
+     * interface with the peak of its busier direction per bucket, so a saturated link stands out.
+     * Once loaded, only the buckets from one row span before the previous load on are refetched.
+     */
+    private void startInterfaceLoad(TimePeriod period, CachedPeriod cached) {
+        cancelInterfaceLoad();
+        long bucketMs = coarseBucketSeconds(period) * 1000L;
+        long queriedAt = System.currentTimeMillis();
+        long refetchFrom = cached.interfacesLoaded
+                ? Math.floorDiv(cached.interfacesQueriedAt - Deadband.MAX_ROW_SPAN_MS, bucketMs) * bucketMs
+                : queriedAt - period.getDuration().toMillis();
+        String queryHost = host;
+        DateTimeFormatter format = labelFormat(period, coarseBucketSeconds(period));
+
+        Task<List<LoadedInterface>> task = new Task<>() {
+            @Override
+            protected List<LoadedInterface> call() {
+                List<LoadedInterface> loaded = new ArrayList<>();
+                for (InterfaceColumns nic : historicalDataDAO.getInterfaceColumns(queryHost, refetchFrom, Long.MAX_VALUE, bucketMs)) {
+                    loaded.add(LoadedInterface.of(nic, format));
+                }
+                return isCancelled() ? null : loaded;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != interfaceLoadTask || task.getValue() == null) {
+                return;
+            }
+            applyLoadedInterfaces(period, cached, task.getValue(), refetchFrom);
+            cached.interfacesQueriedAt = queriedAt;
+            cached.interfacesLoaded = true;
+            if (!viewportMode && timePeriodComboBox.getValue() == period) {
+                showCachedInterfaces(period, cached);
+            }
+        });
+        task.setOnFailed(event -> System.err.println("Error loading interface history: " + task.getException().getMessage()));
+
+        interfaceLoadTask = task;
+        HISTORY_LOADER.execute(task);
+    }
+
+    /**
+     * Replaces every cached interface's buckets from refetchFrom on with the loaded ones and drops the
+     * buckets that ended before the period; interfaces left without buckets are removed. Runs on the FX thread.
+     */
+    private void applyLoadedInterfaces(TimePeriod period, CachedPeriod cached, List<LoadedInterface> loaded, long refetchFrom) {
+        for (Map.Entry<String, InterfaceColumns> entry : cached.interfaceRows.entrySet()) {
+            removeTail(cached.interfaceSeries.get(entry.getKey()), entry.getValue().removeFrom(refetchFrom));
+        }
+        for (LoadedInterface nic : loaded) {
+            String name = nic.rows().name();
+            cached.interfaceRows.computeIfAbsent(name, key -> new InterfaceColumns(key, 0)).addAll(nic.rows());
+            cached.interfaceSeries.computeIfAbsent(name, key -> {
+                XYChart.Series<String, Number> series = new XYChart.Series<>();
+                series.setName(key);
+                return series;
+            }).getData().addAll(nic.points());
+        }
+
+        long expiredBefore = System.currentTimeMillis() - period.getDuration().toMillis() - coarseBucketSeconds(period) * 1000L + 1;
+        Iterator<Map.Entry<String, InterfaceColumns>> iterator = cached.interfaceRows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, InterfaceColumns> entry = iterator.next();
+            int expired = entry.getValue().removeBefore(expiredBefore);
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+                cached.interfaceSeries.remove(entry.getKey());
+            } else if (expired > 0) {
+                cached.interfaceSeries.get(entry.getKey()).getData().remove(0, expired);
+            }
         }
+    }
 
-        // Add series to charts
-        cpuHistoryChart.getData().add(cpuSeries);
-        memoryHistoryChart.getData().add(memorySeries);
+    private static void removeTail(XYChart.Series<String, Number> series, int points) {
+        if (points > 0) {
+            int size = series.getData().size();
+            series.getData().remove(size - points, size);
+        }
+    }
+
+    private void showCachedInterfaces(TimePeriod period, CachedPeriod cached) {
+        List<XYChart.Series<String, Number>> series = new ArrayList<>(cached.interfaceSeries.values());
+        if (!networkHistoryChart.getData().equals(series)) {
+            networkHistoryChart.getData().setAll(series);
+        }
+        networkHistoryChart.setTitle("Network by Interface (" + period.getDisplayName() + ")" + (series.isEmpty() ? " - No Data" : ""));
     }
 
     /**
-     * Formats the timestamp for display on the chart based on the selected time period.
-     * For hour and day views: HH:mm
-     * For week view: MM-dd HH:mm
+     * Loads the per-interface network history of a zoomed or panned view, like startInterfaceLoad but for
+     * an explicit range and without caching; the tiles already make the CPU and memory side cheap to revisit.
      */
-    private String formatTimeLabel(String timestamp, TimePeriod period) {
+    private void startViewportInterfaceLoad(long from, long to, long bucketMs, DateTimeFormatter format, String rangeText) {
+        cancelInterfaceLoad();
+        String queryHost = host;
+
+        Task<List<XYChart.Series<String, Number>>> task = new Task<>() {
+            @Override
+            protected List<XYChart.Series<String, Number>> call() {
+                List<XYChart.Series<String, Number>> series = new ArrayList<>();
+                for (InterfaceColumns nic : historicalDataDAO.getInterfaceColumns(queryHost, from, to, bucketMs)) {
+                    XYChart.Series<String, Number> nicSeries = new XYChart.Series<>();
+                    nicSeries.setName(nic.name());
+                    nicSeries.getData().addAll(LoadedInterface.of(nic, format).points());
+                    series.add(nicSeries);
+                }
+                return isCancelled() ? null : series;
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task != interfaceLoadTask || task.getValue() == null) {
+                return;
+            }
+            networkHistoryChart.getData().setAll(task.getValue());
+            networkHistoryChart.setTitle("Network by Interface (" + rangeText + ")" + (task.getValue().isEmpty() ? " - No Data" : ""));
+        });
+        task.setOnFailed(event -> System.err.println("Error loading interface history: " + task.getException().getMessage()));
+
+        interfaceLoadTask = task;
+        HISTORY_LOADER.execute(task);
+    }
+
+    private void cancelInterfaceLoad() {
+        if (interfaceLoadTask != null && !interfaceLoadTask.isDone()) {
+            interfaceLoadTask.cancel(true);
+        }
+        interfaceLoadTask = null;
+    }
+
+    /**
+     * One interface's buckets with their chart points (peak Mbps), built off the FX thread.
+     */
+    private record LoadedInterface(InterfaceColumns rows, List<XYChart.Data<String, Number>> points) {
+
+        static LoadedInterface of(InterfaceColumns rows, DateTimeFormatter labelFormat) {
+            List<XYChart.Data<String, Number>> points = new ArrayList<>(rows.size());
+            for (int row = 0; row < rows.size(); row++) {
+                double peakMbps = rows.peakBytesPerSec(row) * 8 / 1_000_000;
+                points.add(new XYChart.Data<>(formatTimeLabel(rows.epochMs(row), labelFormat), peakMbps));
+            }
+            return new LoadedInterface(rows, points);
+        }
+    }
+
+    // Roughly 150 points across the period for the first, coarse pass
+    private static int coarseBucketSeconds(TimePeriod period) {
+        return (int) Math.max(30, period.getDuration().toSeconds() / 150);
+    }
+
+    // Roughly 1200 points across the period for the refined pass and the cached series
+    private static int refinedBucketSeconds(TimePeriod period) {
+        return (int) Math.max(1, period.getDuration().toSeconds() / 1_200);
+    }
+
+    private void showCoarsePreview(TimePeriod period, LoadedRows preview) {
+        if (preview.rows().isEmpty()) {
+            return;
+        }
+        XYChart.Series<String, Number> cpuSeries = new XYChart.Series<>();
+        cpuSeries.setName("CPU Usage");
+        cpuSeries.getData().addAll(preview.cpuPoints());
+        XYChart.Series<String, Number> memorySeries = new XYChart.Series<>();
+        memorySeries.setName("Memory Used (GB)");
+        memorySeries.getData().addAll(preview.memoryPoints());
+
+        cpuHistoryChart.getData().setAll(List.of(cpuSeries));
+        memoryHistoryChart.getData().setAll(List.of(memorySeries));
+        cpuHistoryChart.setTitle("CPU Usage (" + period.getDisplayName() + ") - Refining...");
+        memoryHistoryChart.setTitle("Memory Usage (" + period.getDisplayName() + ") - Refining...");
+    }
+
+    private void showCachedPeriod(TimePeriod period, CachedPeriod cached) {
+        // Show the cached series; they stay attached across refreshes so only new points are laid out
+        if (cpuHistoryChart.getData().size() != 1 || cpuHistoryChart.getData().getFirst() != cached.cpuSeries) {
+            cpuHistoryChart.getData().setAll(List.of(cached.cpuSeries));
+            memoryHistoryChart.getData().setAll(List.of(cached.memorySeries));
+        }
+
+        if (cached.rows.isEmpty()) {
+            // Update chart titles to reflect no data
+            cpuHistoryChart.setTitle("CPU Usage (" + period.getDisplayName() + ") - No Data");
+            memoryHistoryChart.setTitle("Memory Usage (" + period.getDisplayName() + ") - No Data");
+            return;
+        }
+
+        // Update chart titles
+        cpuHistoryChart.setTitle("CPU Usage (" + period.getDisplayName() + ")");
+        memoryHistoryChart.setTitle("Memory Usage (" + period.getDisplayName() + ")");
+
+        // Highlight the points the anomaly detector flagged (symbol nodes exist once the series is charted)
+        highlightAnomalies(cached.rows, cached.cpuSeries, Metric.CPU_USAGE);
+        highlightAnomalies(cached.rows, cached.memorySeries, Metric.MEMORY_USED);
+    }
+
+    /**
+     * Replaces the cached buckets from refetchFrom on with the freshly loaded ones and drops buckets that
+     * fell out of the period from the head. Runs on the FX thread; the chart points were already built by the loader.
+     */
+    private void applyLoadedRows(TimePeriod period, CachedPeriod cached, LoadedRows loaded, long refetchFrom) {
+        long bucketMs = refinedBucketSeconds(period) * 1000L;
+        long cutoff = System.currentTimeMillis() - period.getDuration().toMillis();
+
+        int replaced = cached.rows.removeFrom(refetchFrom);
+        if (replaced > 0) {
+            int points = cached.cpuSeries.getData().size();
+            cached.cpuSeries.getData().remove(points - replaced, points);
+            cached.memorySeries.getData().remove(points - replaced, points);
+        }
+        MetricColumns newRows = loaded.rows();
+        cached.rows.addAll(newRows);
+        cached.cpuSeries.getData().addAll(loaded.cpuPoints());
+        cached.memorySeries.getData().addAll(loaded.memoryPoints());
+        if (!newRows.isEmpty()) {
+            cached.lastEpochMs = newRows.lastEpochMs();
+        } else if (!cached.loaded) {
+            cached.lastEpochMs = cutoff;
+        }
+        cached.loaded = true;
+
+        // Drop the buckets that ended before the period from the head
+        int expired = cached.rows.removeBefore(cutoff - bucketMs + 1);
+        if (expired > 0) {
+            cached.cpuSeries.getData().remove(0, expired);
+            cached.memorySeries.getData().remove(0, expired);
+        }
+    }
+
+    /**
+     * Rows returned by the loader together with their chart points, built off the FX thread.
+     */
+    private record LoadedRows(MetricColumns rows,
+                              List<XYChart.Data<String, Number>> cpuPoints,
+                              List<XYChart.Data<String, Number>> memoryPoints) {
+
+        static LoadedRows of(MetricColumns rows, DateTimeFormatter labelFormat) {
+            List<XYChart.Data<String, Number>> cpuPoints = new ArrayList<>(rows.size());
+            List<XYChart.Data<String, Number>> memoryPoints = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                String timeLabel = formatTimeLabel(rows.epochMs(i), labelFormat);
+                cpuPoints.add(new XYChart.Data<>(timeLabel, rows.cpuUsage(i)));
+                memoryPoints.add(new XYChart.Data<>(timeLabel, rows.memoryUsed(i)));
+            }
+            return new LoadedRows(rows, cpuPoints, memoryPoints);
+        }
+    }
+
+    private void highlightAnomalies(MetricColumns rows, XYChart.Series<String, Number> series, Metric metric) {
+        int count = Math.min(rows.size(), series.getData().size());
+        for (int i = 0; i < count; i++) {
+            if (AnomalyDetector.isFlagged(rows.anomalyFlags(i), metric)) {
+                Node node = series.getData().get(i).getNode();
+                if (node != null && !node.getStyleClass().contains("anomaly-point")) {
+                    node.getStyleClass().add("anomaly-point");
+                }
+            }
+        }
+    }
+
+    private static final DateTimeFormatter HOUR_MINUTE_SECOND_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter HOUR_MINUTE_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final DateTimeFormatter DAY_HOUR_MINUTE_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+
+    /**
+     * Formats an epoch-millisecond time for display on the chart based on the selected time period.
+     */
+    private static String formatTimeLabel(long epochMs, DateTimeFormatter format) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault()).format(format);
+    }
+
+    private static DateTimeFormatter labelFormat(TimePeriod period, int bucketSeconds) {
+        return labelFormat(period.getDuration().toMillis(), bucketSeconds * 1000L);
+    }
+
+    // Labels must stay distinct per point, so the format follows the bucket length and the span
+    private static DateTimeFormatter labelFormat(long spanMs, long bucketMs) {
+        if (bucketMs < 60_000) {
+            return HOUR_MINUTE_SECOND_FORMAT;
+        }
+        return spanMs <= Duration.ofDays(1).toMillis() ? HOUR_MINUTE_FORMAT : DAY_HOUR_MINUTE_FORMAT;
+    }
+
+    /**
+     * Formats an ISO local timestamp for display on the chart in the given format.
+     */
+    private static String formatTimeLabel(String timestamp, DateTimeFormatter format) {
         try {
             LocalDateTime dateTime = LocalDateTime.parse(timestamp, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            return switch (period) {
-                case HOUR, DAY -> dateTime.format(DateTimeFormatter.ofPattern("HH:mm"));
-                case WEEK -> dateTime.format(DateTimeFormatter.ofPattern("MM-dd HH:mm"));
-            };
+            return dateTime.format(format);
         } catch (DateTimeParseException e) {
             if (timestamp.length() >= 16) {
                 return timestamp.substring(11, 16); // Fallback: Extract HH:mm
@@ -212,33 +878,48 @@ public class HistoricalController {
      * @return A map with system vital names as keys and their corresponding values as strings.
      */
     private Map<String, String> buildSystemSnapshot() {
-        Map<String, String> snapshot = new HashMap<>();
-        // Create an instance of SystemInfoController
-        SystemInfoController systemInfo = new SystemInfoController();
-
-        // Fetch metrics from OSHI
-        CPUUsage cpu = systemInfo.getLatestCPUUsage();
-        MemoryUsage mem = systemInfo.getLatestMemoryUsage();
-        DiskUsage disk = systemInfo.getLatestDiskUsage();
-        NetworkActivity net = systemInfo.getLatestNetworkActivity();
-
-        // Populate the snapshot map with formatted values
-        snapshot.put("CPU Usage", cpu.usagePercentage() + "% (Temp: " + cpu.temperature() + "°C, Clock: " + cpu.clockSpeed() + " MHz, Processes: " + cpu.processCount() + ")");
-        snapshot.put("Memory Used", String.format("%.2f GB", mem.usedGB()));
-        snapshot.put("Memory Available", String.format("%.2f GB", mem.availableGB()));
-        snapshot.put("Disk Usage", String.format("Used: %.2f GB / Total: %.2f GB", disk.usedGB(), disk.totalGB()));
-        snapshot.put("Network Activity", "Upload: " + net.uploadSpeedKbps() + " Kbps, Download: " + net.downloadSpeedKbps() + " Kbps");
-
-        return snapshot;
+        // A short-lived probe of its own; closing it releases the procfs files it opened
+        try (SystemInfoController systemInfo = new SystemInfoController()) {
+            return systemInfo.buildSystemSnapshot();
+        }
     }
 
     /**
      * Method to refresh the charts (can be called externally if needed)
      */
     public void refreshCharts() {
+        // Let a load that is still running finish instead of restarting it
+        if (currentLoadTask != null && !currentLoadTask.isDone()) {
+            return;
+        }
+        if (viewportMode) {
+            // A view in the past does not change; one reaching the present picks up the newest tile
+            if (viewToMs >= System.currentTimeMillis() - 60_000) {
+                loadViewport();
+            }
+            return;
+        }
+        loadChartsForSelectedPeriod();
+    }
+
+    /**
+     * Switches the charts to another host's history, discarding what was cached for the previous one.
+     */
+    public void setHost(String host) {
+        if (host == null || host.equals(this.host)) {
+            return;
+        }
+        this.host = host;
+        cancelCurrentLoad();
+        periodCache.clear();
+        tileCache.clear();
         loadChartsForSelectedPeriod();
     }
 
+    public String getHost() {
+        return host;
+    }
+
     /**
      * Get the currently selected time period.
      */
@@ -2,56 +2,103 @@ package com.example.vitals.controllers;
 
 import com.example.vitals.models.CPUUsage;
 import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
 import com.example.vitals.models.MemoryUsage;
 import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.utils.DiskCollector;
+import com.example.vitals.utils.LinuxProcProbe;
+import com.example.vitals.utils.NetworkInterfaceTracker;
+import com.example.vitals.utils.VitalsConfig;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
 import oshi.hardware.GlobalMemory;
 import oshi.hardware.HardwareAbstractionLayer;
 import oshi.hardware.Sensors;
-import oshi.software.os.FileSystem;
-import oshi.software.os.OSFileStore;
 import oshi.software.os.OperatingSystem;
 import oshi.hardware.NetworkIF;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
-public class SystemInfoController {
+/**
+ * Live probes of the real machine, through OSHI or the Linux procfs fast path.
+ */
+public class SystemInfoController implements SystemProbe, AutoCloseable {
 
     private final HardwareAbstractionLayer hal;
     private final OperatingSystem os;
+    // Cached file stores, sampled at their own cadence
+    private final DiskCollector diskCollector;
     private long[] prevTicks; // To store previous CPU ticks for load calculation
 
-    // Network tracking variables
-    private final Map<String, Long> prevBytesSent = new HashMap<>();
-    private final Map<String, Long> prevBytesRecv = new HashMap<>();
-    private long lastNetworkMeasurement = 0;
+    // Per-interface counters and rates, fed by procfs or OSHI
+    private final NetworkInterfaceTracker networkTracker = new NetworkInterfaceTracker();
+    // OSHI interfaces, re-enumerated only now and then because enumeration is expensive
+    private List<NetworkIF> networkIFs;
+    private final boolean windows;
+    private long networkIFsEnumeratedNanos;
+    private static final long NETWORK_IF_REFRESH_NANOS = 60_000_000_000L;
+
+    // Linux procfs fast path; null when running on OSHI only
+    private LinuxProcProbe procProbe;
+
+    // Slow-moving CPU details: the clock is read once, temperature and process count at most every SLOW_REFRESH_NANOS,
+    // since the OSHI calls behind them list /proc or query sensors and allocate on every call
+    private static final long SLOW_REFRESH_NANOS = Math.max(0, VitalsConfig.getLong("vitals.probe.slowRefreshMs", 10_000)) * 1_000_000L;
+    private final int clockSpeedMHz;
+    private int temperature;
+    private int processCount;
+    private long slowRefreshedNanos;
+    private boolean slowRefreshed;
 
     public SystemInfoController() {
+        this(VitalsConfig.getString("vitals.probe", "auto").equalsIgnoreCase("auto"));
+    }
+
+    /**
+     * @param useNativeProbe whether to use the Linux procfs fast path when available; OSHI is always the fallback
+     */
+    public SystemInfoController(boolean useNativeProbe) {
         SystemInfo systemInfo = new SystemInfo();
         hal = systemInfo.getHardware();
         os = systemInfo.getOperatingSystem();
+        diskCollector = new DiskCollector(os.getFileSystem());
+        windows = os.getFamily().toLowerCase().contains("windows");
+        clockSpeedMHz = (int) (hal.getProcessor().getMaxFreq() / 1_000_000);
+
+        if (useNativeProbe && LinuxProcProbe.isSupported()) {
+            try {
+                procProbe = new LinuxProcProbe();
+            } catch (IOException e) {
+                System.err.println("Linux /proc probe unavailable, falling back to OSHI: " + e.getMessage());
+            }
+        }
 
         // Initialize previous ticks for the first measurement
-        CentralProcessor processor = hal.getProcessor();
-        prevTicks = processor.getSystemCpuLoadTicks();
+        if (procProbe == null) {
+            CentralProcessor processor = hal.getProcessor();
+            prevTicks = processor.getSystemCpuLoadTicks();
+        }
 
         // Initialize network tracking
         initializeNetworkTracking();
     }
 
-    public Map<String, String> buildSystemSnapshot() {
-        // Create an instance of SystemInfoController if not already available
-        SystemInfoController systemInfo = new SystemInfoController();
+    /**
+     * Whether live CPU, memory and network values come from the Linux procfs fast path.
+     */
+    public boolean isUsingNativeProbe() {
+        return procProbe != null;
+    }
 
-        // Retrieve data from OSHI-based methods
-        CPUUsage cpu = systemInfo.getLatestCPUUsage();
-        MemoryUsage mem = systemInfo.getLatestMemoryUsage();
-        DiskUsage disk = systemInfo.getLatestDiskUsage();
-        NetworkActivity net = systemInfo.getLatestNetworkActivity();
+    public Map<String, String> buildSystemSnapshot() {
+        // Retrieve data from this probe
+        CPUUsage cpu = getLatestCPUUsage();
+        MemoryUsage mem = getLatestMemoryUsage();
+        DiskUsage disk = getLatestDiskUsage();
+        NetworkActivity net = getLatestNetworkActivity();
 
         // Format values as strings
         Map<String, String> snapshot = new HashMap<>();
@@ -65,37 +112,68 @@ public class SystemInfoController {
     }
 
     private void initializeNetworkTracking() {
-        List<NetworkIF> networkIFs = hal.getNetworkIFs();
-        for (NetworkIF net : networkIFs) {
-            net.updateAttributes();
-            prevBytesSent.put(net.getName(), net.getBytesSent());
-            prevBytesRecv.put(net.getName(), net.getBytesRecv());
-        }
-        lastNetworkMeasurement = System.currentTimeMillis();
+        // The first reading is only the baseline the first rates are computed from
+        sampleNetwork();
     }
 
+    @Override
     public CPUUsage getLatestCPUUsage() {
         CentralProcessor processor = hal.getProcessor();
+        double load = readCpuLoad(processor) * 100.0;
+        refreshSlowValues();
+        return new CPUUsage((int) Math.min(100, Math.max(0, load)), temperature, clockSpeedMHz, processCount);
+    }
+
+    private void refreshSlowValues() {
+        long now = System.nanoTime();
+        if (slowRefreshed && now - slowRefreshedNanos < SLOW_REFRESH_NANOS) {
+            return;
+        }
+        Sensors sensors = hal.getSensors();
+        temperature = (int) sensors.getCpuTemperature();
+        processCount = os.getProcessCount();
+        slowRefreshedNanos = now;
+        slowRefreshed = true;
+    }
+
+    private double readCpuLoad(CentralProcessor processor) {
+        if (procProbe != null) {
+            try {
+                return procProbe.readCpuLoad();
+            } catch (IOException e) {
+                disableProcProbe(e);
+            }
+        }
+        if (prevTicks == null) {
+            prevTicks = processor.getSystemCpuLoadTicks();
+        }
 
         // Retrieve current ticks and compute load between the previous and current ticks
         long[] currentTicks = processor.getSystemCpuLoadTicks();
-        double load = processor.getSystemCpuLoadBetweenTicks(prevTicks) * 100.0;
+        double load = processor.getSystemCpuLoadBetweenTicks(prevTicks);
 
         // Update prevTicks for the next computation
         prevTicks = currentTicks;
-
-        Sensors sensors = hal.getSensors();
-        double temperature = sensors.getCpuTemperature();
-        long maxFreq = processor.getMaxFreq();  // in Hz
-        int processCount = os.getProcessCount();
-
-        // Optionally convert max frequency from Hz to MHz, if desired:
-        int clockSpeed = (int) (maxFreq / 1_000_000);
-
-        return new CPUUsage((int) Math.min(100, Math.max(0, load)), (int) temperature, clockSpeed, processCount);
+        return load;
     }
 
+    @Override
     public MemoryUsage getLatestMemoryUsage() {
+        if (procProbe != null) {
+            try {
+                procProbe.readMemory();
+                long totalKb = procProbe.getMemTotalKb();
+                long availableKb = procProbe.getMemAvailableKb();
+                double totalGB = totalKb / (1024.0 * 1024);
+                double usedGB = (totalKb - availableKb) / (1024.0 * 1024);
+                double availableGB = availableKb / (1024.0 * 1024);
+                double cacheGB = procProbe.getCachedKb() / (1024.0 * 1024);
+                return new MemoryUsage(totalGB, usedGB, cacheGB, availableGB);
+            } catch (IOException e) {
+                disableProcProbe(e);
+            }
+        }
+
         GlobalMemory memory = hal.getMemory();
         long total = memory.getTotal();
         long available = memory.getAvailable();
@@ -108,97 +186,82 @@ public class SystemInfoController {
         return new MemoryUsage(totalGB, usedGB, cacheGB, availableGB);
     }
 
+    @Override
     public List<DiskUsage> getAllDiskUsage() {
-        List<DiskUsage> diskUsages = new ArrayList<>();
-        FileSystem fs = os.getFileSystem();
-        List<OSFileStore> fileStores = fs.getFileStores();
-
-        for (OSFileStore store : fileStores) {
-            String mount = store.getMount().toUpperCase();
-            // Filter for common drive letters on Windows
-            if (mount.length() >= 2 && mount.charAt(1) == ':') {
-                char driveLetter = mount.charAt(0);
-                if (driveLetter >= 'A' && driveLetter <= 'Z') {
-                    long total = store.getTotalSpace();
-                    long usable = store.getUsableSpace();
-                    long used = total - usable;
-                    double totalGB = total / (1024.0 * 1024 * 1024);
-                    double usedGB = used / (1024.0 * 1024 * 1024);
-                    diskUsages.add(new DiskUsage(usedGB, driveLetter + ":", totalGB));
-                }
-            }
-        }
-
-        // If no drives found, return at least C: with dummy data
-        if (diskUsages.isEmpty()) {
-            diskUsages.add(new DiskUsage(0, "C:", 0));
-        }
-
-        return diskUsages;
+        return diskCollector.getDisks();
     }
 
     // Legacy method for backward compatibility
+    @Override
     public DiskUsage getLatestDiskUsage() {
-        List<DiskUsage> allDisks = getAllDiskUsage();
-        // Return C: drive if available, otherwise first drive
-        for (DiskUsage disk : allDisks) {
-            if (disk.driveName().equals("C:")) {
-                return disk;
-            }
-        }
-        return allDisks.isEmpty() ? new DiskUsage(0, "C:", 0) : allDisks.getFirst();
+        return diskCollector.getPrimaryDisk();
     }
 
+    /**
+     * Reads the interface counters and returns the rates summed over the physical interfaces;
+     * the per-interface rates of the same reading are available from getLatestInterfaceActivity.
+     */
+    @Override
     public NetworkActivity getLatestNetworkActivity() {
-        long currentTime = System.currentTimeMillis();
-        long timeDiff = currentTime - lastNetworkMeasurement;
+        sampleNetwork();
+        return networkTracker.getTotals();
+    }
 
-        // If less than 1 second has passed, return previous values
-        if (timeDiff < 1000) {
-            return new NetworkActivity(0, 0);
-        }
+    @Override
+    public List<InterfaceActivity> getLatestInterfaceActivity() {
+        return networkTracker.getInterfaces();
+    }
 
-        long totalBytesSent = 0;
-        long totalBytesRecv = 0;
-        long totalPrevBytesSent = 0;
-        long totalPrevBytesRecv = 0;
+    private void sampleNetwork() {
+        if (procProbe != null) {
+            try {
+                procProbe.readNetworkInterfaces(networkTracker);
+                return;
+            } catch (IOException e) {
+                disableProcProbe(e);
+            }
+        }
 
-        List<NetworkIF> networkIFs = hal.getNetworkIFs();
+        long now = System.nanoTime();
+        if (networkIFs == null || now - networkIFsEnumeratedNanos >= NETWORK_IF_REFRESH_NANOS) {
+            networkIFs = hal.getNetworkIFs();
+            networkIFsEnumeratedNanos = now;
+        }
+        networkTracker.beginRound();
         for (NetworkIF net : networkIFs) {
-            net.updateAttributes();
-
-            String netName = net.getName();
-            long currentSent = net.getBytesSent();
-            long currentRecv = net.getBytesRecv();
-
-            totalBytesSent += currentSent;
-            totalBytesRecv += currentRecv;
-
-            // Get previous values
-            Long prevSent = prevBytesSent.get(netName);
-            Long prevRecv = prevBytesRecv.get(netName);
-
-            if (prevSent != null && prevRecv != null) {
-                totalPrevBytesSent += prevSent;
-                totalPrevBytesRecv += prevRecv;
+            if (!net.updateAttributes()) {
+                continue;
             }
-
-            // Update previous values
-            prevBytesSent.put(netName, currentSent);
-            prevBytesRecv.put(netName, currentRecv);
+            // IANA ifType 24 is softwareLoopback; Windows reports virtual adapters as having no physical connector
+            boolean virtual = net.getIfType() == 24 || (windows && !net.isConnectorPresent());
+            int slot = networkTracker.slotOf(net.getName(), virtual);
+            networkTracker.update(slot, System.nanoTime(), net.getBytesRecv(), net.getPacketsRecv(), net.getInErrors(),
+                    net.getBytesSent(), net.getPacketsSent(), net.getOutErrors());
         }
+    }
 
-        // Calculate speeds in bytes per second
-        double timeInSeconds = timeDiff / 1000.0;
-        long uploadBytesPerSec = (long) ((totalBytesSent - totalPrevBytesSent) / timeInSeconds);
-        long downloadBytesPerSec = (long) ((totalBytesRecv - totalPrevBytesRecv) / timeInSeconds);
-
-        // Convert to Kbps (kilobits per second)
-        int uploadKbps = Math.max(0, (int) (uploadBytesPerSec * 8 / 1024));
-        int downloadKbps = Math.max(0, (int) (downloadBytesPerSec * 8 / 1024));
-
-        lastNetworkMeasurement = currentTime;
+    /**
+     * Releases the procfs files; the probe falls back to OSHI if it is used afterwards.
+     */
+    @Override
+    public void close() {
+        if (procProbe != null) {
+            try {
+                procProbe.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close the Linux /proc probe: " + e.getMessage());
+            }
+            procProbe = null;
+        }
+    }
 
-        return new NetworkActivity(uploadKbps, downloadKbps);
+    private void disableProcProbe(IOException e) {
+        System.err.println("Linux /proc probe failed, falling back to OSHI: " + e.getMessage());
+        try {
+            procProbe.close();
+        } catch (IOException ignored) {
+            // Nothing left to release
+        }
+        procProbe = null;
     }
 }
\ No newline at end of file
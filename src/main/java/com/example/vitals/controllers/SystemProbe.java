@@ -0,0 +1,45 @@
+package com.example.vitals.controllers;
+
+import com.example.vitals.loadgen.SyntheticMetricSource;
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.utils.VitalsConfig;
+
+import java.util.List;
+
+/**
+ * Source of the live metrics the collector samples every tick.
+ * SystemInfoController reads the real machine; SyntheticMetricSource generates load for testing at scale.
+ */
+public interface SystemProbe {
+
+    CPUUsage getLatestCPUUsage();
+
+    MemoryUsage getLatestMemoryUsage();
+
+    List<DiskUsage> getAllDiskUsage();
+
+    DiskUsage getLatestDiskUsage();
+
+    NetworkActivity getLatestNetworkActivity();
+
+    /**
+     * Rates of each physical network interface from the last getLatestNetworkActivity reading.
+     */
+    default List<InterfaceActivity> getLatestInterfaceActivity() {
+        return List.of();
+    }
+
+    /**
+     * The probe selected by vitals.probe: synthetic metrics for "synthetic", otherwise the real machine.
+     */
+    static SystemProbe create() {
+        if (VitalsConfig.getString("vitals.probe", "auto").equalsIgnoreCase("synthetic")) {
+            return SyntheticMetricSource.fromConfig(0);
+        }
+        return new SystemInfoController();
+    }
+}
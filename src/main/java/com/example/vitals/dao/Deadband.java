@@ -0,0 +1,135 @@
+package com.example.vitals.dao;
+
+import com.example.vitals.utils.VitalsConfig;
+
+/**
+ * Change-only ingest: a row is stored when one of its values moved further from the last stored value
+ * than the metric's tolerance, the larger of an absolute and a relative one, or when the heartbeat
+ * interval passed. The last row skipped before a change is stored along with it, so every plateau has
+ * its true end point and step or linear reconstruction between stored rows stays within tolerance.
+ * Queries reconstruct the values through AggregationHelper, which lets a row stand for at most
+ * MAX_ROW_SPAN_MS; longer gaps are real outages and are not filled.
+ */
+public final class Deadband {
+
+    public enum Interpolation { STEP, LINEAR }
+
+    public static final boolean ENABLED = VitalsConfig.getBoolean("vitals.deadband.enabled", true);
+    public static final long HEARTBEAT_MS = Math.max(1, VitalsConfig.getLong("vitals.deadband.heartbeatMs", 60_000));
+    // Longest time one stored row stands for: the heartbeat, plus one slow sampling interval until the tick that stores the next row
+    public static final long MAX_ROW_SPAN_MS = HEARTBEAT_MS + VitalsConfig.getLong("vitals.sampling.slowMs", 10_000);
+    public static final Interpolation INTERPOLATION =
+            "linear".equalsIgnoreCase(VitalsConfig.getString("vitals.deadband.interpolation", "step"))
+                    ? Interpolation.LINEAR : Interpolation.STEP;
+
+    // Tolerances of the HistoricalMetrics values: CPU %, memory used, memory available, memory total
+    static final double[] METRIC_ABSOLUTE = {
+            VitalsConfig.getDouble("vitals.deadband.cpu.abs", 2.0),
+            VitalsConfig.getDouble("vitals.deadband.memory.abs", 0.0),
+            VitalsConfig.getDouble("vitals.deadband.memory.abs", 0.0),
+            0.0};
+    static final double[] METRIC_RELATIVE = {
+            VitalsConfig.getDouble("vitals.deadband.cpu.rel", 0.0),
+            VitalsConfig.getDouble("vitals.deadband.memory.rel", 0.01),
+            VitalsConfig.getDouble("vitals.deadband.memory.rel", 0.01),
+            0.0};
+    // Tolerances of the InterfaceMetrics values: receive and transmit bytes/s, errors/s
+    static final double[] NETWORK_ABSOLUTE = {
+            VitalsConfig.getDouble("vitals.deadband.network.abs", 1_024),
+            VitalsConfig.getDouble("vitals.deadband.network.abs", 1_024),
+            0.0, 0.0};
+    static final double[] NETWORK_RELATIVE = {
+            VitalsConfig.getDouble("vitals.deadband.network.rel", 0.1),
+            VitalsConfig.getDouble("vitals.deadband.network.rel", 0.1),
+            0.0, 0.0};
+
+    /**
+     * Result of Channel.offer.
+     */
+    public enum Decision { SKIP, STORE, STORE_HELD_AND_CURRENT }
+
+    private Deadband() {
+    }
+
+    /**
+     * Deadband state of one series of up to four values, e.g. one host's metrics or one interface.
+     * Not thread safe; the DAO only uses it on the writer connection.
+     */
+    public static final class Channel {
+
+        private final double[] absolute;
+        private final double[] relative;
+        private final double[] last = new double[4];
+        private long lastStoredMs;
+        private boolean primed;
+        private boolean exceeded;
+        // The latest skipped row and its time, stored before the next change
+        private Object held;
+        private long heldMs;
+
+        Channel(double[] absolute, double[] relative) {
+            this.absolute = absolute;
+            this.relative = relative;
+        }
+
+        /**
+         * Decides whether the row with these values is stored. On STORE_HELD_AND_CURRENT the caller
+         * stores takeHeld() first, then the row.
+         *
+         * @param force store regardless of the values, e.g. for a row carrying anomaly flags
+         */
+        public Decision offer(long epochMs, boolean force, Object row, double v0, double v1, double v2, double v3) {
+            exceeded = false;
+            if (primed && !force && epochMs - lastStoredMs < HEARTBEAT_MS
+                    && !exceeds(0, v0) && !exceeds(1, v1) && !exceeds(2, v2) && !exceeds(3, v3)) {
+                held = row;
+                heldMs = epochMs;
+                return Decision.SKIP;
+            }
+            // A heartbeat alone needs no plateau end point: the held row is within tolerance of both neighbours
+            boolean withHeld = held != null && (force || exceeded) && heldMs > lastStoredMs;
+            if (!withHeld) {
+                held = null;
+            }
+            last[0] = v0;
+            last[1] = v1;
+            last[2] = v2;
+            last[3] = v3;
+            lastStoredMs = epochMs;
+            primed = true;
+            return withHeld ? Decision.STORE_HELD_AND_CURRENT : Decision.STORE;
+        }
+
+        /**
+         * Time of the row takeHeld() returns.
+         */
+        public long heldEpochMs() {
+            return heldMs;
+        }
+
+        /**
+         * The skipped row to store before the current one, cleared by the call.
+         */
+        public Object takeHeld() {
+            Object row = held;
+            held = null;
+            return row;
+        }
+
+        private boolean exceeds(int index, double value) {
+            double reference = last[index];
+            double tolerance = Math.max(absolute[index], relative[index] * Math.abs(reference));
+            boolean outside = Math.abs(value - reference) > tolerance || Double.isNaN(value) != Double.isNaN(reference);
+            exceeded |= outside;
+            return outside;
+        }
+    }
+
+    static Channel metricChannel() {
+        return new Channel(METRIC_ABSOLUTE, METRIC_RELATIVE);
+    }
+
+    static Channel networkChannel() {
+        return new Channel(NETWORK_ABSOLUTE, NETWORK_RELATIVE);
+    }
+}
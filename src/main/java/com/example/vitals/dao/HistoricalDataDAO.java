@@ -1,10 +1,22 @@
 package com.example.vitals.dao;
 
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.AggregationHelper;
+import com.example.vitals.utils.DDSketch;
+import com.example.vitals.utils.VitalsConfig;
+
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -18,13 +30,79 @@ public class HistoricalDataDAO {
                 cpuUsage REAL,
                 memoryUsed REAL,
                 memoryTotal REAL,
-                memoryAvailable REAL
+                memoryAvailable REAL,
+                anomalyFlags INTEGER NOT NULL DEFAULT 0,
+                host TEXT NOT NULL DEFAULT 'local',
+                epochMs INTEGER
+            );
+            """;
+
+    // Range and tail queries filter on timestamp, per host
+    private static final String CREATE_TIMESTAMP_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_historical_metrics_timestamp ON HistoricalMetrics (timestamp);";
+    private static final String CREATE_HOST_TIMESTAMP_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_historical_metrics_host_timestamp ON HistoricalMetrics (host, timestamp);";
+    // Columnar queries select by epoch milliseconds, so they never compare or parse timestamp strings
+    private static final String CREATE_HOST_EPOCH_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_historical_metrics_host_epoch ON HistoricalMetrics (host, epochMs);";
+
+    // Per-interface network rates, one row per physical interface and sample
+    private static final String CREATE_INTERFACE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS InterfaceMetrics (
+                host TEXT NOT NULL,
+                epochMs INTEGER NOT NULL,
+                interface TEXT NOT NULL,
+                rxBytesPerSec REAL,
+                txBytesPerSec REAL,
+                rxPacketsPerSec REAL,
+                txPacketsPerSec REAL,
+                errorsPerSec REAL
             );
             """;
+    private static final String CREATE_INTERFACE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_interface_metrics_host_epoch ON InterfaceMetrics (host, epochMs);";
+    private static final String INSERT_INTERFACE_SQL =
+            "INSERT INTO InterfaceMetrics (host, epochMs, interface, rxBytesPerSec, txBytesPerSec, rxPacketsPerSec, txPacketsPerSec, errorsPerSec) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO HistoricalMetrics (timestamp, cpuUsage, memoryUsed, memoryTotal, memoryAvailable, anomalyFlags, host, epochMs) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
+
+    private static final String COLUMNS_SQL = "SELECT epochMs, cpuUsage, memoryUsed, memoryTotal, memoryAvailable, anomalyFlags FROM HistoricalMetrics ";
+
+    /**
+     * Host name under which this machine's own samples are stored; agents are stored under the name they report.
+     */
+    public static final String LOCAL_HOST = "local";
+
+    // Upper bound for open-ended range queries; sorts after every ISO_LOCAL_DATE_TIME timestamp
+    private static final String LATEST_TIMESTAMP = "9999-12-31T23:59:59";
+
+    // One writer for every ingest path plus read-only connections for history windows and exports
+    private static final SqliteConnectionPool POOL;
+
+    // Minute and hour rollups with quantile sketches, fed by every write
+    private static final MetricRollups ROLLUPS = new MetricRollups();
+
+    // Deadband state per host, and per host and interface; only touched on the writer connection
+    private static final Map<String, Deadband.Channel> METRIC_DEADBANDS = new HashMap<>();
+    private static final Map<String, Map<String, Deadband.Channel>> INTERFACE_DEADBANDS = new HashMap<>();
+
+    // Ranges with more raw rows than this are aggregated in parallel segments instead of one SQL GROUP BY
+    private static final long PARALLEL_AGGREGATION_ROWS = VitalsConfig.getLong("vitals.aggregation.parallelThreshold", 200_000);
+    private static final RangeAggregator AGGREGATOR;
+
+    private static volatile boolean databaseInitialized;
 
     // Static block to initialize DB_URL with proper path
     static {
         DB_URL = "jdbc:sqlite:" + getDatabasePath();
+        POOL = new SqliteConnectionPool(DB_URL,
+                // Enough readers for the parallel aggregation to use every core
+                (int) VitalsConfig.getLong("vitals.db.readConnections", Math.max(4, Runtime.getRuntime().availableProcessors())),
+                (int) VitalsConfig.getLong("vitals.db.busyTimeoutMs", 5_000),
+                VitalsConfig.getLong("vitals.db.walAutoCheckpointPages", 1_000),
+                VitalsConfig.getLong("vitals.db.walSizeLimitBytes", 16L * 1024 * 1024));
+        AGGREGATOR = new RangeAggregator(POOL);
     }
 
     public HistoricalDataDAO() {
@@ -36,6 +114,15 @@ public class HistoricalDataDAO {
      */
     private static String getDatabasePath() {
         try {
+            // An explicit file, e.g. a scratch database for load tests
+            String configuredPath = VitalsConfig.getString("vitals.db.path", null);
+            if (configuredPath != null) {
+                Path dbFile = Paths.get(configuredPath).toAbsolutePath();
+                Files.createDirectories(dbFile.getParent());
+                System.out.println("Database path: " + dbFile);
+                return dbFile.toString();
+            }
+
             // Get user's local app data directory
             String localAppData = System.getenv("LOCALAPPDATA");
             if (localAppData == null) {
@@ -61,10 +148,54 @@ public class HistoricalDataDAO {
         }
     }
 
-    private void initializeDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(CREATE_TABLE_SQL);
+    private static void initializeDatabase() {
+        // Schema setup runs once per JVM, however many DAOs the windows create
+        if (databaseInitialized) {
+            return;
+        }
+        synchronized (HistoricalDataDAO.class) {
+            if (databaseInitialized) {
+                return;
+            }
+            createSchema();
+            databaseInitialized = true;
+        }
+    }
+
+    private static void createSchema() {
+        try {
+            // The writer connection switches the file to WAL before the read-only connections open it
+            POOL.write(writer -> {
+                Connection conn = writer.connection();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(CREATE_TABLE_SQL);
+                    ensureColumn(conn, "HistoricalMetrics", "anomalyFlags", "INTEGER NOT NULL DEFAULT 0");
+                    ensureColumn(conn, "HistoricalMetrics", "host", "TEXT NOT NULL DEFAULT '" + LOCAL_HOST + "'");
+                    if (ensureColumn(conn, "HistoricalMetrics", "epochMs", "INTEGER")) {
+                        // Timestamps are local ISO strings; 'utc' converts them to UTC before taking the epoch
+                        stmt.execute("UPDATE HistoricalMetrics SET epochMs = "
+                                + "CAST(ROUND((julianday(timestamp, 'utc') - 2440587.5) * 86400000.0) AS INTEGER);");
+                    }
+                    stmt.execute(CREATE_TIMESTAMP_INDEX_SQL);
+                    stmt.execute(CREATE_HOST_TIMESTAMP_INDEX_SQL);
+                    stmt.execute(CREATE_HOST_EPOCH_INDEX_SQL);
+                    stmt.execute(CREATE_INTERFACE_TABLE_SQL);
+                    stmt.execute(CREATE_INTERFACE_INDEX_SQL);
+
+                    boolean rebuildRollups = !tableExists(conn, "MetricRollups");
+                    stmt.execute(MetricRollups.CREATE_TABLE_SQL);
+                    if (ensureColumn(conn, "MetricRollups", "weightMs", "INTEGER NOT NULL DEFAULT 0")) {
+                        // Rollups of older versions weighted every sample alike; rebuild them time-weighted
+                        stmt.execute("DELETE FROM MetricRollups;");
+                        rebuildRollups = true;
+                    }
+                    if (rebuildRollups) {
+                        // Databases from older versions get their rollups built once from the raw rows
+                        ROLLUPS.backfill(writer);
+                    }
+                }
+                return null;
+            });
             System.out.println("Database initialized successfully at: " + DB_URL);
         } catch (SQLException e) {
             System.err.println("Error initializing database: " + e.getMessage());
@@ -72,46 +203,421 @@ public class HistoricalDataDAO {
         }
     }
 
-    public void logMetrics(double cpuUsage, double memoryUsed, double memoryTotal, double memoryAvailable) {
-        String insertSQL = "INSERT INTO HistoricalMetrics (timestamp, cpuUsage, memoryUsed, memoryTotal, memoryAvailable) VALUES (?, ?, ?, ?, ?);";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(insertSQL)) {
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, table, null)) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Adds a column to an existing table if it is missing, so databases created by older versions keep working.
+     * Returns whether the column was added.
+     */
+    private static boolean ensureColumn(Connection conn, String table, String column, String definition) throws SQLException {
+        try (ResultSet rs = conn.getMetaData().getColumns(null, null, table, column)) {
+            if (rs.next()) {
+                return false;
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition + ";");
+        }
+        return true;
+    }
+
+    /**
+     * Logs a collector sample, stored under the time it was sampled rather than the time of the insert.
+     */
+    public void logMetrics(SystemSample sample) {
+        logMetrics(sample, 0);
+    }
+
+    /**
+     * Logs a collector sample together with the anomaly flags (one bit per Metric ordinal) raised for it.
+     */
+    public void logMetrics(SystemSample sample, int anomalyFlags) {
+        logSamples(LOCAL_HOST, List.of(sample), new int[]{anomalyFlags});
+    }
+
+    /**
+     * Logs a batch of samples received from the given host in a single transaction.
+     */
+    public void logSamples(String host, List<SystemSample> samples) {
+        logSamples(host, samples, null);
+    }
 
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            pstmt.setString(1, timestamp);
-            pstmt.setDouble(2, cpuUsage);
-            pstmt.setDouble(3, memoryUsed);
-            pstmt.setDouble(4, memoryTotal);
-            pstmt.setDouble(5, memoryAvailable);
-            pstmt.executeUpdate();
+    /**
+     * Logs a batch of samples in a single transaction, each with its anomaly flags (null for none).
+     * Every sample feeds the rollups, weighted by the time since the host's previous one; raw rows pass the deadband first, so an idle host stores a row
+     * only on a change, with an anomaly, or once per heartbeat.
+     */
+    public void logSamples(String host, List<SystemSample> samples, int[] anomalyFlags) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        try {
+            POOL.write(writer -> {
+                PreparedStatement pstmt = writer.prepare(INSERT_SQL);
+                PreparedStatement interfaceStmt = writer.prepare(INSERT_INTERFACE_SQL);
+                Deadband.Channel deadband = Deadband.ENABLED ? METRIC_DEADBANDS.computeIfAbsent(host, h -> Deadband.metricChannel()) : null;
+                Map<String, Deadband.Channel> interfaceDeadbands = Deadband.ENABLED
+                        ? INTERFACE_DEADBANDS.computeIfAbsent(host, h -> new HashMap<>()) : null;
+                for (int i = 0; i < samples.size(); i++) {
+                    SystemSample sample = samples.get(i);
+                    int flags = anomalyFlags == null ? 0 : anomalyFlags[i];
+                    LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(sample.timestamp()), ZoneId.systemDefault());
+                    ROLLUPS.add(writer, host, sample.timestamp(), time, sample.cpu().usagePercentage(), sample.memory().usedGB(), flags);
+
+                    Deadband.Decision decision = deadband == null ? Deadband.Decision.STORE
+                            : deadband.offer(sample.timestamp(), flags != 0, sample, sample.cpu().usagePercentage(),
+                            sample.memory().usedGB(), sample.memory().availableGB(), sample.memory().totalGB());
+                    if (decision == Deadband.Decision.STORE_HELD_AND_CURRENT) {
+                        // Skipped rows never carry anomaly flags, those force a store
+                        addMetricsRow(pstmt, host, (SystemSample) deadband.takeHeld(), 0);
+                    }
+                    if (decision != Deadband.Decision.SKIP) {
+                        addMetricsRow(pstmt, host, sample, flags);
+                    }
+
+                    for (InterfaceActivity nic : sample.interfaces()) {
+                        Deadband.Channel nicDeadband = interfaceDeadbands == null ? null
+                                : interfaceDeadbands.computeIfAbsent(nic.name(), name -> Deadband.networkChannel());
+                        Deadband.Decision nicDecision = nicDeadband == null ? Deadband.Decision.STORE
+                                : nicDeadband.offer(sample.timestamp(), false, nic, nic.rxBytesPerSec(), nic.txBytesPerSec(),
+                                nic.errorsPerSec(), 0);
+                        if (nicDecision == Deadband.Decision.STORE_HELD_AND_CURRENT) {
+                            long heldEpochMs = nicDeadband.heldEpochMs();
+                            addInterfaceRow(interfaceStmt, host, heldEpochMs, (InterfaceActivity) nicDeadband.takeHeld());
+                        }
+                        if (nicDecision != Deadband.Decision.SKIP) {
+                            addInterfaceRow(interfaceStmt, host, sample.timestamp(), nic);
+                        }
+                    }
+                }
+                interfaceStmt.executeBatch();
+                return pstmt.executeBatch();
+            });
         } catch (SQLException e) {
             System.err.println("Error logging metrics: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
-    public List<MetricRecord> getMetricsForPeriod(String period) {
-        List<MetricRecord> records = new ArrayList<>();
-        String querySQL = "SELECT * FROM HistoricalMetrics WHERE timestamp >= datetime('now', ?) ORDER BY timestamp ASC;";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-             PreparedStatement pstmt = conn.prepareStatement(querySQL)) {
+    private static void addMetricsRow(PreparedStatement pstmt, String host, SystemSample sample, int flags) throws SQLException {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(sample.timestamp()), ZoneId.systemDefault());
+        bindInsert(pstmt, time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), sample.timestamp(), sample.cpu().usagePercentage(),
+                sample.memory().usedGB(), sample.memory().totalGB(), sample.memory().availableGB(), flags, host);
+        pstmt.addBatch();
+    }
+
+    private static void addInterfaceRow(PreparedStatement pstmt, String host, long epochMs, InterfaceActivity nic) throws SQLException {
+        pstmt.setString(1, host);
+        pstmt.setLong(2, epochMs);
+        pstmt.setString(3, nic.name());
+        pstmt.setDouble(4, nic.rxBytesPerSec());
+        pstmt.setDouble(5, nic.txBytesPerSec());
+        pstmt.setDouble(6, nic.rxPacketsPerSec());
+        pstmt.setDouble(7, nic.txPacketsPerSec());
+        pstmt.setDouble(8, nic.errorsPerSec());
+        pstmt.addBatch();
+    }
+
+    private static void bindInsert(PreparedStatement pstmt, String timestamp, long epochMs, double cpuUsage, double memoryUsed,
+                                   double memoryTotal, double memoryAvailable, int anomalyFlags, String host) throws SQLException {
+        pstmt.setString(1, timestamp);
+        pstmt.setDouble(2, cpuUsage);
+        pstmt.setDouble(3, memoryUsed);
+        pstmt.setDouble(4, memoryTotal);
+        pstmt.setDouble(5, memoryAvailable);
+        pstmt.setInt(6, anomalyFlags);
+        pstmt.setString(7, host);
+        pstmt.setLong(8, epochMs);
+    }
+
+    /**
+     * Rows since the given epoch milliseconds averaged into buckets of the given length, oldest first.
+     * Cheap to transfer and chart; the history view loads a coarse preview and then finer buckets this way.
+     */
+    public MetricColumns getAggregatedMetricColumnsSince(String host, long fromEpochMs, int bucketSeconds) {
+        return getAggregatedMetricColumns(host, fromEpochMs, Long.MAX_VALUE, bucketSeconds);
+    }
+
+    /**
+     * Rows in [fromEpochMs, toEpochMs) averaged into buckets of the given length, oldest first. Every row
+     * stands for the time until the next one, so buckets the deadband left without rows still get the held
+     * value, and a bucket's flags are the OR of its rows' flags, see AggregationHelper. Above the parallel
+     * threshold the range is split into segments aggregated concurrently, each on its own read connection.
+     */
+    public MetricColumns getAggregatedMetricColumns(String host, long fromEpochMs, long toEpochMs, int bucketSeconds) {
+        long bucketMs = bucketSeconds * 1000L;
+        long end = Math.min(toEpochMs, System.currentTimeMillis() + 1);
+        long rows = countRows(host, fromEpochMs, end);
+        if (rows > PARALLEL_AGGREGATION_ROWS) {
+            List<RangeAggregator.RangeBucket> buckets = aggregateRange(host, fromEpochMs, end, bucketMs, rows);
+            MetricColumns columns = new MetricColumns(buckets.size());
+            for (RangeAggregator.RangeBucket bucket : buckets) {
+                columns.add(bucket.getStartEpochMs(), bucket.getCpuMean(), bucket.getMemoryUsedMean(),
+                        bucket.getMemoryTotalMean(), bucket.getMemoryAvailableMean(), bucket.getAnomalyFlags());
+            }
+            return columns;
+        }
+
+        // The rows up to one span before the range carry their values into it; those after it end the last span
+        MetricColumns raw = readColumns(COLUMNS_SQL + "WHERE host = ? AND epochMs >= ? AND epochMs < ? ORDER BY epochMs ASC;",
+                (int) rows + 1, host, fromEpochMs - Deadband.MAX_ROW_SPAN_MS, end + Deadband.MAX_ROW_SPAN_MS);
+        return AggregationHelper.aggregate(raw, fromEpochMs, end, bucketMs, Deadband.INTERPOLATION);
+    }
+
+    /**
+     * Network rates of each of the host's interfaces in [fromEpochMs, toEpochMs) in buckets of the given
+     * length, oldest first; the peak keeps sub-second saturation visible in wide buckets. Reconstructed
+     * from the stored rows like getAggregatedMetricColumns, including the rows just before the range.
+     */
+    public List<InterfaceColumns> getInterfaceColumns(String host, long fromEpochMs, long toEpochMs, long bucketMs) {
+        String querySQL = """
+                SELECT interface, epochMs, rxBytesPerSec, txBytesPerSec, MAX(rxBytesPerSec, txBytesPerSec), errorsPerSec
+                FROM InterfaceMetrics WHERE host = ? AND epochMs >= ? AND epochMs < ?
+                ORDER BY interface, epochMs ASC;
+                """;
+        long end = Math.min(toEpochMs, System.currentTimeMillis() + 1);
+        List<InterfaceColumns> interfaces = new ArrayList<>();
+        try {
+            POOL.read(reader -> {
+                PreparedStatement pstmt = reader.prepare(querySQL);
+                bindParameters(pstmt, host, fromEpochMs - Deadband.MAX_ROW_SPAN_MS, end + Deadband.MAX_ROW_SPAN_MS);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    InterfaceColumns columns = null;
+                    while (rs.next() && !Thread.currentThread().isInterrupted()) {
+                        String name = rs.getString(1);
+                        if (columns == null || !columns.name().equals(name)) {
+                            columns = new InterfaceColumns(name, 0);
+                            interfaces.add(columns);
+                        }
+                        columns.add(rs.getLong(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getDouble(6));
+                    }
+                }
+                return null;
+            });
+            interfaces.replaceAll(rows -> AggregationHelper.aggregate(rows, fromEpochMs, end, Math.max(1, bucketMs), Deadband.INTERPOLATION));
+            interfaces.removeIf(InterfaceColumns::isEmpty);
+        } catch (SQLException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                System.err.println("Error retrieving interface metrics: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return interfaces;
+    }
+
+    /**
+     * Interval-weighted mean, min, max and anomaly flags per bucket of the host's rows in
+     * [fromEpochMs, toEpochMs), computed in parallel segments. Returns an empty list on error.
+     */
+    public List<RangeAggregator.RangeBucket> aggregateRange(String host, long fromEpochMs, long toEpochMs, long bucketMs) {
+        return aggregateRange(host, fromEpochMs, toEpochMs, bucketMs, countRows(host, fromEpochMs, toEpochMs));
+    }
+
+    private List<RangeAggregator.RangeBucket> aggregateRange(String host, long fromEpochMs, long toEpochMs, long bucketMs, long rows) {
+        try {
+            return AGGREGATOR.aggregate(host, fromEpochMs, toEpochMs, bucketMs, rows);
+        } catch (SQLException e) {
+            System.err.println("Error aggregating metrics: " + e.getMessage());
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
+    private long countRows(String host, long fromEpochMs, long toEpochMs) {
+        try {
+            return POOL.read(reader -> {
+                PreparedStatement pstmt = reader.prepare("SELECT COUNT(*) FROM HistoricalMetrics WHERE host = ? AND epochMs >= ? AND epochMs < ?;");
+                bindParameters(pstmt, host, fromEpochMs, toEpochMs);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Error counting metrics: " + e.getMessage());
+            return 0;
+        }
+    }
 
-            pstmt.setString(1, period);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    String timestamp = rs.getString("timestamp");
-                    double cpuUsage = rs.getDouble("cpuUsage");
-                    double memoryUsed = rs.getDouble("memoryUsed");
-                    double memoryTotal = rs.getDouble("memoryTotal");
-                    double memoryAvailable = rs.getDouble("memoryAvailable");
-                    records.add(new MetricRecord(timestamp, cpuUsage, memoryUsed, memoryTotal, memoryAvailable));
+    /**
+     * Runs a query selecting the columns of MetricColumns, filled straight from the result set into arrays
+     * presized to the given capacity. Stops reading early if the calling thread is interrupted, so a
+     * cancelled history load does not keep materializing rows.
+     */
+    private MetricColumns readColumns(String querySQL, int capacity, Object... parameters) {
+        try {
+            return POOL.read(reader -> {
+                MetricColumns columns = new MetricColumns(capacity);
+                PreparedStatement pstmt = reader.prepare(querySQL);
+                bindParameters(pstmt, parameters);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && !Thread.currentThread().isInterrupted()) {
+                        columns.add(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getInt(6));
+                    }
                 }
+                return columns;
+            });
+        } catch (SQLException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                System.err.println("Error retrieving metrics: " + e.getMessage());
+                e.printStackTrace();
             }
+            return new MetricColumns(0);
+        }
+    }
+
+    private static void bindParameters(PreparedStatement pstmt, Object... parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            pstmt.setObject(i + 1, parameters[i]);
+        }
+    }
+
+    /**
+     * Per hour-of-day time-weighted mean and variance of CPU usage and used memory over the last given number
+     * of days. Used as the seasonal baseline of the anomaly detector; read from the hourly rollups, not the raw rows.
+     */
+    public List<HourlyStats> getHourlyStats(int days) {
+        List<HourlyStats> stats = new ArrayList<>();
+        String querySQL = """
+                SELECT CAST(strftime('%H', bucketStart) AS INTEGER) AS hour, SUM(samples) AS samples,
+                       SUM(cpuSum) / SUM(weightMs) AS cpuMean, SUM(cpuSumSquares) / SUM(weightMs) AS cpuSquareMean,
+                       SUM(memorySum) / SUM(weightMs) AS memMean, SUM(memorySumSquares) / SUM(weightMs) AS memSquareMean
+                FROM MetricRollups WHERE host = ? AND resolution = ? AND bucketStart >= ? GROUP BY hour HAVING SUM(weightMs) > 0;
+                """;
+        try {
+            POOL.read(reader -> {
+                PreparedStatement pstmt = reader.prepare(querySQL);
+                pstmt.setString(1, LOCAL_HOST);
+                pstmt.setInt(2, MetricRollups.Resolution.HOUR.getSeconds());
+                pstmt.setString(3, LocalDateTime.now().minusDays(days).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        double cpuMean = rs.getDouble("cpuMean");
+                        double memMean = rs.getDouble("memMean");
+                        stats.add(new HourlyStats(rs.getInt("hour"), rs.getLong("samples"),
+                                cpuMean, Math.max(0, rs.getDouble("cpuSquareMean") - cpuMean * cpuMean),
+                                memMean, Math.max(0, rs.getDouble("memSquareMean") - memMean * memMean)));
+                    }
+                }
+                return null;
+            });
         } catch (SQLException e) {
-            System.err.println("Error retrieving metrics: " + e.getMessage());
+            System.err.println("Error retrieving hourly stats: " + e.getMessage());
             e.printStackTrace();
         }
-        return records;
+        return stats;
+    }
+
+    /**
+     * Rollup buckets of the host at the given resolution starting in [fromTimestamp, toTimestamp), oldest first.
+     */
+    public List<MetricRollups.Bucket> getRollups(String host, MetricRollups.Resolution resolution,
+                                                 String fromTimestamp, String toTimestamp) {
+        String querySQL = "SELECT " + MetricRollups.SELECT_COLUMNS + " FROM MetricRollups "
+                + "WHERE host = ? AND resolution = ? AND bucketStart >= ? AND bucketStart < ? ORDER BY bucketStart ASC;";
+        List<MetricRollups.Bucket> buckets = new ArrayList<>();
+        try {
+            POOL.read(reader -> {
+                PreparedStatement pstmt = reader.prepare(querySQL);
+                pstmt.setString(1, host);
+                pstmt.setInt(2, resolution.getSeconds());
+                pstmt.setString(3, fromTimestamp);
+                pstmt.setString(4, toTimestamp);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next() && !Thread.currentThread().isInterrupted()) {
+                        buckets.add(MetricRollups.Bucket.read(rs));
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            if (!Thread.currentThread().isInterrupted()) {
+                System.err.println("Error retrieving metric rollups: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Time-weighted p50/p95/p99 of CPU usage and used memory in consecutive bands of the given length since the
+     * timestamp, merged from the rollup sketches. Bands of an hour or more read the hourly rollups, shorter ones the minute rollups.
+     */
+    public List<PercentileBand> getPercentileBands(String host, String fromTimestamp, int bandSeconds) {
+        MetricRollups.Resolution resolution = bandSeconds >= MetricRollups.Resolution.HOUR.getSeconds()
+                ? MetricRollups.Resolution.HOUR : MetricRollups.Resolution.MINUTE;
+        // Bands are whole multiples of the rollup resolution
+        long bandLength = Math.max(1, bandSeconds / resolution.getSeconds()) * resolution.getSeconds();
+        List<MetricRollups.Bucket> buckets = getRollups(host, resolution, fromTimestamp, LATEST_TIMESTAMP);
+
+        List<PercentileBand> bands = new ArrayList<>();
+        MetricRollups.Bucket band = null;
+        long bandIndex = Long.MIN_VALUE;
+        for (MetricRollups.Bucket bucket : buckets) {
+            long index = bucket.getStart().toEpochSecond(ZoneOffset.UTC) / bandLength;
+            if (band == null || index != bandIndex) {
+                if (band != null) {
+                    bands.add(PercentileBand.of(band));
+                }
+                band = new MetricRollups.Bucket(bucket.getStart());
+                bandIndex = index;
+            }
+            band.merge(bucket);
+        }
+        if (band != null) {
+            bands.add(PercentileBand.of(band));
+        }
+        return bands;
+    }
+
+    /**
+     * Time-weighted p50/p95/p99 of CPU usage and used memory over [fromTimestamp, toTimestamp), merged from the rollup sketches:
+     * hourly rollups for the whole hours in the range, minute rollups for the partial hours at either end.
+     */
+    public PercentileBand getPercentiles(String host, String fromTimestamp, String toTimestamp) {
+        LocalDateTime from = LocalDateTime.parse(fromTimestamp, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        LocalDateTime to = LocalDateTime.parse(toTimestamp, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        LocalDateTime firstHour = from.truncatedTo(ChronoUnit.HOURS);
+        if (firstHour.isBefore(from)) {
+            firstHour = firstHour.plusHours(1);
+        }
+        LocalDateTime lastHour = to.truncatedTo(ChronoUnit.HOURS);
+
+        MetricRollups.Bucket total = new MetricRollups.Bucket(from);
+        List<MetricRollups.Bucket> parts = new ArrayList<>();
+        if (firstHour.isBefore(lastHour)) {
+            parts.addAll(getRollups(host, MetricRollups.Resolution.MINUTE, fromTimestamp, format(firstHour)));
+            parts.addAll(getRollups(host, MetricRollups.Resolution.HOUR, format(firstHour), format(lastHour)));
+            parts.addAll(getRollups(host, MetricRollups.Resolution.MINUTE, format(lastHour), toTimestamp));
+        } else {
+            parts.addAll(getRollups(host, MetricRollups.Resolution.MINUTE, fromTimestamp, toTimestamp));
+        }
+        for (MetricRollups.Bucket part : parts) {
+            total.merge(part);
+        }
+        return PercentileBand.of(total);
+    }
+
+    private static String format(LocalDateTime time) {
+        return time.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    /**
+     * Checkpoints the WAL into the database file and closes the pooled connections; called on application exit.
+     */
+    public static void shutdown() {
+        try {
+            POOL.write(writer -> {
+                ROLLUPS.flushAll(writer);
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error writing metric rollups: " + e.getMessage());
+        }
+        POOL.close();
     }
 
     /**
@@ -121,7 +627,21 @@ public class HistoricalDataDAO {
         return DB_URL;
     }
 
-    // A simple record to encapsulate a metric record from the DB
-    public static record MetricRecord(String timestamp, double cpuUsage, double memoryUsed, double memoryTotal, double memoryAvailable) {
+    // Mean and variance of the stored metrics for one hour of the day
+    public static record HourlyStats(int hour, long samples, double cpuMean, double cpuVariance, double memoryMean, double memoryVariance) {
+    }
+
+    // Percentiles of the stored metrics over one time band, starting at the given timestamp
+    public static record PercentileBand(String timestamp, long samples,
+                                        double cpuP50, double cpuP95, double cpuP99,
+                                        double memoryP50, double memoryP95, double memoryP99) {
+
+        static PercentileBand of(MetricRollups.Bucket bucket) {
+            DDSketch cpu = bucket.getCpuSketch();
+            DDSketch memory = bucket.getMemorySketch();
+            return new PercentileBand(bucket.getStart().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), bucket.getSamples(),
+                    cpu.getValueAtQuantile(0.50), cpu.getValueAtQuantile(0.95), cpu.getValueAtQuantile(0.99),
+                    memory.getValueAtQuantile(0.50), memory.getValueAtQuantile(0.95), memory.getValueAtQuantile(0.99));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.example.vitals.dao;
+
+import java.util.Arrays;
+
+/**
+ * Columnar history of one network interface: per bucket the mean receive and transmit rates, the peak
+ * rate in the busier direction (what shows a saturated link) and the error rate, all per second.
+ * Timestamps are epoch milliseconds, as in MetricColumns.
+ */
+public final class InterfaceColumns {
+
+    private final String name;
+    private long[] epochMs;
+    private double[] rxBytesPerSec;
+    private double[] txBytesPerSec;
+    private double[] peakBytesPerSec;
+    private double[] errorsPerSec;
+    private int size;
+
+    public InterfaceColumns(String name, int capacity) {
+        this.name = name;
+        int initial = Math.max(0, capacity);
+        epochMs = new long[initial];
+        rxBytesPerSec = new double[initial];
+        txBytesPerSec = new double[initial];
+        peakBytesPerSec = new double[initial];
+        errorsPerSec = new double[initial];
+    }
+
+    public void add(long epochMillis, double rx, double tx, double peak, double errors) {
+        if (size == epochMs.length) {
+            grow(size + 1);
+        }
+        epochMs[size] = epochMillis;
+        rxBytesPerSec[size] = rx;
+        txBytesPerSec[size] = tx;
+        peakBytesPerSec[size] = peak;
+        errorsPerSec[size] = errors;
+        size++;
+    }
+
+    /**
+     * Appends every row of the other columns.
+     */
+    public void addAll(InterfaceColumns other) {
+        if (size + other.size > epochMs.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.epochMs, 0, epochMs, size, other.size);
+        System.arraycopy(other.rxBytesPerSec, 0, rxBytesPerSec, size, other.size);
+        System.arraycopy(other.txBytesPerSec, 0, txBytesPerSec, size, other.size);
+        System.arraycopy(other.peakBytesPerSec, 0, peakBytesPerSec, size, other.size);
+        System.arraycopy(other.errorsPerSec, 0, errorsPerSec, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Drops the leading rows older than the given time and returns how many were dropped, like MetricColumns.
+     */
+    public int removeBefore(long epochMillis) {
+        int expired = 0;
+        while (expired < size && epochMs[expired] < epochMillis) {
+            expired++;
+        }
+        if (expired > 0) {
+            int remaining = size - expired;
+            System.arraycopy(epochMs, expired, epochMs, 0, remaining);
+            System.arraycopy(rxBytesPerSec, expired, rxBytesPerSec, 0, remaining);
+            System.arraycopy(txBytesPerSec, expired, txBytesPerSec, 0, remaining);
+            System.arraycopy(peakBytesPerSec, expired, peakBytesPerSec, 0, remaining);
+            System.arraycopy(errorsPerSec, expired, errorsPerSec, 0, remaining);
+            size = remaining;
+        }
+        return expired;
+    }
+
+    /**
+     * Drops the trailing rows at or after the given time and returns how many were dropped.
+     */
+    public int removeFrom(long epochMillis) {
+        int kept = size;
+        while (kept > 0 && epochMs[kept - 1] >= epochMillis) {
+            kept--;
+        }
+        int dropped = size - kept;
+        size = kept;
+        return dropped;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, Math.max(16, size + (size >> 1)));
+        epochMs = Arrays.copyOf(epochMs, capacity);
+        rxBytesPerSec = Arrays.copyOf(rxBytesPerSec, capacity);
+        txBytesPerSec = Arrays.copyOf(txBytesPerSec, capacity);
+        peakBytesPerSec = Arrays.copyOf(peakBytesPerSec, capacity);
+        errorsPerSec = Arrays.copyOf(errorsPerSec, capacity);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long epochMs(int row) {
+        return epochMs[row];
+    }
+
+    public double rxBytesPerSec(int row) {
+        return rxBytesPerSec[row];
+    }
+
+    public double txBytesPerSec(int row) {
+        return txBytesPerSec[row];
+    }
+
+    public double peakBytesPerSec(int row) {
+        return peakBytesPerSec[row];
+    }
+
+    public double errorsPerSec(int row) {
+        return errorsPerSec[row];
+    }
+}
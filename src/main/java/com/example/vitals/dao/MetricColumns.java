@@ -0,0 +1,141 @@
+package com.example.vitals.dao;
+
+import java.util.Arrays;
+
+/**
+ * Columnar query result: one primitive array per column instead of one object per row.
+ * Timestamps are epoch milliseconds, so consumers never parse date strings. Queries presize the
+ * arrays from a row count, and the history cache replaces rows at the tail and drops expired
+ * rows from the head in place.
+ */
+public final class MetricColumns {
+
+    private long[] epochMs;
+    private double[] cpuUsage;
+    private double[] memoryUsed;
+    private double[] memoryTotal;
+    private double[] memoryAvailable;
+    private int[] anomalyFlags;
+    private int size;
+
+    public MetricColumns(int capacity) {
+        int initial = Math.max(0, capacity);
+        epochMs = new long[initial];
+        cpuUsage = new double[initial];
+        memoryUsed = new double[initial];
+        memoryTotal = new double[initial];
+        memoryAvailable = new double[initial];
+        anomalyFlags = new int[initial];
+    }
+
+    public void add(long epochMillis, double cpu, double memUsed, double memTotal, double memAvailable, int flags) {
+        if (size == epochMs.length) {
+            grow(size + 1);
+        }
+        epochMs[size] = epochMillis;
+        cpuUsage[size] = cpu;
+        memoryUsed[size] = memUsed;
+        memoryTotal[size] = memTotal;
+        memoryAvailable[size] = memAvailable;
+        anomalyFlags[size] = flags;
+        size++;
+    }
+
+    /**
+     * Appends every row of the other columns.
+     */
+    public void addAll(MetricColumns other) {
+        if (size + other.size > epochMs.length) {
+            grow(size + other.size);
+        }
+        System.arraycopy(other.epochMs, 0, epochMs, size, other.size);
+        System.arraycopy(other.cpuUsage, 0, cpuUsage, size, other.size);
+        System.arraycopy(other.memoryUsed, 0, memoryUsed, size, other.size);
+        System.arraycopy(other.memoryTotal, 0, memoryTotal, size, other.size);
+        System.arraycopy(other.memoryAvailable, 0, memoryAvailable, size, other.size);
+        System.arraycopy(other.anomalyFlags, 0, anomalyFlags, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Drops the leading rows older than the given time and returns how many were dropped.
+     * Rows must be in time order.
+     */
+    public int removeBefore(long epochMillis) {
+        int expired = 0;
+        while (expired < size && epochMs[expired] < epochMillis) {
+            expired++;
+        }
+        if (expired > 0) {
+            int remaining = size - expired;
+            System.arraycopy(epochMs, expired, epochMs, 0, remaining);
+            System.arraycopy(cpuUsage, expired, cpuUsage, 0, remaining);
+            System.arraycopy(memoryUsed, expired, memoryUsed, 0, remaining);
+            System.arraycopy(memoryTotal, expired, memoryTotal, 0, remaining);
+            System.arraycopy(memoryAvailable, expired, memoryAvailable, 0, remaining);
+            System.arraycopy(anomalyFlags, expired, anomalyFlags, 0, remaining);
+            size = remaining;
+        }
+        return expired;
+    }
+
+    /**
+     * Drops the trailing rows at or after the given time and returns how many were dropped.
+     * Rows must be in time order.
+     */
+    public int removeFrom(long epochMillis) {
+        int kept = size;
+        while (kept > 0 && epochMs[kept - 1] >= epochMillis) {
+            kept--;
+        }
+        int dropped = size - kept;
+        size = kept;
+        return dropped;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, Math.max(16, epochMs.length + (epochMs.length >> 1)));
+        epochMs = Arrays.copyOf(epochMs, capacity);
+        cpuUsage = Arrays.copyOf(cpuUsage, capacity);
+        memoryUsed = Arrays.copyOf(memoryUsed, capacity);
+        memoryTotal = Arrays.copyOf(memoryTotal, capacity);
+        memoryAvailable = Arrays.copyOf(memoryAvailable, capacity);
+        anomalyFlags = Arrays.copyOf(anomalyFlags, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long epochMs(int row) {
+        return epochMs[row];
+    }
+
+    public double cpuUsage(int row) {
+        return cpuUsage[row];
+    }
+
+    public double memoryUsed(int row) {
+        return memoryUsed[row];
+    }
+
+    public double memoryTotal(int row) {
+        return memoryTotal[row];
+    }
+
+    public double memoryAvailable(int row) {
+        return memoryAvailable[row];
+    }
+
+    public int anomalyFlags(int row) {
+        return anomalyFlags[row];
+    }
+
+    public long lastEpochMs() {
+        return epochMs[size - 1];
+    }
+}
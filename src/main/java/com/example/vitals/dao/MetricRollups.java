@@ -0,0 +1,313 @@
+package com.example.vitals.dao;
+
+import com.example.vitals.utils.DDSketch;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-minute and per-hour rollups of the stored metrics, written alongside the raw rows.
+ * Each rollup row keeps count, sum, sum of squares, min, max and a DDSketch per metric, all of which
+ * merge exactly, so means, variances and percentiles over any range are answered from rollup rows
+ * instead of a raw scan. Sums and sketches are weighted by the time each sample covers, the interval
+ * since the host's previous sample, so the fast samples of a burst do not outweigh the idle time around it. The open buckets of every host are kept in memory and written whenever a
+ * minute closes, so at most the current minute is lost if the process dies.
+ * Only used under the writer connection of SqliteConnectionPool, which serializes access.
+ */
+public class MetricRollups {
+
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES, 60),
+        HOUR(ChronoUnit.HOURS, 3600);
+
+        private final ChronoUnit unit;
+        private final int seconds;
+
+        Resolution(ChronoUnit unit, int seconds) {
+            this.unit = unit;
+            this.seconds = seconds;
+        }
+
+        public int getSeconds() {
+            return seconds;
+        }
+
+        LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS MetricRollups (
+                host TEXT NOT NULL,
+                resolution INTEGER NOT NULL,
+                bucketStart TEXT NOT NULL,
+                samples INTEGER NOT NULL,
+                weightMs INTEGER NOT NULL DEFAULT 0,
+                cpuSum REAL NOT NULL,
+                cpuSumSquares REAL NOT NULL,
+                cpuMin REAL NOT NULL,
+                cpuMax REAL NOT NULL,
+                cpuSketch BLOB NOT NULL,
+                memorySum REAL NOT NULL,
+                memorySumSquares REAL NOT NULL,
+                memoryMin REAL NOT NULL,
+                memoryMax REAL NOT NULL,
+                memorySketch BLOB NOT NULL,
+                anomalyFlags INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (host, resolution, bucketStart)
+            ) WITHOUT ROWID;
+            """;
+
+    static final String SELECT_COLUMNS = "bucketStart, samples, weightMs, cpuSum, cpuSumSquares, cpuMin, cpuMax, cpuSketch, "
+            + "memorySum, memorySumSquares, memoryMin, memoryMax, memorySketch, anomalyFlags";
+
+    private static final String SELECT_BUCKET_SQL =
+            "SELECT " + SELECT_COLUMNS + " FROM MetricRollups WHERE host = ? AND resolution = ? AND bucketStart = ?;";
+
+    private static final String UPSERT_SQL = """
+            INSERT OR REPLACE INTO MetricRollups (host, resolution, bucketStart, samples, weightMs,
+                cpuSum, cpuSumSquares, cpuMin, cpuMax, cpuSketch,
+                memorySum, memorySumSquares, memoryMin, memoryMax, memorySketch, anomalyFlags)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);
+            """;
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    // A sample never covers more than a stored row can stand for; the first sample of a host covers next to nothing
+    private static final long MAX_SAMPLE_WEIGHT_MS = Deadband.MAX_ROW_SPAN_MS;
+    private static final long MIN_SAMPLE_WEIGHT_MS = 1;
+
+    // Open bucket per host, indexed by Resolution ordinal, and the time of the host's previous sample
+    private final Map<String, Bucket[]> openBuckets = new HashMap<>();
+    private final Map<String, long[]> lastSampleMs = new HashMap<>();
+
+    /**
+     * Adds a raw sample to the open buckets of its host, weighted by the time since the host's previous
+     * sample, writing out any bucket the sample closes.
+     */
+    void add(SqliteConnectionPool.CachedConnection writer, String host, long epochMs, LocalDateTime time,
+             double cpuUsage, double memoryUsed, int anomalyFlags) throws SQLException {
+        long[] last = lastSampleMs.computeIfAbsent(host, h -> new long[]{epochMs});
+        long weightMs = Math.max(MIN_SAMPLE_WEIGHT_MS, Math.min(MAX_SAMPLE_WEIGHT_MS, epochMs - last[0]));
+        last[0] = Math.max(last[0], epochMs);
+
+        Bucket[] buckets = openBuckets.computeIfAbsent(host, h -> new Bucket[RESOLUTIONS.length]);
+        boolean minuteClosed = false;
+        for (Resolution resolution : RESOLUTIONS) {
+            LocalDateTime start = resolution.bucketStart(time);
+            Bucket bucket = buckets[resolution.ordinal()];
+            if (bucket == null || !bucket.start.equals(start)) {
+                if (bucket != null) {
+                    write(writer, host, resolution, bucket);
+                    minuteClosed |= resolution == Resolution.MINUTE;
+                }
+                // Continue a bucket already stored by an earlier run instead of overwriting it
+                bucket = load(writer, host, resolution, start);
+                buckets[resolution.ordinal()] = bucket;
+            }
+            bucket.add(cpuUsage, memoryUsed, anomalyFlags, weightMs);
+        }
+        if (minuteClosed) {
+            // Keep the coarser open buckets on disk at minute granularity too
+            for (Resolution resolution : RESOLUTIONS) {
+                if (resolution != Resolution.MINUTE) {
+                    write(writer, host, resolution, buckets[resolution.ordinal()]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every open bucket, e.g. on shutdown.
+     */
+    void flushAll(SqliteConnectionPool.CachedConnection writer) throws SQLException {
+        for (Map.Entry<String, Bucket[]> entry : openBuckets.entrySet()) {
+            for (Resolution resolution : RESOLUTIONS) {
+                Bucket bucket = entry.getValue()[resolution.ordinal()];
+                if (bucket != null) {
+                    write(writer, entry.getKey(), resolution, bucket);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the rollups from the raw rows; used once when the rollup table is created or its weighting changes.
+     */
+    void backfill(SqliteConnectionPool.CachedConnection writer) throws SQLException {
+        Connection conn = writer.connection();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT host, epochMs, timestamp, cpuUsage, memoryUsed, anomalyFlags FROM HistoricalMetrics ORDER BY host, epochMs;");
+             ResultSet rs = pstmt.executeQuery()) {
+            long rows = 0;
+            while (rs.next()) {
+                add(writer, rs.getString("host"), rs.getLong("epochMs"),
+                        LocalDateTime.parse(rs.getString("timestamp"), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                        rs.getDouble("cpuUsage"), rs.getDouble("memoryUsed"), rs.getInt("anomalyFlags"));
+                rows++;
+            }
+            flushAll(writer);
+            if (rows > 0) {
+                System.out.println("Built metric rollups from " + rows + " stored samples");
+            }
+        }
+    }
+
+    private static Bucket load(SqliteConnectionPool.CachedConnection writer, String host, Resolution resolution,
+                               LocalDateTime start) throws SQLException {
+        PreparedStatement pstmt = writer.prepare(SELECT_BUCKET_SQL);
+        pstmt.setString(1, host);
+        pstmt.setInt(2, resolution.getSeconds());
+        pstmt.setString(3, start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        try (ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? Bucket.read(rs) : new Bucket(start);
+        }
+    }
+
+    private static void write(SqliteConnectionPool.CachedConnection writer, String host, Resolution resolution,
+                              Bucket bucket) throws SQLException {
+        PreparedStatement pstmt = writer.prepare(UPSERT_SQL);
+        pstmt.setString(1, host);
+        pstmt.setInt(2, resolution.getSeconds());
+        pstmt.setString(3, bucket.start.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        pstmt.setLong(4, bucket.samples);
+        pstmt.setLong(5, bucket.weightMs);
+        pstmt.setDouble(6, bucket.cpuSum);
+        pstmt.setDouble(7, bucket.cpuSumSquares);
+        pstmt.setDouble(8, bucket.cpuMin);
+        pstmt.setDouble(9, bucket.cpuMax);
+        pstmt.setBytes(10, bucket.cpuSketch.toBytes());
+        pstmt.setDouble(11, bucket.memorySum);
+        pstmt.setDouble(12, bucket.memorySumSquares);
+        pstmt.setDouble(13, bucket.memoryMin);
+        pstmt.setDouble(14, bucket.memoryMax);
+        pstmt.setBytes(15, bucket.memorySketch.toBytes());
+        pstmt.setInt(16, bucket.anomalyFlags);
+        pstmt.executeUpdate();
+    }
+
+    /**
+     * Summary of the samples in one time bucket, with sums and sketches weighted by milliseconds covered.
+     * Buckets merge associatively, so any range can be summarized by merging the buckets it covers.
+     */
+    public static final class Bucket {
+        final LocalDateTime start;
+        long samples;
+        long weightMs;
+        double cpuSum;
+        double cpuSumSquares;
+        double cpuMin = Double.POSITIVE_INFINITY;
+        double cpuMax = Double.NEGATIVE_INFINITY;
+        final DDSketch cpuSketch;
+        double memorySum;
+        double memorySumSquares;
+        double memoryMin = Double.POSITIVE_INFINITY;
+        double memoryMax = Double.NEGATIVE_INFINITY;
+        final DDSketch memorySketch;
+        int anomalyFlags;
+
+        Bucket(LocalDateTime start) {
+            this(start, new DDSketch(), new DDSketch());
+        }
+
+        private Bucket(LocalDateTime start, DDSketch cpuSketch, DDSketch memorySketch) {
+            this.start = start;
+            this.cpuSketch = cpuSketch;
+            this.memorySketch = memorySketch;
+        }
+
+        void add(double cpuUsage, double memoryUsed, int flags, long sampleWeightMs) {
+            samples++;
+            weightMs += sampleWeightMs;
+            cpuSum += cpuUsage * sampleWeightMs;
+            cpuSumSquares += cpuUsage * cpuUsage * sampleWeightMs;
+            cpuMin = Math.min(cpuMin, cpuUsage);
+            cpuMax = Math.max(cpuMax, cpuUsage);
+            cpuSketch.add(cpuUsage, sampleWeightMs);
+            memorySum += memoryUsed * sampleWeightMs;
+            memorySumSquares += memoryUsed * memoryUsed * sampleWeightMs;
+            memoryMin = Math.min(memoryMin, memoryUsed);
+            memoryMax = Math.max(memoryMax, memoryUsed);
+            memorySketch.add(memoryUsed, sampleWeightMs);
+            anomalyFlags |= flags;
+        }
+
+        /**
+         * Adds the other bucket's samples to this one.
+         */
+        public void merge(Bucket other) {
+            samples += other.samples;
+            weightMs += other.weightMs;
+            cpuSum += other.cpuSum;
+            cpuSumSquares += other.cpuSumSquares;
+            cpuMin = Math.min(cpuMin, other.cpuMin);
+            cpuMax = Math.max(cpuMax, other.cpuMax);
+            cpuSketch.merge(other.cpuSketch);
+            memorySum += other.memorySum;
+            memorySumSquares += other.memorySumSquares;
+            memoryMin = Math.min(memoryMin, other.memoryMin);
+            memoryMax = Math.max(memoryMax, other.memoryMax);
+            memorySketch.merge(other.memorySketch);
+            anomalyFlags |= other.anomalyFlags;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * Time covered by the bucket's samples.
+         */
+        public long getWeightMs() {
+            return weightMs;
+        }
+
+        public double getMemoryMean() {
+            return weightMs == 0 ? Double.NaN : memorySum / weightMs;
+        }
+
+        public DDSketch getCpuSketch() {
+            return cpuSketch;
+        }
+
+        public DDSketch getMemorySketch() {
+            return memorySketch;
+        }
+
+        public int getAnomalyFlags() {
+            return anomalyFlags;
+        }
+
+        /**
+         * Reads a bucket from a result set selecting SELECT_COLUMNS.
+         */
+        static Bucket read(ResultSet rs) throws SQLException {
+            Bucket bucket = new Bucket(LocalDateTime.parse(rs.getString("bucketStart"), DateTimeFormatter.ISO_LOCAL_DATE_TIME),
+                    DDSketch.fromBytes(rs.getBytes("cpuSketch")), DDSketch.fromBytes(rs.getBytes("memorySketch")));
+            bucket.samples = rs.getLong("samples");
+            bucket.weightMs = rs.getLong("weightMs");
+            bucket.cpuSum = rs.getDouble("cpuSum");
+            bucket.cpuSumSquares = rs.getDouble("cpuSumSquares");
+            bucket.cpuMin = rs.getDouble("cpuMin");
+            bucket.cpuMax = rs.getDouble("cpuMax");
+            bucket.memorySum = rs.getDouble("memorySum");
+            bucket.memorySumSquares = rs.getDouble("memorySumSquares");
+            bucket.memoryMin = rs.getDouble("memoryMin");
+            bucket.memoryMax = rs.getDouble("memoryMax");
+            bucket.anomalyFlags = rs.getInt("anomalyFlags");
+            return bucket;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.vitals.dao;
+
+import com.example.vitals.utils.AggregationHelper;
+import com.example.vitals.utils.VitalsConfig;
+
+import java.io.Serial;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Reduces a long time range of raw rows to per-bucket aggregates in parallel.
+ * The range is split into time segments sized from its estimated row count; each segment is read on its own
+ * pooled read connection and aggregated on a fork/join worker, and the partial buckets are merged.
+ * Every row stands for the time until the next one, as in AggregationHelper.aggregate, and every aggregate
+ * (weights, weighted sums, min, max, anomaly flags) merges associatively,
+ * so the result does not depend on how the range was split.
+ */
+public class RangeAggregator {
+
+    // Ordered, and reaching one row span beyond the segment on both sides so the spans crossing its ends are known
+    private static final String SEGMENT_SQL = "SELECT epochMs, cpuUsage, memoryUsed, memoryTotal, memoryAvailable, anomalyFlags "
+            + "FROM HistoricalMetrics WHERE host = ? AND epochMs >= ? AND epochMs < ? ORDER BY epochMs ASC;";
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("vitals-aggregation-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }, null, false);
+
+    private final SqliteConnectionPool connections;
+    private final long segmentRows;
+
+    RangeAggregator(SqliteConnectionPool connections) {
+        this(connections, VitalsConfig.getLong("vitals.aggregation.segmentRows", 50_000));
+    }
+
+    RangeAggregator(SqliteConnectionPool connections, long segmentRows) {
+        this.connections = connections;
+        this.segmentRows = Math.max(1_000, segmentRows);
+    }
+
+    /**
+     * Aggregates the host's rows in [fromEpochMs, toEpochMs) into buckets of the given length, oldest first.
+     * Buckets are aligned to multiples of their length since the epoch, like AggregationHelper.aggregate,
+     * so both paths return the same buckets. The estimated row count decides how many segments are read in parallel.
+     * If the calling thread is interrupted the segments not yet read are skipped and an empty list is returned.
+     */
+    List<RangeBucket> aggregate(String host, long fromEpochMs, long toEpochMs, long bucketMs, long estimatedRows) throws SQLException {
+        int segments = (int) Math.max(1, Math.min(4_096, (estimatedRows + segmentRows - 1) / segmentRows));
+
+        Map<Long, RangeBucket> merged;
+        if (segments == 1) {
+            Thread caller = Thread.currentThread();
+            merged = readSegment(host, fromEpochMs, toEpochMs, bucketMs, caller::isInterrupted);
+        } else {
+            SegmentTask task = new SegmentTask(null, host, fromEpochMs, toEpochMs, bucketMs, segments);
+            POOL.execute(task);
+            try {
+                merged = task.get();
+            } catch (InterruptedException e) {
+                // Stops the workers at their next segment or row batch
+                task.cancel(false);
+                Thread.currentThread().interrupt();
+                return List.of();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SegmentFailure failure) {
+                    throw failure.sqlException;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            return List.of();
+        }
+
+        List<RangeBucket> buckets = new ArrayList<>(merged.values());
+        buckets.sort((a, b) -> Long.compare(a.startEpochMs, b.startEpochMs));
+        return buckets;
+    }
+
+    private Map<Long, RangeBucket> readSegment(String host, long fromEpochMs, long toEpochMs, long bucketMs,
+                                               BooleanSupplier cancelled) throws SQLException {
+        MetricColumns rows = connections.read(reader -> {
+            MetricColumns columns = new MetricColumns((int) Math.min(segmentRows, 1 << 16));
+            PreparedStatement pstmt = reader.prepare(SEGMENT_SQL);
+            pstmt.setString(1, host);
+            pstmt.setLong(2, fromEpochMs - Deadband.MAX_ROW_SPAN_MS);
+            pstmt.setLong(3, toEpochMs + Deadband.MAX_ROW_SPAN_MS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getInt(6));
+                    if ((columns.size() & 4_095) == 0 && cancelled.getAsBoolean()) {
+                        break;
+                    }
+                }
+            }
+            return columns;
+        });
+
+        // Only the spans' pieces inside the segment count, so a span cut by a segment boundary is merged whole
+        Map<Long, RangeBucket> buckets = new HashMap<>();
+        AggregationHelper.forEachSpan(rows.size(), rows::epochMs, fromEpochMs, toEpochMs, bucketMs, Deadband.INTERPOLATION,
+                (bucketStart, row, weightMs, fraction, own) -> {
+                    int next = Math.min(row + 1, rows.size() - 1);
+                    RangeBucket bucket = buckets.computeIfAbsent(bucketStart, RangeBucket::new);
+                    bucket.add(AggregationHelper.lerp(rows.cpuUsage(row), rows.cpuUsage(next), fraction),
+                            AggregationHelper.lerp(rows.memoryUsed(row), rows.memoryUsed(next), fraction),
+                            AggregationHelper.lerp(rows.memoryTotal(row), rows.memoryTotal(next), fraction),
+                            AggregationHelper.lerp(rows.memoryAvailable(row), rows.memoryAvailable(next), fraction),
+                            weightMs);
+                    if (own) {
+                        bucket.anomalyFlags |= rows.anomalyFlags(row);
+                    }
+                });
+        return buckets;
+    }
+
+    /**
+     * Splits its time range in halves until each piece is one segment, reads the leaves and merges upwards.
+     * Every piece checks whether the root task was cancelled before it reads or splits further.
+     */
+    private final class SegmentTask extends RecursiveTask<Map<Long, RangeBucket>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SegmentTask root;
+        private final String host;
+        private final long fromEpochMs;
+        private final long toEpochMs;
+        private final long bucketMs;
+        private final int segments;
+
+        SegmentTask(SegmentTask root, String host, long fromEpochMs, long toEpochMs, long bucketMs, int segments) {
+            this.root = root;
+            this.host = host;
+            this.fromEpochMs = fromEpochMs;
+            this.toEpochMs = toEpochMs;
+            this.bucketMs = bucketMs;
+            this.segments = segments;
+        }
+
+        private boolean rootCancelled() {
+            return (root != null ? root : this).isCancelled();
+        }
+
+        @Override
+        protected Map<Long, RangeBucket> compute() {
+            if (rootCancelled()) {
+                return new HashMap<>();
+            }
+            if (segments <= 1 || toEpochMs - fromEpochMs < 2) {
+                try {
+                    return readSegment(host, fromEpochMs, toEpochMs, bucketMs, this::rootCancelled);
+                } catch (SQLException e) {
+                    throw new SegmentFailure(e);
+                }
+            }
+            SegmentTask top = root != null ? root : this;
+            int leftSegments = segments / 2;
+            long split = fromEpochMs + (toEpochMs - fromEpochMs) * leftSegments / segments;
+            SegmentTask left = new SegmentTask(top, host, fromEpochMs, split, bucketMs, leftSegments);
+            SegmentTask right = new SegmentTask(top, host, split, toEpochMs, bucketMs, segments - leftSegments);
+            left.fork();
+            Map<Long, RangeBucket> rightResult = right.compute();
+            Map<Long, RangeBucket> leftResult = left.join();
+            return mergeInto(leftResult, rightResult);
+        }
+    }
+
+    // A bucket cut by a segment boundary exists on both sides and is merged here
+    private static Map<Long, RangeBucket> mergeInto(Map<Long, RangeBucket> a, Map<Long, RangeBucket> b) {
+        Map<Long, RangeBucket> larger = a.size() >= b.size() ? a : b;
+        Map<Long, RangeBucket> smaller = larger == a ? b : a;
+        for (Map.Entry<Long, RangeBucket> entry : smaller.entrySet()) {
+            larger.merge(entry.getKey(), entry.getValue(), RangeBucket::merge);
+        }
+        return larger;
+    }
+
+    // Carries a segment's SQLException out of the fork/join workers
+    private static final class SegmentFailure extends RuntimeException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient SQLException sqlException;
+
+        SegmentFailure(SQLException sqlException) {
+            super(sqlException);
+            this.sqlException = sqlException;
+        }
+    }
+
+    /**
+     * Aggregates of one bucket: time-weighted means and the min and max of the values held during it,
+     * and the anomaly flags of the rows stored in it. Percentiles over a range come from MetricRollups,
+     * which sees every sample rather than the rows the deadband kept.
+     */
+    public static final class RangeBucket {
+        private final long startEpochMs;
+        private double weightMs;
+        private double cpuSum;
+        private double cpuMin = Double.POSITIVE_INFINITY;
+        private double cpuMax = Double.NEGATIVE_INFINITY;
+        private double memoryUsedSum;
+        private double memoryMin = Double.POSITIVE_INFINITY;
+        private double memoryMax = Double.NEGATIVE_INFINITY;
+        private double memoryTotalSum;
+        private double memoryAvailableSum;
+        private int anomalyFlags;
+
+        RangeBucket(long startEpochMs) {
+            this.startEpochMs = startEpochMs;
+        }
+
+        // One piece of a row's span, see AggregationHelper.forEachSpan
+        void add(double cpu, double memoryUsed, double memoryTotal, double memoryAvailable, double pieceMs) {
+            weightMs += pieceMs;
+            cpuSum += cpu * pieceMs;
+            cpuMin = Math.min(cpuMin, cpu);
+            cpuMax = Math.max(cpuMax, cpu);
+            memoryUsedSum += memoryUsed * pieceMs;
+            memoryMin = Math.min(memoryMin, memoryUsed);
+            memoryMax = Math.max(memoryMax, memoryUsed);
+            memoryTotalSum += memoryTotal * pieceMs;
+            memoryAvailableSum += memoryAvailable * pieceMs;
+        }
+
+        RangeBucket merge(RangeBucket other) {
+            weightMs += other.weightMs;
+            cpuSum += other.cpuSum;
+            cpuMin = Math.min(cpuMin, other.cpuMin);
+            cpuMax = Math.max(cpuMax, other.cpuMax);
+            memoryUsedSum += other.memoryUsedSum;
+            memoryMin = Math.min(memoryMin, other.memoryMin);
+            memoryMax = Math.max(memoryMax, other.memoryMax);
+            memoryTotalSum += other.memoryTotalSum;
+            memoryAvailableSum += other.memoryAvailableSum;
+            anomalyFlags |= other.anomalyFlags;
+            return this;
+        }
+
+        public long getStartEpochMs() {
+            return startEpochMs;
+        }
+
+        /**
+         * Time the bucket's values are known for, the denominator of its means.
+         */
+        public double getWeightMs() {
+            return weightMs;
+        }
+
+        public double getCpuMean() {
+            return cpuSum / weightMs;
+        }
+
+        public double getCpuMin() {
+            return cpuMin;
+        }
+
+        public double getCpuMax() {
+            return cpuMax;
+        }
+
+        public double getMemoryUsedMean() {
+            return memoryUsedSum / weightMs;
+        }
+
+        public double getMemoryUsedMin() {
+            return memoryMin;
+        }
+
+        public double getMemoryUsedMax() {
+            return memoryMax;
+        }
+
+        public double getMemoryTotalMean() {
+            return memoryTotalSum / weightMs;
+        }
+
+        public double getMemoryAvailableMean() {
+            return memoryAvailableSum / weightMs;
+        }
+
+        public int getAnomalyFlags() {
+            return anomalyFlags;
+        }
+    }
+}
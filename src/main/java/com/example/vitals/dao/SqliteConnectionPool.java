@@ -0,0 +1,230 @@
+package com.example.vitals.dao;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connections to the SQLite store: one writer shared by every ingest path and a small pool of read-only
+ * connections for history windows and exports. The database runs in WAL mode, so readers work on a
+ * snapshot and never block the writer, and the writer never blocks them.
+ * Every connection keeps its prepared statements, so repeated queries skip SQL parsing.
+ */
+public final class SqliteConnectionPool implements AutoCloseable {
+
+    /**
+     * Work done with a pooled connection.
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run(CachedConnection connection) throws SQLException;
+    }
+
+    private final String url;
+    private final int busyTimeoutMs;
+    private final long walAutoCheckpointPages;
+    private final long journalSizeLimitBytes;
+
+    // SQLite allows a single writer; the local collector and every agent connection take turns
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private CachedConnection writer;
+
+    private final BlockingQueue<CachedConnection> idleReaders;
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final int maxReaders;
+
+    private volatile boolean closed;
+
+    public SqliteConnectionPool(String url, int maxReaders, int busyTimeoutMs, long walAutoCheckpointPages, long journalSizeLimitBytes) {
+        this.url = url;
+        this.maxReaders = Math.max(1, maxReaders);
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.walAutoCheckpointPages = walAutoCheckpointPages;
+        this.journalSizeLimitBytes = journalSizeLimitBytes;
+        this.idleReaders = new ArrayBlockingQueue<>(this.maxReaders);
+    }
+
+    /**
+     * Runs the work on the writer connection inside a transaction, committed if the work completes
+     * and rolled back if it throws.
+     */
+    public <T> T write(SqlWork<T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            if (writer == null || writer.connection().isClosed()) {
+                writer = new CachedConnection(openWriter());
+            }
+            Connection conn = writer.connection();
+            conn.setAutoCommit(false);
+            try {
+                T result = work.run(writer);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the work on a read-only connection, waiting for one if all are busy.
+     */
+    public <T> T read(SqlWork<T> work) throws SQLException {
+        CachedConnection reader = borrowReader();
+        try {
+            return work.run(reader);
+        } finally {
+            returnReader(reader);
+        }
+    }
+
+    private CachedConnection borrowReader() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        CachedConnection reader = idleReaders.poll();
+        if (reader != null) {
+            return reader;
+        }
+        // Open lazily up to the limit, then wait for a reader to come back
+        int open = openReaders.get();
+        while (open < maxReaders) {
+            if (openReaders.compareAndSet(open, open + 1)) {
+                try {
+                    return new CachedConnection(openReader());
+                } catch (SQLException e) {
+                    openReaders.decrementAndGet();
+                    throw e;
+                }
+            }
+            open = openReaders.get();
+        }
+        try {
+            return idleReaders.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+    }
+
+    private void returnReader(CachedConnection reader) {
+        boolean usable;
+        try {
+            usable = !closed && !reader.connection().isClosed();
+        } catch (SQLException e) {
+            usable = false;
+        }
+        if (!usable || !idleReaders.offer(reader)) {
+            openReaders.decrementAndGet();
+            reader.close();
+        }
+    }
+
+    private Connection openWriter() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        // NORMAL is durable across application crashes in WAL mode and avoids an fsync per commit
+        config.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        config.setBusyTimeout(busyTimeoutMs);
+        Connection conn = config.createConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA wal_autocheckpoint = " + walAutoCheckpointPages + ";");
+            // Shrinks the WAL file back after a checkpoint that had to let it grow past the limit
+            stmt.execute("PRAGMA journal_size_limit = " + journalSizeLimitBytes + ";");
+        }
+        return conn;
+    }
+
+    private Connection openReader() throws SQLException {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.setBusyTimeout(busyTimeoutMs);
+        return config.createConnection(url);
+    }
+
+    /**
+     * Closes every idle connection, folding the WAL back into the database first.
+     * Readers still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        CachedConnection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            openReaders.decrementAndGet();
+            reader.close();
+        }
+        writeLock.lock();
+        try {
+            if (writer != null) {
+                try (Statement stmt = writer.connection().createStatement()) {
+                    stmt.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+                } catch (SQLException e) {
+                    System.err.println("Error checkpointing database: " + e.getMessage());
+                }
+                writer.close();
+                writer = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * A connection with its prepared statements, used by one thread at a time.
+     */
+    public static final class CachedConnection {
+
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        private CachedConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        public Connection connection() {
+            return connection;
+        }
+
+        /**
+         * Returns the cached statement for the SQL, preparing it on first use. Parameters from the previous use are cleared.
+         */
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement pstmt = statements.get(sql);
+            if (pstmt == null || pstmt.isClosed()) {
+                pstmt = connection.prepareStatement(sql);
+                statements.put(sql, pstmt);
+            } else {
+                pstmt.clearParameters();
+                pstmt.clearBatch();
+            }
+            return pstmt;
+        }
+
+        private void close() {
+            try {
+                for (PreparedStatement pstmt : statements.values()) {
+                    pstmt.close();
+                }
+                statements.clear();
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing database connection: " + e.getMessage());
+            }
+        }
+    }
+}
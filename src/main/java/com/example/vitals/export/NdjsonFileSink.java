@@ -0,0 +1,394 @@
+package com.example.vitals.export;
+
+import com.example.vitals.bus.SampleEvent;
+import com.example.vitals.bus.SampleHandler;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.VitalsConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bus sink appending every sample as one compact JSON line to vitals.ndjson, for log pipelines that
+ * should not read the database. Lines are serialized straight into a direct buffer, numbers digit by
+ * digit, so a sample creates no Strings; the buffer goes to the FileChannel in one write per group of
+ * samples, at most every flush interval, when full, and on rotation and close.
+ * The file rotates by size or age to vitals-yyyyMMdd-HHmmss.ndjson, which a background thread then
+ * gzips; segments left uncompressed by a previous run are compressed on start.
+ */
+public class NdjsonFileSink implements SampleHandler, AutoCloseable {
+
+    public static final String ACTIVE_FILE = "vitals.ndjson";
+    private static final String SEGMENT_PREFIX = "vitals-";
+    private static final String SEGMENT_SUFFIX = ".ndjson";
+    private static final DateTimeFormatter SEGMENT_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Room for one line without names and interfaces; each interface adds at most INTERFACE_LINE_BYTES plus its name
+    private static final int BASE_LINE_BYTES = 1_024;
+    private static final int INTERFACE_LINE_BYTES = 160;
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000};
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final Path directory;
+    private final Path activeFile;
+    private final long maxBytes;
+    private final long rotateMs;
+    private final long flushIntervalMs;
+    private final String host;
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "vitals-ndjson-gzip");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final byte[] digits = new byte[20];
+    private long fileBytes;
+    private long rotateAtMs;
+    private long lastFlushMs;
+
+    /**
+     * @param maxBytes        size at which the file rotates, 0 for no limit
+     * @param rotateMs        age at which the file rotates, 0 for no limit
+     * @param flushIntervalMs longest time lines wait in the buffer while samples keep coming
+     */
+    public NdjsonFileSink(Path directory, long maxBytes, long rotateMs, long flushIntervalMs, String host) throws IOException {
+        this.directory = directory;
+        this.activeFile = directory.resolve(ACTIVE_FILE);
+        this.maxBytes = maxBytes;
+        this.rotateMs = rotateMs;
+        this.flushIntervalMs = flushIntervalMs;
+        this.host = host;
+        Files.createDirectories(directory);
+        compressLeftoverSegments();
+        open(System.currentTimeMillis());
+    }
+
+    /**
+     * Sink writing to the directory with the vitals.ndjson.* settings, under the host name agents report.
+     */
+    public static NdjsonFileSink fromConfig(Path directory) throws IOException {
+        String host;
+        try {
+            host = VitalsConfig.getString("vitals.agent.host", InetAddress.getLocalHost().getHostName());
+        } catch (IOException e) {
+            host = VitalsConfig.getString("vitals.agent.host", "local");
+        }
+        return new NdjsonFileSink(directory,
+                VitalsConfig.getLong("vitals.ndjson.maxMB", 64) * 1024 * 1024,
+                VitalsConfig.getLong("vitals.ndjson.rotateMinutes", 60) * 60_000,
+                VitalsConfig.getLong("vitals.ndjson.flushMs", 1_000),
+                host);
+    }
+
+    @Override
+    public void onSample(SampleEvent event, long sequence, boolean endOfBatch) throws IOException {
+        SystemSample sample = event.getSample();
+        long now = System.currentTimeMillis();
+        if ((maxBytes > 0 && fileBytes + buffer.position() >= maxBytes) || (rotateMs > 0 && now >= rotateAtMs)) {
+            rotate(now);
+        }
+
+        int lineBytes = BASE_LINE_BYTES + (host.length() + sample.disk().driveName().length()) * 6;
+        for (InterfaceActivity nic : sample.interfaces()) {
+            lineBytes += INTERFACE_LINE_BYTES + nic.name().length() * 6;
+        }
+        if (buffer.remaining() < lineBytes) {
+            flush();
+            if (buffer.capacity() < lineBytes) {
+                buffer = ByteBuffer.allocateDirect(lineBytes * 2);
+            }
+        }
+        writeLine(sample, event.getAnomalyFlags());
+
+        // Group flush: one write for everything that arrived since the last one
+        if (endOfBatch && now - lastFlushMs >= flushIntervalMs) {
+            flush();
+        }
+    }
+
+    private void writeLine(SystemSample sample, int anomalyFlags) {
+        putAscii("{\"ts\":\"");
+        putIsoTime(sample.timestamp());
+        putAscii("\",\"host\":");
+        putString(host);
+        putAscii(",\"cpu\":");
+        putLong(sample.cpu().usagePercentage());
+        putAscii(",\"cpuTempC\":");
+        putLong(sample.cpu().temperature());
+        putAscii(",\"clockMHz\":");
+        putLong(sample.cpu().clockSpeed());
+        putAscii(",\"processes\":");
+        putLong(sample.cpu().processCount());
+        putAscii(",\"memTotalGB\":");
+        putDecimal(sample.memory().totalGB(), 3);
+        putAscii(",\"memUsedGB\":");
+        putDecimal(sample.memory().usedGB(), 3);
+        putAscii(",\"memCacheGB\":");
+        putDecimal(sample.memory().cacheGB(), 3);
+        putAscii(",\"memAvailableGB\":");
+        putDecimal(sample.memory().availableGB(), 3);
+        putAscii(",\"disk\":");
+        putString(sample.disk().driveName());
+        putAscii(",\"diskUsedGB\":");
+        putDecimal(sample.disk().usedGB(), 3);
+        putAscii(",\"diskTotalGB\":");
+        putDecimal(sample.disk().totalGB(), 3);
+        putAscii(",\"uploadKbps\":");
+        putLong(sample.network().uploadSpeedKbps());
+        putAscii(",\"downloadKbps\":");
+        putLong(sample.network().downloadSpeedKbps());
+        putAscii(",\"anomalyFlags\":");
+        putLong(anomalyFlags);
+        if (!sample.interfaces().isEmpty()) {
+            putAscii(",\"interfaces\":[");
+            boolean first = true;
+            for (InterfaceActivity nic : sample.interfaces()) {
+                if (!first) {
+                    buffer.put((byte) ',');
+                }
+                first = false;
+                putAscii("{\"name\":");
+                putString(nic.name());
+                putAscii(",\"rxBytesPerSec\":");
+                putDecimal(nic.rxBytesPerSec(), 1);
+                putAscii(",\"txBytesPerSec\":");
+                putDecimal(nic.txBytesPerSec(), 1);
+                putAscii(",\"rxPacketsPerSec\":");
+                putDecimal(nic.rxPacketsPerSec(), 1);
+                putAscii(",\"txPacketsPerSec\":");
+                putDecimal(nic.txPacketsPerSec(), 1);
+                putAscii(",\"errorsPerSec\":");
+                putDecimal(nic.errorsPerSec(), 2);
+                buffer.put((byte) '}');
+            }
+            buffer.put((byte) ']');
+        }
+        buffer.put((byte) '}');
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes the buffered lines to the file.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            fileBytes += channel.write(buffer);
+        }
+        buffer.clear();
+        lastFlushMs = System.currentTimeMillis();
+    }
+
+    private void open(long now) throws IOException {
+        channel = FileChannel.open(activeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+        rotateAtMs = now + rotateMs;
+        lastFlushMs = now;
+    }
+
+    private void rotate(long now) throws IOException {
+        flush();
+        channel.close();
+        if (fileBytes > 0) {
+            String time = LocalDateTime.now(ZoneId.systemDefault()).format(SEGMENT_TIME_FORMAT);
+            Path segment = directory.resolve(SEGMENT_PREFIX + time + SEGMENT_SUFFIX);
+            for (int i = 1; Files.exists(segment) || Files.exists(gzipPath(segment)); i++) {
+                segment = directory.resolve(SEGMENT_PREFIX + time + "-" + i + SEGMENT_SUFFIX);
+            }
+            Files.move(activeFile, segment);
+            Path rotated = segment;
+            compressor.execute(() -> compress(rotated));
+        }
+        open(now);
+    }
+
+    private void compressLeftoverSegments() throws IOException {
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : segments) {
+                compressor.execute(() -> compress(segment));
+            }
+        }
+    }
+
+    private static Path gzipPath(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + ".gz");
+    }
+
+    private static void compress(Path segment) {
+        Path gzip = gzipPath(segment);
+        Path partial = gzip.resolveSibling(gzip.getFileName() + ".part");
+        try {
+            try (InputStream in = Files.newInputStream(segment);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+                in.transferTo(out);
+            }
+            Files.move(partial, gzip, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            System.err.println("Error compressing " + segment + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Flushes and closes the file, then waits for pending compressions.
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing NDJSON log: " + e.getMessage());
+            e.printStackTrace();
+        }
+        compressor.shutdown();
+        try {
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void putAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+    }
+
+    // Fixed-point rounded half up, with trailing zeros dropped; JSON has no NaN or infinity, so those become null
+    private void putDecimal(double value, int decimals) {
+        if (!Double.isFinite(value)) {
+            putAscii("null");
+            return;
+        }
+        double abs = Math.abs(value);
+        long scaled = Math.round(abs * POW10[decimals]);
+        // The product itself is rounded and can land on a tie the exact value is not at; fma decides exactly
+        if (scaled < 1L << 52) {
+            if (Math.fma(abs, POW10[decimals], 0.5 - scaled) < 0) {
+                scaled--;
+            } else if (Math.fma(abs, POW10[decimals], -0.5 - scaled) >= 0) {
+                scaled++;
+            }
+        }
+        if (value < 0 && scaled != 0) {
+            buffer.put((byte) '-');
+        }
+        putLong(scaled / POW10[decimals]);
+        long fraction = scaled % POW10[decimals];
+        while (decimals > 0 && fraction % 10 == 0) {
+            fraction /= 10;
+            decimals--;
+        }
+        if (decimals > 0) {
+            buffer.put((byte) '.');
+            for (long divisor = POW10[decimals - 1]; divisor > 0; divisor /= 10) {
+                buffer.put((byte) ('0' + fraction / divisor % 10));
+            }
+        }
+    }
+
+    // yyyy-MM-ddTHH:mm:ss.SSSZ in UTC, from the civil-from-days algorithm
+    private void putIsoTime(long epochMs) {
+        long days = Math.floorDiv(epochMs, 86_400_000L);
+        long msOfDay = Math.floorMod(epochMs, 86_400_000L);
+        long z = days + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        putPadded(year, 4);
+        buffer.put((byte) '-');
+        putPadded(month, 2);
+        buffer.put((byte) '-');
+        putPadded(day, 2);
+        buffer.put((byte) 'T');
+        putPadded(msOfDay / 3_600_000, 2);
+        buffer.put((byte) ':');
+        putPadded(msOfDay / 60_000 % 60, 2);
+        buffer.put((byte) ':');
+        putPadded(msOfDay / 1_000 % 60, 2);
+        buffer.put((byte) '.');
+        putPadded(msOfDay % 1_000, 3);
+        buffer.put((byte) 'Z');
+    }
+
+    private void putPadded(long value, int width) {
+        for (long divisor = POW10[width - 1]; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    // JSON string, UTF-8 encoded by hand so no byte array is created
+    private void putString(String text) {
+        buffer.put((byte) '"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                buffer.put((byte) '\\');
+                buffer.put((byte) c);
+            } else if (c < 0x20) {
+                putAscii("\\u00");
+                buffer.put(HEX[c >> 4]);
+                buffer.put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer.put((byte) (0xF0 | codePoint >> 18));
+                buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | codePoint & 0x3F));
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+        buffer.put((byte) '"');
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.vitals.loadgen;
+
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.models.SystemSample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes synthetic history into the database, months of it in seconds, so storage and history views
+ * can be tested at scale without waiting for real data. Samples go through the normal batched insert
+ * path, so the rollups are built exactly as the collector would build them.
+ * Hosts are named synthetic-0, synthetic-1, ... and never mix with the machine's own history.
+ *
+ * Usage: java -cp vitals.jar com.example.vitals.loadgen.HistoryBackfill [days] [hosts] [intervalMs]
+ * (pattern and seed from vitals.synthetic.*, target database from vitals.db.path)
+ */
+public class HistoryBackfill {
+
+    // Samples per transaction; large enough that the per-commit fsync is negligible
+    public static final int BATCH_SIZE = 5_000;
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int hosts = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long intervalMs = args.length > 2 ? Long.parseLong(args[2]) : 2_000;
+
+        HistoricalDataDAO dao = new HistoricalDataDAO();
+        long to = System.currentTimeMillis();
+        long from = to - days * 86_400_000L;
+        long totalRows = 0;
+        long start = System.nanoTime();
+        for (int host = 0; host < hosts; host++) {
+            totalRows += backfill(dao, "synthetic-" + host, SyntheticMetricSource.fromConfig(host), from, to, intervalMs, null);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d samples (%d days x %d hosts at %d ms) in %.1fs, %.0f samples/s%n",
+                totalRows, days, hosts, intervalMs, seconds, totalRows / seconds);
+        HistoricalDataDAO.shutdown();
+    }
+
+    /**
+     * Writes one sample every intervalMs in [fromEpochMs, toEpochMs) for the host, in batches of BATCH_SIZE.
+     *
+     * @param batchNanos receives the duration of every batch write, or null
+     * @return the number of samples written
+     */
+    public static long backfill(HistoricalDataDAO dao, String host, SyntheticMetricSource source,
+                                long fromEpochMs, long toEpochMs, long intervalMs, List<Long> batchNanos) {
+        List<SystemSample> batch = new ArrayList<>(BATCH_SIZE);
+        long rows = 0;
+        for (long time = fromEpochMs; time < toEpochMs; time += intervalMs) {
+            batch.add(source.sampleAt(time));
+            if (batch.size() == BATCH_SIZE) {
+                rows += write(dao, host, batch, batchNanos);
+            }
+        }
+        if (!batch.isEmpty()) {
+            rows += write(dao, host, batch, batchNanos);
+        }
+        return rows;
+    }
+
+    private static int write(HistoricalDataDAO dao, String host, List<SystemSample> batch, List<Long> batchNanos) {
+        long start = System.nanoTime();
+        dao.logSamples(host, batch);
+        if (batchNanos != null) {
+            batchNanos.add(System.nanoTime() - start);
+        }
+        int written = batch.size();
+        batch.clear();
+        return written;
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.vitals.loadgen;
+
+import com.example.vitals.controllers.HistoricalController;
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.dao.MetricColumns;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.HistoryTileCache;
+import com.example.vitals.utils.VitalsConfig;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.chart.CategoryAxis;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * End-to-end performance run over synthetic history. Grows a scratch database through the given sizes
+ * and at each size measures ingest throughput, the queries behind every history view and the time to
+ * populate the history charts, then writes a report. Given the report of an earlier run as
+ * vitals.perf.baseline, it marks every measurement whose median got slower and exits with status 1,
+ * so it serves as the regression check for storage and UI changes.
+ * Chart layout needs a JavaFX toolkit (a display); without one only building the chart points is measured.
+ *
+ * Usage: java -cp vitals.jar com.example.vitals.loadgen.PerformanceHarness [days,days,...] [intervalMs] [report]
+ */
+public class PerformanceHarness {
+
+    private static final String HOST = "perf-0";
+    private static final String LIVE_HOST = "perf-live";
+    private static final long DAY_MS = 86_400_000L;
+    // Single-sample transactions, the way the collector writes every tick
+    private static final int LIVE_SAMPLES = 200;
+    // A history chart about 1200 px wide at 4 px per point
+    private static final int CHART_POINTS = 300;
+    private static final DateTimeFormatter LABEL_FORMAT = DateTimeFormatter.ofPattern("MM-dd HH:mm");
+
+    private static final double TOLERANCE = VitalsConfig.getDouble("vitals.perf.tolerance", 0.25);
+    // Differences below this are timer noise, whatever the ratio
+    private static final double MIN_REGRESSION_MS = 2.0;
+
+    private record Measurement(String size, String name, double p50Ms, double maxMs, String detail) {
+    }
+
+    private final HistoricalDataDAO dao;
+    private final int repeats;
+    private final List<Measurement> measurements = new ArrayList<>();
+    private boolean fxAvailable;
+
+    private PerformanceHarness(HistoricalDataDAO dao, int repeats) {
+        this.dao = dao;
+        this.repeats = Math.max(1, repeats);
+    }
+
+    public static void main(String[] args) throws Exception {
+        long[] sizes = Arrays.stream((args.length > 0 ? args[0] : "1,7,30").split(","))
+                .mapToLong(size -> Long.parseLong(size.trim())).sorted().toArray();
+        long intervalMs = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+        Path report = Paths.get(args.length > 2 ? args[2] : "vitals-perf-report.md");
+
+        // A scratch database unless one is given, so a run never touches real history
+        Path scratch = null;
+        if (VitalsConfig.getString("vitals.db.path", null) == null) {
+            scratch = Files.createTempFile("vitals-perf-", ".db");
+            System.setProperty("vitals.db.path", scratch.toString());
+        }
+
+        boolean regressed;
+        try {
+            PerformanceHarness harness = new PerformanceHarness(new HistoricalDataDAO(),
+                    (int) VitalsConfig.getLong("vitals.perf.repeats", 5));
+            harness.run(sizes, intervalMs);
+            String baseline = VitalsConfig.getString("vitals.perf.baseline", null);
+            regressed = harness.writeReport(report, intervalMs, baseline == null ? null : Paths.get(baseline));
+        } finally {
+            HistoricalDataDAO.shutdown();
+            if (scratch != null) {
+                for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                    Files.deleteIfExists(Paths.get(scratch + suffix));
+                }
+            }
+        }
+        System.exit(regressed ? 1 : 0);
+    }
+
+    private void run(long[] sizes, long intervalMs) throws Exception {
+        fxAvailable = startFx();
+        // History ends where the run starts; every size extends it further back
+        long end = System.currentTimeMillis() / intervalMs * intervalMs;
+        long coveredDays = 0;
+        long totalRows = 0;
+        SyntheticMetricSource liveSource = SyntheticMetricSource.fromConfig(1);
+        long liveTime = end;
+
+        for (long days : sizes) {
+            String size = days + "d";
+            System.out.println("Growing history to " + size + "...");
+
+            List<Long> batchNanos = new ArrayList<>();
+            long start = System.nanoTime();
+            long rows = HistoryBackfill.backfill(dao, HOST, SyntheticMetricSource.fromConfig(0),
+                    end - days * DAY_MS, end - coveredDays * DAY_MS, intervalMs, batchNanos);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            coveredDays = days;
+            totalRows += rows;
+            long databaseBytes = Files.size(Paths.get(System.getProperty("vitals.db.path")));
+            add(size, "ingest: bulk, " + HistoryBackfill.BATCH_SIZE + " samples per transaction", batchNanos,
+                    String.format(Locale.ROOT, "%d samples at %.0f samples/s; %d rows, %d MB in total",
+                            rows, rows / Math.max(seconds, 1e-9), totalRows, databaseBytes / (1024 * 1024)));
+
+            List<Long> liveNanos = new ArrayList<>();
+            for (int i = 0; i < LIVE_SAMPLES; i++) {
+                liveTime += intervalMs;
+                SystemSample sample = liveSource.sampleAt(liveTime);
+                long tick = System.nanoTime();
+                dao.logSamples(LIVE_HOST, List.of(sample));
+                liveNanos.add(System.nanoTime() - tick);
+            }
+            double liveSeconds = liveNanos.stream().mapToLong(Long::longValue).sum() / 1e9;
+            add(size, "ingest: one sample per transaction", liveNanos,
+                    String.format(Locale.ROOT, "%.0f samples/s", LIVE_SAMPLES / Math.max(liveSeconds, 1e-9)));
+
+            // The two queries a history window runs when a preset is first opened
+            for (HistoricalController.TimePeriod period : HistoricalController.TimePeriod.values()) {
+                long cutoff = end - period.getDuration().toMillis();
+                int previewSeconds = (int) Math.max(30, period.getDuration().toSeconds() / 150);
+                measure(size, "query: " + period.getDisplayName() + " preview", "points",
+                        () -> dao.getAggregatedMetricColumnsSince(HOST, cutoff, previewSeconds).size());
+                int refinedSeconds = (int) Math.max(1, period.getDuration().toSeconds() / 1_200);
+                measure(size, "query: " + period.getDisplayName() + " refined", "points",
+                        () -> dao.getAggregatedMetricColumnsSince(HOST, cutoff, refinedSeconds).size());
+            }
+
+            // Zoomed out to the whole history, as the zoomable view fetches it
+            long span = days * DAY_MS;
+            long bucketMs = HistoryTileCache.bucketMsFor(span, CHART_POINTS);
+            measure(size, "query: whole history view, cold tiles", "points",
+                    () -> new HistoryTileCache(dao).getWindow(HOST, end - span, end, bucketMs).size());
+            HistoryTileCache warmTiles = new HistoryTileCache(dao);
+            warmTiles.getWindow(HOST, end - span, end, bucketMs);
+            measure(size, "query: whole history view, cached tiles", "points",
+                    () -> warmTiles.getWindow(HOST, end - span, end, bucketMs).size());
+            measure(size, "query: parallel aggregation of whole history", "buckets",
+                    () -> dao.aggregateRange(HOST, end - span, end, bucketMs).size());
+
+            String fromTimestamp = timestamp(end - span);
+            String toTimestamp = timestamp(end);
+            int bandSeconds = (int) Math.max(60, span / 1_000 / 150);
+            measure(size, "query: percentile bands", "bands",
+                    () -> dao.getPercentileBands(HOST, fromTimestamp, bandSeconds).size());
+            measure(size, "query: percentiles of whole history", "samples",
+                    () -> (int) dao.getPercentiles(HOST, fromTimestamp, toTimestamp).samples());
+
+            measureCharts(size, "chart: whole history view", warmTiles.getWindow(HOST, end - span, end, bucketMs));
+            measureCharts(size, "chart: Past Hour refined", dao.getAggregatedMetricColumnsSince(HOST, end - 3_600_000L, 3));
+        }
+    }
+
+    private void measure(String size, String name, String unit, IntSupplier operation) {
+        List<Long> nanos = new ArrayList<>(repeats);
+        int result = 0;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            result = operation.getAsInt();
+            nanos.add(System.nanoTime() - start);
+        }
+        add(size, name, nanos, result + " " + unit);
+    }
+
+    /**
+     * Times building the chart points off the FX thread, as the history loader does, and adding them to
+     * a CPU and a memory chart and laying both out on the FX thread.
+     */
+    private void measureCharts(String size, String name, MetricColumns rows) throws Exception {
+        List<Long> buildNanos = new ArrayList<>(repeats);
+        List<Long> layoutNanos = new ArrayList<>(repeats);
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            List<XYChart.Data<String, Number>> cpuPoints = new ArrayList<>(rows.size());
+            List<XYChart.Data<String, Number>> memoryPoints = new ArrayList<>(rows.size());
+            for (int row = 0; row < rows.size(); row++) {
+                String label = LocalDateTime.ofInstant(Instant.ofEpochMilli(rows.epochMs(row)), ZoneId.systemDefault()).format(LABEL_FORMAT);
+                cpuPoints.add(new XYChart.Data<>(label, rows.cpuUsage(row)));
+                memoryPoints.add(new XYChart.Data<>(label, rows.memoryUsed(row)));
+            }
+            buildNanos.add(System.nanoTime() - start);
+            if (fxAvailable) {
+                layoutNanos.add(layOutCharts(cpuPoints, memoryPoints));
+            }
+        }
+        add(size, name + ", build points", buildNanos, rows.size() + " points");
+        if (fxAvailable) {
+            add(size, name + ", show and lay out", layoutNanos, rows.size() + " points");
+        }
+    }
+
+    private static long layOutCharts(List<XYChart.Data<String, Number>> cpuPoints,
+                                     List<XYChart.Data<String, Number>> memoryPoints) throws Exception {
+        FutureTask<Long> task = new FutureTask<>(() -> {
+            LineChart<String, Number> cpuChart = new LineChart<>(new CategoryAxis(), new NumberAxis());
+            LineChart<String, Number> memoryChart = new LineChart<>(new CategoryAxis(), new NumberAxis());
+            cpuChart.setAnimated(false);
+            memoryChart.setAnimated(false);
+            VBox root = new VBox(cpuChart, memoryChart);
+            new Scene(root, 1200, 800);
+
+            long start = System.nanoTime();
+            XYChart.Series<String, Number> cpuSeries = new XYChart.Series<>();
+            cpuSeries.getData().addAll(cpuPoints);
+            XYChart.Series<String, Number> memorySeries = new XYChart.Series<>();
+            memorySeries.getData().addAll(memoryPoints);
+            cpuChart.getData().setAll(List.of(cpuSeries));
+            memoryChart.getData().setAll(List.of(memorySeries));
+            root.applyCss();
+            root.layout();
+            return System.nanoTime() - start;
+        });
+        Platform.runLater(task);
+        return task.get();
+    }
+
+    private static boolean startFx() {
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            Platform.startup(started::countDown);
+            Platform.setImplicitExit(false);
+            return started.await(10, TimeUnit.SECONDS);
+        } catch (Throwable e) {
+            System.out.println("JavaFX toolkit unavailable, chart layout is not measured: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void add(String size, String name, List<Long> nanos, String detail) {
+        long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        double p50Ms = sorted.length == 0 ? 0 : sorted[sorted.length / 2] / 1e6;
+        double maxMs = sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6;
+        Measurement measurement = new Measurement(size, name, p50Ms, maxMs, detail);
+        measurements.add(measurement);
+        System.out.printf(Locale.ROOT, "%-4s %-55s p50=%10.2f ms max=%10.2f ms  %s%n", size, name, p50Ms, maxMs, detail);
+    }
+
+    /**
+     * Writes the report as a Markdown table and returns whether any measurement regressed against the baseline.
+     */
+    private boolean writeReport(Path report, long intervalMs, Path baseline) throws IOException {
+        Map<String, Double> baselineMs = baseline == null ? Map.of() : readBaseline(baseline);
+        List<String> regressions = new ArrayList<>();
+
+        StringBuilder out = new StringBuilder();
+        out.append("# Vitals performance report\n\n");
+        out.append("- Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append('\n');
+        out.append("- Java ").append(System.getProperty("java.version")).append(", ")
+                .append(Runtime.getRuntime().availableProcessors()).append(" cores, max heap ")
+                .append(Runtime.getRuntime().maxMemory() / (1024 * 1024)).append(" MB\n");
+        out.append("- Sample interval ").append(intervalMs).append(" ms, ").append(repeats).append(" repeats per measurement")
+                .append(fxAvailable ? "" : ", chart layout not measured (no JavaFX toolkit)").append('\n');
+        if (baseline != null) {
+            out.append("- Baseline: ").append(baseline).append(", tolerance ").append(Math.round(TOLERANCE * 100)).append("%\n");
+        }
+        out.append("\n| Size | Measurement | p50 ms | max ms | Detail |\n");
+        out.append("|------|-------------|--------|--------|--------|\n");
+        for (Measurement m : measurements) {
+            String detail = m.detail();
+            Double before = baselineMs.get(m.size() + "|" + m.name());
+            if (before != null) {
+                detail += String.format(Locale.ROOT, " (baseline %.2f)", before);
+                if (m.p50Ms() > before * (1 + TOLERANCE) && m.p50Ms() - before > MIN_REGRESSION_MS) {
+                    detail += " **slower**";
+                    regressions.add(String.format(Locale.ROOT, "%s %s: %.2f ms, baseline %.2f ms", m.size(), m.name(), m.p50Ms(), before));
+                }
+            }
+            out.append(String.format(Locale.ROOT, "| %s | %s | %.2f | %.2f | %s |%n", m.size(), m.name(), m.p50Ms(), m.maxMs(), detail));
+        }
+        if (!regressions.isEmpty()) {
+            out.append("\n## Regressions\n\n");
+            regressions.forEach(regression -> out.append("- ").append(regression).append('\n'));
+        }
+
+        Files.writeString(report, out);
+        System.out.println("Report written to " + report.toAbsolutePath());
+        regressions.forEach(regression -> System.out.println("Regression: " + regression));
+        return !regressions.isEmpty();
+    }
+
+    // Median per size and measurement from the table of an earlier report
+    private static Map<String, Double> readBaseline(Path baseline) throws IOException {
+        Map<String, Double> medians = new HashMap<>();
+        for (String line : Files.readAllLines(baseline)) {
+            String[] cells = line.split("\\|");
+            if (cells.length < 6) {
+                continue;
+            }
+            try {
+                medians.put(cells[1].trim() + "|" + cells[2].trim(), Double.parseDouble(cells[3].trim()));
+            } catch (NumberFormatException e) {
+                // Header and separator rows
+            }
+        }
+        return medians;
+    }
+
+    private static String timestamp(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.vitals.loadgen;
+
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.net.RemoteSampleSink;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds synthetic samples for many hosts into a sink at a fixed rate, the way agents feed a collector.
+ * Used with -Dvitals.probe=synthetic to load the storage and the dashboard host list without real agents.
+ */
+public class SyntheticLoadGenerator implements AutoCloseable {
+
+    private final List<String> hosts = new ArrayList<>();
+    private final List<SyntheticMetricSource> sources = new ArrayList<>();
+    private final long intervalMs;
+    private final RemoteSampleSink sink;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    /**
+     * @param hostPrefix      hosts are named hostPrefix + index
+     * @param firstHostIndex  index of the first generated host
+     * @param hostCount       number of hosts to generate
+     * @param intervalMs      time between two samples of one host
+     * @param sink            receives every host's samples, one host per call
+     */
+    public SyntheticLoadGenerator(String hostPrefix, int firstHostIndex, int hostCount, long intervalMs, RemoteSampleSink sink) {
+        for (int i = firstHostIndex; i < firstHostIndex + hostCount; i++) {
+            hosts.add(hostPrefix + i);
+            sources.add(SyntheticMetricSource.fromConfig(i));
+        }
+        this.intervalMs = Math.max(1, intervalMs);
+        this.sink = sink;
+        this.thread = new Thread(this::run, "vitals-synthetic-load");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("Generating synthetic samples for " + hostCount + " hosts every " + this.intervalMs + " ms");
+    }
+
+    private void run() {
+        long nextTick = System.currentTimeMillis();
+        while (running) {
+            for (int i = 0; i < hosts.size() && running; i++) {
+                SystemSample sample = sources.get(i).sampleAt(nextTick);
+                try {
+                    sink.accept(hosts.get(i), List.of(sample));
+                } catch (RuntimeException e) {
+                    System.err.println("Synthetic sample for " + hosts.get(i) + " was not accepted: " + e.getMessage());
+                }
+            }
+            // Fixed rate: a slow tick is followed by a shorter sleep, never by a burst of catch-up ticks
+            nextTick = Math.max(nextTick + intervalMs, System.currentTimeMillis());
+            long sleepMs = nextTick - System.currentTimeMillis();
+            try {
+                if (sleepMs > 0) {
+                    Thread.sleep(sleepMs);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+}
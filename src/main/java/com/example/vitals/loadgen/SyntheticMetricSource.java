@@ -0,0 +1,201 @@
+package com.example.vitals.loadgen;
+
+import com.example.vitals.controllers.SystemProbe;
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.VitalsConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates plausible metrics for one host instead of reading the machine, for testing at scale.
+ * The same pattern and seed always produce the same series, so runs are repeatable. Samples are
+ * generated for explicit times, which lets the backfill tool write months of history in seconds;
+ * as a live probe it samples the current time. Network traffic is split over a wired and a wireless
+ * interface, so per-interface history and charts are exercised too.
+ */
+public class SyntheticMetricSource implements SystemProbe {
+
+    public enum Pattern {
+        /** Flat load with a little noise. */
+        STEADY,
+        /** Daily cycle peaking in the afternoon. */
+        DIURNAL,
+        /** CPU ramps up over ten minutes and drops; memory leaks for six hours and is released. */
+        SAWTOOTH,
+        /** Bounded random walk. */
+        RANDOM_WALK,
+        /** Idle with random bursts of near-full load. */
+        BURSTY,
+        /** Daily cycle with noise and bursts, the closest to a real workstation. */
+        MIXED
+    }
+
+    private static final long DAY_MS = 86_400_000L;
+    private static final long SAWTOOTH_CPU_PERIOD_MS = 600_000L;
+    private static final long SAWTOOTH_MEMORY_PERIOD_MS = 6 * 3_600_000L;
+    private static final long MEAN_BURST_GAP_MS = 900_000L;
+    private static final double MEAN_PACKET_BYTES = 900;
+
+    private final Pattern pattern;
+    private final SplittableRandom random;
+    private final double memoryTotalGB;
+    private final int disks;
+    // Shifts the daily cycle so hosts generated from one configuration do not move in lockstep
+    private final double phase;
+
+    // State of the walk and burst patterns, advanced by the time between samples
+    private long lastEpochMs = Long.MIN_VALUE;
+    private double walkCpu = 30;
+    private double walkMemory = 0.5;
+    private long burstUntil;
+    private double burstLevel;
+    private SystemSample lastSample;
+
+    public SyntheticMetricSource(Pattern pattern, long seed, double memoryTotalGB, int disks) {
+        this.pattern = pattern;
+        this.random = new SplittableRandom(seed);
+        this.memoryTotalGB = memoryTotalGB;
+        this.disks = Math.max(1, disks);
+        this.phase = new SplittableRandom(seed ^ 0x5DEECE66DL).nextDouble(-0.5, 0.5);
+    }
+
+    /**
+     * Source configured by the vitals.synthetic.* properties; the host index varies the seed.
+     */
+    public static SyntheticMetricSource fromConfig(int hostIndex) {
+        Pattern pattern = Pattern.valueOf(VitalsConfig.getString("vitals.synthetic.pattern", "mixed").toUpperCase());
+        return new SyntheticMetricSource(pattern,
+                VitalsConfig.getLong("vitals.synthetic.seed", 42) + hostIndex,
+                VitalsConfig.getDouble("vitals.synthetic.memoryGB", 16),
+                (int) VitalsConfig.getLong("vitals.synthetic.disks", 2));
+    }
+
+    /**
+     * The sample for the given time. Times should not go backwards; the walk and burst state only advances.
+     */
+    public synchronized SystemSample sampleAt(long epochMs) {
+        if (lastSample != null && epochMs == lastEpochMs) {
+            return lastSample;
+        }
+        long elapsedMs = lastEpochMs == Long.MIN_VALUE ? 0 : Math.max(0, epochMs - lastEpochMs);
+        lastEpochMs = epochMs;
+
+        double cpu = clamp(cpuAt(epochMs, elapsedMs), 0, 100);
+        double memoryFraction = clamp(memoryAt(epochMs, elapsedMs, cpu), 0.05, 0.97);
+        double usedGB = memoryTotalGB * memoryFraction;
+        double availableGB = memoryTotalGB - usedGB;
+        int processCount = 220 + (int) (cpu * 0.8);
+        int download = (int) Math.max(0, 150 + cpu * 40 + random.nextGaussian() * 60);
+        int upload = (int) Math.max(0, download / 4.0 + random.nextGaussian() * 20);
+        // Most traffic goes over the wire; the share drifts a little from sample to sample
+        double wiredShare = clamp(0.8 + random.nextGaussian() * 0.05, 0, 1);
+        List<InterfaceActivity> interfaces = List.of(
+                interfaceActivity("eth0", download * wiredShare, upload * wiredShare),
+                interfaceActivity("wlan0", download * (1 - wiredShare), upload * (1 - wiredShare)));
+
+        lastSample = new SystemSample(epochMs,
+                new CPUUsage((int) Math.round(cpu), (int) (38 + cpu * 0.45), 3_200, processCount),
+                new MemoryUsage(memoryTotalGB, usedGB, memoryTotalGB * 0.1, availableGB),
+                diskAt(0, epochMs),
+                new NetworkActivity(upload, download),
+                interfaces);
+        return lastSample;
+    }
+
+    // Rates of one interface carrying the given share of the totals, which are in Kbps
+    private InterfaceActivity interfaceActivity(String name, double downloadKbps, double uploadKbps) {
+        double rxBytes = downloadKbps * 1024 / 8;
+        double txBytes = uploadKbps * 1024 / 8;
+        double errors = random.nextDouble() < 0.01 ? random.nextDouble() * 2 : 0;
+        return new InterfaceActivity(name, rxBytes, txBytes, rxBytes / MEAN_PACKET_BYTES, txBytes / MEAN_PACKET_BYTES, errors);
+    }
+
+    private double cpuAt(long epochMs, long elapsedMs) {
+        return switch (pattern) {
+            case STEADY -> 20 + random.nextGaussian() * 2;
+            case DIURNAL -> daily(epochMs, 35, 25) + random.nextGaussian() * 4;
+            case SAWTOOTH -> 5 + 90.0 * Math.floorMod(epochMs, SAWTOOTH_CPU_PERIOD_MS) / SAWTOOTH_CPU_PERIOD_MS;
+            case RANDOM_WALK -> walkCpu = clamp(walkCpu + random.nextGaussian() * 3 * Math.sqrt(elapsedMs / 1_000.0), 0, 100);
+            case BURSTY -> burst(epochMs, elapsedMs, 8 + random.nextGaussian() * 2);
+            case MIXED -> burst(epochMs, elapsedMs, daily(epochMs, 25, 15) + random.nextGaussian() * 5);
+        };
+    }
+
+    private double memoryAt(long epochMs, long elapsedMs, double cpu) {
+        return switch (pattern) {
+            case STEADY -> 0.45 + random.nextGaussian() * 0.005;
+            case SAWTOOTH -> 0.3 + 0.6 * Math.floorMod(epochMs, SAWTOOTH_MEMORY_PERIOD_MS) / SAWTOOTH_MEMORY_PERIOD_MS;
+            case RANDOM_WALK -> walkMemory = clamp(walkMemory + random.nextGaussian() * 0.01 * Math.sqrt(elapsedMs / 1_000.0), 0.05, 0.97);
+            // Memory follows the load loosely
+            case DIURNAL, BURSTY, MIXED -> 0.35 + cpu / 400 + daily(epochMs, 0.1, 0.05) + random.nextGaussian() * 0.005;
+        };
+    }
+
+    private double daily(long epochMs, double mean, double amplitude) {
+        // Peaks mid-afternoon UTC, shifted per host
+        double dayFraction = (double) Math.floorMod(epochMs, DAY_MS) / DAY_MS;
+        return mean + amplitude * Math.sin(2 * Math.PI * (dayFraction - 0.375 + phase * 0.25));
+    }
+
+    private double burst(long epochMs, long elapsedMs, double base) {
+        if (epochMs >= burstUntil && elapsedMs > 0
+                && random.nextDouble() < 1 - Math.exp(-(double) elapsedMs / MEAN_BURST_GAP_MS)) {
+            burstUntil = epochMs + 10_000 + random.nextLong(110_000);
+            burstLevel = 85 + random.nextDouble() * 15;
+        }
+        return epochMs < burstUntil ? burstLevel + random.nextGaussian() * 2 : base;
+    }
+
+    // Disks fill slowly and are cleaned up when nearly full
+    private DiskUsage diskAt(int disk, long epochMs) {
+        double totalGB = 256.0 * (disk + 1);
+        double fraction = 0.3 + (epochMs / (double) DAY_MS * 0.004 + disk * 0.15 + phase + 0.5) % 0.6;
+        return new DiskUsage(totalGB * fraction, (char) ('C' + disk) + ":", totalGB);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Override
+    public CPUUsage getLatestCPUUsage() {
+        return sampleAt(System.currentTimeMillis()).cpu();
+    }
+
+    @Override
+    public MemoryUsage getLatestMemoryUsage() {
+        return sampleAt(System.currentTimeMillis()).memory();
+    }
+
+    @Override
+    public List<DiskUsage> getAllDiskUsage() {
+        long now = System.currentTimeMillis();
+        List<DiskUsage> diskUsages = new ArrayList<>(disks);
+        for (int disk = 0; disk < disks; disk++) {
+            diskUsages.add(diskAt(disk, now));
+        }
+        return diskUsages;
+    }
+
+    @Override
+    public DiskUsage getLatestDiskUsage() {
+        return diskAt(0, System.currentTimeMillis());
+    }
+
+    @Override
+    public NetworkActivity getLatestNetworkActivity() {
+        return sampleAt(System.currentTimeMillis()).network();
+    }
+
+    @Override
+    public synchronized List<InterfaceActivity> getLatestInterfaceActivity() {
+        return lastSample != null ? lastSample.interfaces() : List.of();
+    }
+}
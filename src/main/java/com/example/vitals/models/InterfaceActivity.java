@@ -0,0 +1,9 @@
+package com.example.vitals.models;
+
+/**
+ * Rates of one network interface over the last sampling interval, per second.
+ * Errors count receive and transmit errors together.
+ */
+public record InterfaceActivity(String name, double rxBytesPerSec, double txBytesPerSec,
+                                double rxPacketsPerSec, double txPacketsPerSec, double errorsPerSec) {
+}
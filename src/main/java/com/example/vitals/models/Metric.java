@@ -0,0 +1,46 @@
+package com.example.vitals.models;
+
+/**
+ * The live metrics carried by a {@link SystemSample}, with a uniform numeric accessor
+ * so samplers, rules and statistics can treat every series the same way.
+ */
+public enum Metric {
+    CPU_USAGE("CPU Usage", "%"),
+    MEMORY_USED("Memory Used", "GB"),
+    MEMORY_AVAILABLE("Memory Available", "GB"),
+    DISK_USED("Disk Used", "GB"),
+    NETWORK_UPLOAD("Upload", "Kbps"),
+    NETWORK_DOWNLOAD("Download", "Kbps");
+
+    private final String displayName;
+    private final String unit;
+
+    Metric(String displayName, String unit) {
+        this.displayName = displayName;
+        this.unit = unit;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public double valueOf(SystemSample sample) {
+        return switch (this) {
+            case CPU_USAGE -> sample.cpu().usagePercentage();
+            case MEMORY_USED -> sample.memory().usedGB();
+            case MEMORY_AVAILABLE -> sample.memory().availableGB();
+            case DISK_USED -> sample.disk().usedGB();
+            case NETWORK_UPLOAD -> sample.network().uploadSpeedKbps();
+            case NETWORK_DOWNLOAD -> sample.network().downloadSpeedKbps();
+        };
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.vitals.models;
+
+/**
+ * Projected exhaustion of a resource from its recent trend.
+ *
+ * @param resource     "Memory", or the mount point of a disk
+ * @param disk         true for a disk, false for memory
+ * @param usedGB       latest used amount
+ * @param capacityGB   amount at which the resource is full
+ * @param growthPerDay fitted growth in GB per day, NaN until there is enough data
+ * @param hoursToFull  estimated hours until full: infinity when not growing, NaN until there is enough data
+ * @param warning      whether the estimate is below the warning horizon
+ */
+public record ResourceForecast(String resource, boolean disk, double usedGB, double capacityGB,
+                               double growthPerDay, double hoursToFull, boolean warning) {
+
+    public boolean hasEstimate() {
+        return !Double.isNaN(hoursToFull);
+    }
+}
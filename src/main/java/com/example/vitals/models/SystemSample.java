@@ -0,0 +1,18 @@
+package com.example.vitals.models;
+
+import java.util.List;
+
+/**
+ * One collector tick: every live metric together with the wall-clock time (epoch millis) it was sampled at.
+ * The network totals cover the physical interfaces, which are also listed one by one.
+ */
+public record SystemSample(long timestamp, CPUUsage cpu, MemoryUsage memory, DiskUsage disk, NetworkActivity network,
+                           List<InterfaceActivity> interfaces) {
+
+    /**
+     * A sample without per-interface rates.
+     */
+    public SystemSample(long timestamp, CPUUsage cpu, MemoryUsage memory, DiskUsage disk, NetworkActivity network) {
+        this(timestamp, cpu, memory, disk, network, List.of());
+    }
+}
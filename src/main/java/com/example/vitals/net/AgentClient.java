@@ -0,0 +1,185 @@
+package com.example.vitals.net;
+
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.utils.VitalsConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams samples from this machine to a central collector.
+ * The collector thread only ever calls {@link #offer}, which never blocks: samples go into a bounded
+ * queue and the oldest ones are dropped when it is full. A sender thread drains the queue in batches,
+ * waits for the collector's ACK before discarding a batch (so nothing is lost across reconnects),
+ * and reconnects with exponential backoff whenever the connection fails.
+ */
+public class AgentClient implements AutoCloseable {
+
+    private static final long MIN_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final String collectorHost;
+    private final int collectorPort;
+    private final String hostName;
+    private final int batchSize;
+    private final long lingerMs;
+    private final BlockingQueue<SystemSample> queue;
+
+    private final AtomicLong droppedSamples = new AtomicLong();
+    private final AtomicLong sentSamples = new AtomicLong();
+    private final Thread senderThread;
+    private volatile boolean running = true;
+    private volatile Socket socket;
+
+    public AgentClient(String collectorHost, int collectorPort, String hostName) {
+        this(collectorHost, collectorPort, hostName,
+                (int) VitalsConfig.getLong("vitals.agent.queueSize", 10_000),
+                (int) VitalsConfig.getLong("vitals.agent.batchSize", 256),
+                VitalsConfig.getLong("vitals.agent.lingerMs", 1_000));
+    }
+
+    /**
+     * @param queueSize maximum number of samples buffered while the collector is slow or unreachable
+     * @param batchSize maximum number of samples per frame
+     * @param lingerMs  how long the sender waits for a batch to fill before sending it
+     */
+    public AgentClient(String collectorHost, int collectorPort, String hostName, int queueSize, int batchSize, long lingerMs) {
+        this.collectorHost = collectorHost;
+        this.collectorPort = collectorPort;
+        this.hostName = hostName;
+        this.batchSize = Math.max(1, Math.min(batchSize, 0xFFFF));
+        this.lingerMs = lingerMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+
+        senderThread = new Thread(this::sendLoop, "vitals-agent-sender");
+        senderThread.setDaemon(true);
+        senderThread.start();
+    }
+
+    /**
+     * Queues a sample for sending without blocking, dropping the oldest queued sample if the queue is full.
+     */
+    public void offer(SystemSample sample) {
+        while (!queue.offer(sample)) {
+            if (queue.poll() != null) {
+                droppedSamples.incrementAndGet();
+            }
+        }
+    }
+
+    public long getDroppedSamples() {
+        return droppedSamples.get();
+    }
+
+    public long getSentSamples() {
+        return sentSamples.get();
+    }
+
+    public int getQueuedSamples() {
+        return queue.size();
+    }
+
+    private void sendLoop() {
+        long backoffMs = MIN_BACKOFF_MS;
+        long sequence = 0;
+        List<SystemSample> pending = new ArrayList<>(batchSize);
+
+        while (running) {
+            try (Socket connection = new Socket()) {
+                connection.connect(new InetSocketAddress(collectorHost, collectorPort), 5_000);
+                connection.setTcpNoDelay(true);
+                socket = connection;
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+                SampleCodec.writeHello(out, hostName);
+                System.out.println("Agent connected to collector " + collectorHost + ":" + collectorPort);
+                backoffMs = MIN_BACKOFF_MS;
+
+                while (running) {
+                    // A batch that was not acknowledged before a disconnect is resent as is
+                    if (pending.isEmpty()) {
+                        fillBatch(pending);
+                        if (pending.isEmpty()) {
+                            continue;
+                        }
+                        sequence++;
+                    }
+                    SampleCodec.writeBatch(out, sequence, pending);
+                    long acked = SampleCodec.readAck(in);
+                    if (acked != sequence) {
+                        throw new IOException("Collector acknowledged batch " + acked + ", expected " + sequence);
+                    }
+                    sentSamples.addAndGet(pending.size());
+                    pending.clear();
+                }
+            } catch (IOException e) {
+                if (!running) {
+                    break;
+                }
+                System.err.println("Agent connection to " + collectorHost + ":" + collectorPort + " failed: "
+                        + e.getMessage() + ", retrying in " + backoffMs + " ms");
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                socket = null;
+            }
+        }
+    }
+
+    /**
+     * Waits for at least one sample, then keeps collecting until the batch is full or the linger time is up.
+     */
+    private void fillBatch(List<SystemSample> batch) throws InterruptedException {
+        SystemSample first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            SystemSample next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        senderThread.interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Closing only unblocks the sender
+            }
+        }
+    }
+}
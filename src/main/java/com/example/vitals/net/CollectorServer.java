@@ -0,0 +1,109 @@
+package com.example.vitals.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Central collector accepting sample streams from many agents.
+ * Each agent connection is served by its own virtual thread, so thousands of mostly idle
+ * connections cost almost nothing; a batch is acknowledged only after the sink has stored it.
+ */
+public final class CollectorServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final RemoteSampleSink sink;
+    private final ExecutorService connectionExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("vitals-collector-", 0).factory());
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptThread;
+    private volatile boolean running = true;
+
+    /**
+     * Starts listening on the given port (0 picks a free port, see {@link #getPort()}).
+     */
+    public CollectorServer(int port, RemoteSampleSink sink) throws IOException {
+        this.sink = sink;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port));
+
+        acceptThread = new Thread(this::acceptLoop, "vitals-collector-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        System.out.println("Collector listening on port " + getPort());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectedAgents() {
+        return connections.size();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                connectionExecutor.execute(() -> handleAgent(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Collector accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleAgent(Socket socket) {
+        String host = socket.getRemoteSocketAddress().toString();
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            host = SampleCodec.readHello(in);
+            System.out.println("Agent connected: " + host);
+
+            while (running) {
+                SampleCodec.Batch batch = SampleCodec.readBatch(in);
+                sink.accept(host, batch.samples());
+                SampleCodec.writeAck(out, batch.sequence());
+            }
+        } catch (EOFException e) {
+            System.out.println("Agent disconnected: " + host);
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Agent connection " + host + " failed: " + e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Error ingesting samples from " + host + ": " + e.getMessage());
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Closing only unblocks the connection thread
+            }
+        }
+        connectionExecutor.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.vitals.net;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end check of the agent/collector path over loopback: starts a collector on a free port,
+ * connects several agents, streams synthetic samples through them and verifies that every sample
+ * arrived under the right host. Exits with status 1 on any loss or timeout.
+ *
+ * Usage: java -cp vitals.jar com.example.vitals.net.LoopbackCheck [agents] [samplesPerAgent]
+ */
+public class LoopbackCheck {
+
+    public static void main(String[] args) throws Exception {
+        int agentCount = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int samplesPerAgent = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Map<String, AtomicLong> received = new ConcurrentHashMap<>();
+        Map<String, Long> lastTimestamp = new ConcurrentHashMap<>();
+        AtomicLong outOfOrder = new AtomicLong();
+
+        try (CollectorServer collector = new CollectorServer(0, (host, samples) -> {
+            received.computeIfAbsent(host, h -> new AtomicLong()).addAndGet(samples.size());
+            for (SystemSample sample : samples) {
+                Long previous = lastTimestamp.put(host, sample.timestamp());
+                if (previous != null && previous >= sample.timestamp()) {
+                    outOfOrder.incrementAndGet();
+                }
+            }
+        })) {
+            long start = System.nanoTime();
+            List<AgentClient> agents = new ArrayList<>();
+            for (int a = 0; a < agentCount; a++) {
+                // Queue sized to hold everything so the check measures delivery, not drop-oldest
+                agents.add(new AgentClient("localhost", collector.getPort(), "agent-" + a, samplesPerAgent, 512, 20));
+            }
+
+            long baseTimestamp = System.currentTimeMillis();
+            for (int i = 0; i < samplesPerAgent; i++) {
+                for (int a = 0; a < agentCount; a++) {
+                    agents.get(a).offer(syntheticSample(baseTimestamp + i * 250L, a, i));
+                }
+            }
+
+            long expected = (long) agentCount * samplesPerAgent;
+            long deadline = System.nanoTime() + 60_000_000_000L;
+            while (total(received) < expected && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            agents.forEach(AgentClient::close);
+
+            long total = total(received);
+            System.out.printf("Received %d/%d samples from %d agents in %.2fs (%.0f samples/s), out of order: %d%n",
+                    total, expected, received.size(), seconds, total / seconds, outOfOrder.get());
+            boolean ok = total == expected && received.size() == agentCount && outOfOrder.get() == 0
+                    && received.values().stream().allMatch(count -> count.get() == samplesPerAgent);
+            System.out.println(ok ? "Loopback check passed" : "Loopback check FAILED");
+            if (!ok) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static long total(Map<String, AtomicLong> received) {
+        return received.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    private static SystemSample syntheticSample(long timestamp, int agent, int i) {
+        return new SystemSample(timestamp,
+                new CPUUsage((agent * 7 + i) % 100, 50, 3000, 200),
+                new MemoryUsage(16, 8 + (i % 4), 0, 8 - (i % 4)),
+                new DiskUsage(250, "C:", 500),
+                new NetworkActivity(i % 1000, (i * 3) % 1000));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.vitals.net;
+
+import com.example.vitals.models.SystemSample;
+
+import java.util.List;
+
+/**
+ * Receives the samples the collector ingests from agents. Called concurrently, one thread per agent.
+ */
+public interface RemoteSampleSink {
+
+    void accept(String host, List<SystemSample> samples);
+}
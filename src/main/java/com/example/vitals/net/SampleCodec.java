@@ -0,0 +1,172 @@
+package com.example.vitals.net;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary framing used between agents and the collector.
+ *
+ * Every frame is {@code int length, byte type, payload}, where length counts the type byte and payload.
+ * HELLO carries the protocol version and the agent's host name; BATCH carries a sequence number, a base
+ * timestamp and the samples with timestamps as int deltas and GB values as floats, each followed by its
+ * per-interface network rates (since version 2); the collector answers each BATCH with an ACK carrying
+ * its sequence number once the samples are stored.
+ */
+public final class SampleCodec {
+
+    public static final byte TYPE_HELLO = 1;
+    public static final byte TYPE_BATCH = 2;
+    public static final byte TYPE_ACK = 3;
+
+    public static final short PROTOCOL_VERSION = 2;
+
+    // Upper bound for a single frame, protects the collector from corrupt or hostile length prefixes
+    public static final int MAX_FRAME_BYTES = 1024 * 1024;
+
+    // Worst-case encoded size of one sample, excluding the drive name and the interfaces
+    private static final int SAMPLE_FIXED_BYTES = 4 + 4 * 4 + 4 * 4 + 2 * 4 + 2 + 2 * 4 + 2;
+    // Encoded size of one interface, excluding its name
+    private static final int INTERFACE_FIXED_BYTES = 2 + 5 * 4;
+
+    private SampleCodec() {
+    }
+
+    /**
+     * A decoded BATCH frame.
+     */
+    public record Batch(long sequence, List<SystemSample> samples) {
+    }
+
+    public static void writeHello(DataOutputStream out, String hostName) throws IOException {
+        byte[] name = hostName.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(1 + 2 + 2 + name.length);
+        out.writeByte(TYPE_HELLO);
+        out.writeShort(PROTOCOL_VERSION);
+        out.writeShort(name.length);
+        out.write(name);
+        out.flush();
+    }
+
+    /**
+     * Reads a HELLO frame and returns the agent's host name.
+     */
+    public static String readHello(DataInputStream in) throws IOException {
+        readHeader(in, TYPE_HELLO);
+        short version = in.readShort();
+        if (version != PROTOCOL_VERSION) {
+            throw new IOException("Unsupported protocol version " + version);
+        }
+        byte[] name = new byte[in.readUnsignedShort()];
+        in.readFully(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    public static void writeBatch(DataOutputStream out, long sequence, List<SystemSample> samples) throws IOException {
+        long baseTimestamp = samples.isEmpty() ? 0 : samples.getFirst().timestamp();
+        int length = 1 + 8 + 8 + 2;
+        for (SystemSample sample : samples) {
+            length += SAMPLE_FIXED_BYTES + sample.disk().driveName().length() * 3;
+            for (InterfaceActivity nic : sample.interfaces()) {
+                length += INTERFACE_FIXED_BYTES + nic.name().length() * 3;
+            }
+        }
+
+        // Encode into a scratch buffer first so the exact frame length can be written up front
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(length);
+        DataOutputStream body = new DataOutputStream(payload);
+        body.writeLong(sequence);
+        body.writeLong(baseTimestamp);
+        body.writeShort(samples.size());
+        for (SystemSample sample : samples) {
+            body.writeInt((int) (sample.timestamp() - baseTimestamp));
+            body.writeInt(sample.cpu().usagePercentage());
+            body.writeInt(sample.cpu().temperature());
+            body.writeInt(sample.cpu().clockSpeed());
+            body.writeInt(sample.cpu().processCount());
+            body.writeFloat((float) sample.memory().totalGB());
+            body.writeFloat((float) sample.memory().usedGB());
+            body.writeFloat((float) sample.memory().cacheGB());
+            body.writeFloat((float) sample.memory().availableGB());
+            body.writeFloat((float) sample.disk().usedGB());
+            body.writeFloat((float) sample.disk().totalGB());
+            body.writeUTF(sample.disk().driveName());
+            body.writeInt(sample.network().uploadSpeedKbps());
+            body.writeInt(sample.network().downloadSpeedKbps());
+            body.writeShort(sample.interfaces().size());
+            for (InterfaceActivity nic : sample.interfaces()) {
+                body.writeUTF(nic.name());
+                body.writeFloat((float) nic.rxBytesPerSec());
+                body.writeFloat((float) nic.txBytesPerSec());
+                body.writeFloat((float) nic.rxPacketsPerSec());
+                body.writeFloat((float) nic.txPacketsPerSec());
+                body.writeFloat((float) nic.errorsPerSec());
+            }
+        }
+        body.flush();
+
+        out.writeInt(1 + payload.size());
+        out.writeByte(TYPE_BATCH);
+        payload.writeTo(out);
+        out.flush();
+    }
+
+    public static Batch readBatch(DataInputStream in) throws IOException {
+        readHeader(in, TYPE_BATCH);
+        long sequence = in.readLong();
+        long baseTimestamp = in.readLong();
+        int count = in.readUnsignedShort();
+        List<SystemSample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long timestamp = baseTimestamp + in.readInt();
+            CPUUsage cpu = new CPUUsage(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            MemoryUsage memory = new MemoryUsage(in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            double diskUsed = in.readFloat();
+            double diskTotal = in.readFloat();
+            DiskUsage disk = new DiskUsage(diskUsed, in.readUTF(), diskTotal);
+            NetworkActivity network = new NetworkActivity(in.readInt(), in.readInt());
+            int nicCount = in.readUnsignedShort();
+            List<InterfaceActivity> interfaces = new ArrayList<>(nicCount);
+            for (int n = 0; n < nicCount; n++) {
+                interfaces.add(new InterfaceActivity(in.readUTF(), in.readFloat(), in.readFloat(),
+                        in.readFloat(), in.readFloat(), in.readFloat()));
+            }
+            samples.add(new SystemSample(timestamp, cpu, memory, disk, network, interfaces));
+        }
+        return new Batch(sequence, samples);
+    }
+
+    public static void writeAck(DataOutputStream out, long sequence) throws IOException {
+        out.writeInt(1 + 8);
+        out.writeByte(TYPE_ACK);
+        out.writeLong(sequence);
+        out.flush();
+    }
+
+    public static long readAck(DataInputStream in) throws IOException {
+        readHeader(in, TYPE_ACK);
+        return in.readLong();
+    }
+
+    private static void readHeader(DataInputStream in, byte expectedType) throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte type = in.readByte();
+        if (type != expectedType) {
+            throw new IOException("Unexpected frame type " + type + ", expected " + expectedType);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.vitals.shm;
+
+import com.example.vitals.utils.VitalsConfig;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Binary layout of the live snapshot file, little-endian, fixed offsets in bytes:
+ * <pre>
+ *   0  int    magic "VTLS"             64  long   sample time, epoch ms
+ *   4  int    layout version           72  int    CPU %, temperature °C, clock MHz, processes (4 x int)
+ *   8  long   sequence (seqlock)       88  double memory total, used, cache, available GB (4 x double)
+ *  16  long   writer pid, 0 once closed 120 double disk used, total GB (2 x double)
+ *  24  int    interface slots (16)     136 int    upload, download Kbps, anomaly flags, interface count
+ *  28  int    interface slot size (64) 152 byte[64] disk name, ASCII, zero padded
+ *                                      216 interface slots: byte[24] name, then rx, tx bytes/s,
+ *                                          rx, tx packets/s, errors/s (5 x double)
+ * </pre>
+ * The sequence is odd while the writer is updating the payload and even once it is consistent; a reader
+ * copies the payload and keeps the copy only if the sequence was even and unchanged around it.
+ */
+public final class SnapshotLayout {
+
+    public static final int MAGIC = 0x534C5456;
+    public static final int VERSION = 1;
+    public static final int FILE_SIZE = 4_096;
+
+    public static final int MAGIC_OFFSET = 0;
+    public static final int VERSION_OFFSET = 4;
+    public static final int SEQUENCE_OFFSET = 8;
+    public static final int WRITER_PID_OFFSET = 16;
+    public static final int INTERFACE_SLOTS_OFFSET = 24;
+    public static final int INTERFACE_SLOT_SIZE_OFFSET = 28;
+
+    public static final int TIMESTAMP_OFFSET = 64;
+    public static final int CPU_OFFSET = 72;
+    public static final int MEMORY_OFFSET = 88;
+    public static final int DISK_OFFSET = 120;
+    public static final int NETWORK_OFFSET = 136;
+    public static final int ANOMALY_FLAGS_OFFSET = 144;
+    public static final int INTERFACE_COUNT_OFFSET = 148;
+    public static final int DISK_NAME_OFFSET = 152;
+    public static final int DISK_NAME_BYTES = 64;
+    public static final int INTERFACES_OFFSET = 216;
+    public static final int INTERFACE_SLOTS = 16;
+    public static final int INTERFACE_SLOT_SIZE = 64;
+    public static final int INTERFACE_NAME_BYTES = 24;
+
+    // Ordered access to the sequence, which both sides map at a page-aligned, so 8-byte aligned, offset
+    static final VarHandle SEQUENCE = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private SnapshotLayout() {
+    }
+
+    /**
+     * The snapshot file from vitals.snapshot.path, by default in /dev/shm where it exists (memory only, never
+     * written back to disk), otherwise in the temporary directory.
+     */
+    public static Path defaultPath() {
+        String configured = VitalsConfig.getString("vitals.snapshot.path", null);
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        Path shm = Path.of("/dev/shm");
+        return Files.isDirectory(shm) && Files.isWritable(shm)
+                ? shm.resolve("vitals-live")
+                : Path.of(System.getProperty("java.io.tmpdir"), "vitals-live.shm");
+    }
+}
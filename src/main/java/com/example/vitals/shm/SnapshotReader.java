@@ -0,0 +1,173 @@
+package com.example.vitals.shm;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.vitals.shm.SnapshotLayout.*;
+
+/**
+ * Reads the live snapshot a running Vitals publishes, from any local JVM process. The file is mapped
+ * read-only, so a read is a copy out of shared memory: no system call, no socket and no probing.
+ * Reads never block the writer; one that overlaps an update is retried.
+ *
+ * <pre>
+ * try (SnapshotReader reader = SnapshotReader.open(SnapshotLayout.defaultPath())) {
+ *     SnapshotReader.Snapshot live = reader.read();
+ *     System.out.println(live.sample().cpu().usagePercentage() + "% CPU");
+ * }
+ * </pre>
+ *
+ * Usage: java -cp vitals.jar com.example.vitals.shm.SnapshotReader [path] prints the live values once a second.
+ */
+public final class SnapshotReader implements AutoCloseable {
+
+    // A writer holds the sequence odd only for a few hundred nanoseconds; this bounds a read that races a dead writer
+    private static final int MAX_ATTEMPTS = 1_000_000;
+
+    private final MappedByteBuffer buffer;
+
+    /**
+     * A consistent copy of the snapshot.
+     *
+     * @param sequence  increases with every published sample, so equal values mean nothing new
+     * @param writerPid process publishing the snapshot, 0 once it stopped
+     */
+    public record Snapshot(long sequence, long writerPid, SystemSample sample, int anomalyFlags) {
+    }
+
+    private SnapshotReader(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Maps the snapshot file; fails if it is not a Vitals snapshot of a supported layout.
+     */
+    public static SnapshotReader open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < FILE_SIZE) {
+                throw new IOException(path + " is not a Vitals snapshot");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, FILE_SIZE);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException(path + " is not a Vitals snapshot");
+        }
+        if (buffer.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("Unsupported snapshot layout version " + buffer.getInt(VERSION_OFFSET));
+        }
+        return new SnapshotReader(buffer);
+    }
+
+    /**
+     * The current sequence, a single shared-memory load; poll it to detect new samples cheaply.
+     */
+    public long sequence() {
+        return (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET) & ~1L;
+    }
+
+    /**
+     * Whether the process that publishes the snapshot is still running.
+     */
+    public boolean isWriterAlive() {
+        long pid = buffer.getLong(WRITER_PID_OFFSET);
+        return pid != 0 && ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    /**
+     * Copies the newest sample; null if nothing has been published yet.
+     *
+     * @throws IllegalStateException if the writer stayed mid-update for the whole retry budget
+     */
+    public Snapshot read() {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            long before = (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            Snapshot snapshot = copy(before);
+            VarHandle.loadLoadFence();
+            if ((long) SEQUENCE.getOpaque(buffer, SEQUENCE_OFFSET) == before) {
+                return snapshot.sample().timestamp() == 0 ? null : snapshot;
+            }
+        }
+        throw new IllegalStateException("Snapshot writer did not finish an update");
+    }
+
+    private Snapshot copy(long sequence) {
+        CPUUsage cpu = new CPUUsage(buffer.getInt(CPU_OFFSET), buffer.getInt(CPU_OFFSET + 4),
+                buffer.getInt(CPU_OFFSET + 8), buffer.getInt(CPU_OFFSET + 12));
+        MemoryUsage memory = new MemoryUsage(buffer.getDouble(MEMORY_OFFSET), buffer.getDouble(MEMORY_OFFSET + 8),
+                buffer.getDouble(MEMORY_OFFSET + 16), buffer.getDouble(MEMORY_OFFSET + 24));
+        DiskUsage disk = new DiskUsage(buffer.getDouble(DISK_OFFSET), getName(DISK_NAME_OFFSET, DISK_NAME_BYTES),
+                buffer.getDouble(DISK_OFFSET + 8));
+        NetworkActivity network = new NetworkActivity(buffer.getInt(NETWORK_OFFSET), buffer.getInt(NETWORK_OFFSET + 4));
+
+        // A torn count is discarded with the rest of the copy, but must not index past the slots meanwhile
+        int count = Math.clamp(buffer.getInt(INTERFACE_COUNT_OFFSET), 0, INTERFACE_SLOTS);
+        List<InterfaceActivity> interfaces = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = INTERFACES_OFFSET + i * INTERFACE_SLOT_SIZE;
+            interfaces.add(new InterfaceActivity(getName(slot, INTERFACE_NAME_BYTES),
+                    buffer.getDouble(slot + INTERFACE_NAME_BYTES), buffer.getDouble(slot + INTERFACE_NAME_BYTES + 8),
+                    buffer.getDouble(slot + INTERFACE_NAME_BYTES + 16), buffer.getDouble(slot + INTERFACE_NAME_BYTES + 24),
+                    buffer.getDouble(slot + INTERFACE_NAME_BYTES + 32)));
+        }
+        SystemSample sample = new SystemSample(buffer.getLong(TIMESTAMP_OFFSET), cpu, memory, disk, network, interfaces);
+        return new Snapshot(sequence, buffer.getLong(WRITER_PID_OFFSET), sample, buffer.getInt(ANOMALY_FLAGS_OFFSET));
+    }
+
+    private String getName(int offset, int length) {
+        byte[] name = new byte[length];
+        int size = 0;
+        while (size < length && (name[size] = buffer.get(offset + size)) != 0) {
+            size++;
+        }
+        return new String(name, 0, size, java.nio.charset.StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Releases the reader; the mapping itself is unmapped once it is garbage collected.
+     */
+    @Override
+    public void close() {
+        // Nothing to release explicitly before FFM
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path path = args.length > 0 ? Path.of(args[0]) : SnapshotLayout.defaultPath();
+        try (SnapshotReader reader = open(path)) {
+            long lastSequence = -1;
+            while (true) {
+                Snapshot live = reader.read();
+                if (live != null && live.sequence() != lastSequence) {
+                    lastSequence = live.sequence();
+                    SystemSample sample = live.sample();
+                    long ageMs = System.currentTimeMillis() - sample.timestamp();
+                    System.out.println("cpu " + sample.cpu().usagePercentage() + "%, memory "
+                            + Math.round(sample.memory().usedGB() * 10) / 10.0 + "/" + Math.round(sample.memory().totalGB() * 10) / 10.0
+                            + " GB, up " + sample.network().uploadSpeedKbps() + " Kbps, down " + sample.network().downloadSpeedKbps()
+                            + " Kbps, " + sample.interfaces().size() + " interfaces, age " + ageMs + " ms"
+                            + (reader.isWriterAlive() ? "" : " (writer stopped)"));
+                }
+                Thread.sleep(1_000);
+            }
+        }
+    }
+}
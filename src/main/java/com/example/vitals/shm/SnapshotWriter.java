@@ -0,0 +1,112 @@
+package com.example.vitals.shm;
+
+import com.example.vitals.bus.SampleEvent;
+import com.example.vitals.bus.SampleHandler;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.SystemSample;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.example.vitals.shm.SnapshotLayout.*;
+
+/**
+ * Bus sink publishing the newest sample into the memory-mapped snapshot file, for local processes to
+ * read through SnapshotReader without sockets or probes of their own. Each sample is written in place
+ * under the seqlock, so readers never block the writer and the writer never waits for readers.
+ */
+public class SnapshotWriter implements SampleHandler, AutoCloseable {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    public SnapshotWriter(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        // Readers that still map the file from a previous run keep working: the sequence only moves forward
+        long sequence = (long) SEQUENCE.getAcquire(buffer, SEQUENCE_OFFSET);
+        SEQUENCE.setRelease(buffer, SEQUENCE_OFFSET, (sequence + 1) & ~1L);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putLong(WRITER_PID_OFFSET, ProcessHandle.current().pid());
+        buffer.putInt(INTERFACE_SLOTS_OFFSET, INTERFACE_SLOTS);
+        buffer.putInt(INTERFACE_SLOT_SIZE_OFFSET, INTERFACE_SLOT_SIZE);
+        VarHandle.storeStoreFence();
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void onSample(SampleEvent event, long sequence, boolean endOfBatch) {
+        SystemSample sample = event.getSample();
+        long version = (long) SEQUENCE.getOpaque(buffer, SEQUENCE_OFFSET);
+        SEQUENCE.setOpaque(buffer, SEQUENCE_OFFSET, version + 1);
+        VarHandle.storeStoreFence();
+
+        buffer.putLong(TIMESTAMP_OFFSET, sample.timestamp());
+        buffer.putInt(CPU_OFFSET, sample.cpu().usagePercentage());
+        buffer.putInt(CPU_OFFSET + 4, sample.cpu().temperature());
+        buffer.putInt(CPU_OFFSET + 8, sample.cpu().clockSpeed());
+        buffer.putInt(CPU_OFFSET + 12, sample.cpu().processCount());
+        buffer.putDouble(MEMORY_OFFSET, sample.memory().totalGB());
+        buffer.putDouble(MEMORY_OFFSET + 8, sample.memory().usedGB());
+        buffer.putDouble(MEMORY_OFFSET + 16, sample.memory().cacheGB());
+        buffer.putDouble(MEMORY_OFFSET + 24, sample.memory().availableGB());
+        buffer.putDouble(DISK_OFFSET, sample.disk().usedGB());
+        buffer.putDouble(DISK_OFFSET + 8, sample.disk().totalGB());
+        buffer.putInt(NETWORK_OFFSET, sample.network().uploadSpeedKbps());
+        buffer.putInt(NETWORK_OFFSET + 4, sample.network().downloadSpeedKbps());
+        buffer.putInt(ANOMALY_FLAGS_OFFSET, event.getAnomalyFlags());
+        putName(DISK_NAME_OFFSET, DISK_NAME_BYTES, sample.disk().driveName());
+
+        List<InterfaceActivity> interfaces = sample.interfaces();
+        int count = Math.min(interfaces.size(), INTERFACE_SLOTS);
+        buffer.putInt(INTERFACE_COUNT_OFFSET, count);
+        for (int i = 0; i < count; i++) {
+            InterfaceActivity nic = interfaces.get(i);
+            int slot = INTERFACES_OFFSET + i * INTERFACE_SLOT_SIZE;
+            putName(slot, INTERFACE_NAME_BYTES, nic.name());
+            buffer.putDouble(slot + INTERFACE_NAME_BYTES, nic.rxBytesPerSec());
+            buffer.putDouble(slot + INTERFACE_NAME_BYTES + 8, nic.txBytesPerSec());
+            buffer.putDouble(slot + INTERFACE_NAME_BYTES + 16, nic.rxPacketsPerSec());
+            buffer.putDouble(slot + INTERFACE_NAME_BYTES + 24, nic.txPacketsPerSec());
+            buffer.putDouble(slot + INTERFACE_NAME_BYTES + 32, nic.errorsPerSec());
+        }
+
+        SEQUENCE.setRelease(buffer, SEQUENCE_OFFSET, version + 2);
+    }
+
+    // ASCII, zero padded and truncated to the field; other characters become '?'
+    private void putName(int offset, int length, String name) {
+        int chars = Math.min(name.length(), length);
+        for (int i = 0; i < chars; i++) {
+            char c = name.charAt(i);
+            buffer.put(offset + i, c < 0x80 ? (byte) c : (byte) '?');
+        }
+        for (int i = chars; i < length; i++) {
+            buffer.put(offset + i, (byte) 0);
+        }
+    }
+
+    /**
+     * Marks the snapshot as no longer updated; the file stays so readers can still see the last sample.
+     */
+    @Override
+    public void close() {
+        buffer.putLong(WRITER_PID_OFFSET, 0);
+        buffer.force();
+    }
+}
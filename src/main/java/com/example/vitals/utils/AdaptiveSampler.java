@@ -0,0 +1,132 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.models.Metric;
+import com.example.vitals.models.SystemSample;
+
+import java.util.Arrays;
+
+/**
+ * Chooses the collector's sleep interval from recent activity.
+ * While every metric is flat the collector samples at the slow interval. A metric changing faster
+ * than its activity rate, moving by more than its activity step since the previous sample, or crossing
+ * its level threshold in either direction, switches to the fast interval. The step catches a spike on
+ * the first slow tick, where the rate over the whole slow interval would dilute it. After the hold period without activity the interval doubles each tick back to the slow one.
+ */
+public class AdaptiveSampler {
+
+    private final long slowIntervalMs;
+    private final long fastIntervalMs;
+    private final long holdMs;
+    private final boolean enabled;
+
+    // Rate of change per second above which a metric counts as active, indexed by Metric.ordinal()
+    private final double[] activityRates = new double[Metric.values().length];
+    // Change since the previous sample that counts as activity however long ago it was, indexed by Metric.ordinal()
+    private final double[] activitySteps = new double[Metric.values().length];
+    // Level thresholds whose crossing counts as activity (NaN = none), indexed by Metric.ordinal()
+    private final double[] levelThresholds = new double[Metric.values().length];
+
+    private final double[] prevValues = new double[Metric.values().length];
+    private long prevTimestamp = -1;
+    private long lastActivityTimestamp;
+    private long currentIntervalMs;
+
+    public AdaptiveSampler() {
+        this(VitalsConfig.getBoolean("vitals.sampling.adaptive", true),
+                VitalsConfig.getLong("vitals.sampling.slowMs", 10_000),
+                VitalsConfig.getLong("vitals.sampling.fastMs", 250),
+                VitalsConfig.getLong("vitals.sampling.holdMs", 5_000));
+    }
+
+    public AdaptiveSampler(boolean enabled, long slowIntervalMs, long fastIntervalMs, long holdMs) {
+        this.enabled = enabled;
+        this.slowIntervalMs = Math.max(fastIntervalMs, slowIntervalMs);
+        this.fastIntervalMs = Math.max(50, fastIntervalMs);
+        this.holdMs = holdMs;
+        this.currentIntervalMs = enabled ? this.slowIntervalMs : VitalsConfig.getLong("vitals.sampling.fixedMs", 2_000);
+
+        Arrays.fill(levelThresholds, Double.NaN);
+        activityRates[Metric.CPU_USAGE.ordinal()] = 15.0;          // percentage points per second
+        activityRates[Metric.MEMORY_USED.ordinal()] = 0.2;         // GB per second
+        activityRates[Metric.MEMORY_AVAILABLE.ordinal()] = 0.2;    // GB per second
+        activityRates[Metric.DISK_USED.ordinal()] = 0.5;           // GB per second
+        activityRates[Metric.NETWORK_UPLOAD.ordinal()] = 2_000;    // Kbps per second
+        activityRates[Metric.NETWORK_DOWNLOAD.ordinal()] = 2_000;  // Kbps per second
+        activitySteps[Metric.CPU_USAGE.ordinal()] = VitalsConfig.getDouble("vitals.sampling.cpuStep", 10.0);
+        activitySteps[Metric.MEMORY_USED.ordinal()] = 0.5;
+        activitySteps[Metric.MEMORY_AVAILABLE.ordinal()] = 0.5;
+        activitySteps[Metric.DISK_USED.ordinal()] = 1.0;
+        activitySteps[Metric.NETWORK_UPLOAD.ordinal()] = 5_000;
+        activitySteps[Metric.NETWORK_DOWNLOAD.ordinal()] = 5_000;
+        levelThresholds[Metric.CPU_USAGE.ordinal()] = VitalsConfig.getDouble("vitals.sampling.cpuThreshold", 80.0);
+    }
+
+    /**
+     * Sets the rate of change per second at which the given metric counts as active.
+     */
+    public void setActivityRate(Metric metric, double ratePerSecond) {
+        activityRates[metric.ordinal()] = ratePerSecond;
+    }
+
+    /**
+     * Sets the change between two samples at which the given metric counts as active, whatever their interval.
+     */
+    public void setActivityStep(Metric metric, double step) {
+        activitySteps[metric.ordinal()] = step;
+    }
+
+    /**
+     * Sets a level whose crossing in either direction counts as activity, or NaN to disable it.
+     */
+    public void setLevelThreshold(Metric metric, double level) {
+        levelThresholds[metric.ordinal()] = level;
+    }
+
+    /**
+     * Feeds the latest sample and returns how long the collector should wait before the next one.
+     */
+    public long nextInterval(SystemSample sample) {
+        if (!enabled) {
+            return currentIntervalMs;
+        }
+
+        long now = sample.timestamp();
+        boolean active = false;
+        Metric[] metrics = Metric.values();
+        for (int i = 0; i < metrics.length; i++) {
+            double value = metrics[i].valueOf(sample);
+            if (prevTimestamp >= 0) {
+                double elapsedSeconds = Math.max(1, now - prevTimestamp) / 1000.0;
+                double delta = Math.abs(value - prevValues[i]);
+                double level = levelThresholds[i];
+                boolean crossed = !Double.isNaN(level) && (prevValues[i] < level) != (value < level);
+                if (delta / elapsedSeconds >= activityRates[i] || delta >= activitySteps[i] || crossed) {
+                    active = true;
+                }
+            }
+            prevValues[i] = value;
+        }
+        prevTimestamp = now;
+
+        if (active) {
+            lastActivityTimestamp = now;
+            currentIntervalMs = fastIntervalMs;
+        } else if (now - lastActivityTimestamp >= holdMs) {
+            // Decay back towards the slow interval once things have been quiet for the hold period
+            currentIntervalMs = Math.min(slowIntervalMs, currentIntervalMs * 2);
+        }
+        return currentIntervalMs;
+    }
+
+    public long getCurrentIntervalMs() {
+        return currentIntervalMs;
+    }
+
+    public long getSlowIntervalMs() {
+        return slowIntervalMs;
+    }
+
+    public long getFastIntervalMs() {
+        return fastIntervalMs;
+    }
+}
@@ -1,49 +1,165 @@
 package com.example.vitals.utils;
 
-import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.dao.Deadband;
+import com.example.vitals.dao.InterfaceColumns;
+import com.example.vitals.dao.MetricColumns;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
-import java.util.*;
+import java.util.function.IntToLongFunction;
 
 /**
- * Helper class for aggregating historical metric records into time buckets.
+ * Helper class for aggregating stored rows into time buckets.
+ * The collector samples adaptively and the deadband skips unchanged samples, so rows are not evenly
+ * spaced. Every row stands for the time from its timestamp until the next row, at most
+ * Deadband.MAX_ROW_SPAN_MS, and that span is split over the buckets it covers: a bucket's mean is the
+ * time-weighted mean of the values held during it, including buckets the deadband left without rows.
+ * With linear interpolation the value moves linearly from a row to the next within the same span.
+ * Buckets are aligned to multiples of their length since the epoch and stamped with their start.
  */
 public class AggregationHelper {
 
-    public static List<HistoricalDataDAO.MetricRecord> aggregateRecords(List<HistoricalDataDAO.MetricRecord> records, long bucketMinutes) {
-        // Use a TreeMap to keep the buckets sorted by time
-        Map<LocalDateTime, List<HistoricalDataDAO.MetricRecord>> buckets = new TreeMap<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    /**
+     * Receives the pieces of the rows' spans, in time order, one per row and bucket.
+     */
+    @FunctionalInterface
+    public interface SpanConsumer {
+        /**
+         * @param row      index of the row the piece belongs to
+         * @param weightMs length of the piece
+         * @param fraction where the piece's mean value lies between the row (0) and the next row (1)
+         * @param own      whether the piece starts at the row's own timestamp, i.e. the bucket holds the row
+         */
+        void accept(long bucketStartMs, int row, double weightMs, double fraction, boolean own);
+    }
+
+    private AggregationHelper() {
+    }
+
+    /**
+     * Splits the spans of the rows over the buckets of [fromEpochMs, toEpochMs). Rows are in time order;
+     * rows before the range carry their value into it, rows after it end the last span.
+     */
+    public static void forEachSpan(int size, IntToLongFunction epochMs, long fromEpochMs, long toEpochMs, long bucketMs,
+                                   Deadband.Interpolation interpolation, SpanConsumer consumer) {
+        for (int row = 0; row < size; row++) {
+            long start = epochMs.applyAsLong(row);
+            if (start >= toEpochMs) {
+                break;
+            }
+            long next = row + 1 < size ? epochMs.applyAsLong(row + 1) : Long.MAX_VALUE;
+            // A longer gap is an outage: the row holds for the longest span and the rest stays empty
+            boolean joined = next - start <= Deadband.MAX_ROW_SPAN_MS;
+            long spanEnd = Math.max(start + 1, joined ? next : start + Deadband.MAX_ROW_SPAN_MS);
+            boolean linear = joined && interpolation == Deadband.Interpolation.LINEAR && next > start;
+
+            long from = Math.max(start, fromEpochMs);
+            long to = Math.min(spanEnd, toEpochMs);
+            while (from < to) {
+                long bucketStart = Math.floorDiv(from, bucketMs) * bucketMs;
+                long pieceEnd = Math.min(to, bucketStart + bucketMs);
+                double fraction = linear ? ((from + pieceEnd) / 2.0 - start) / (next - start) : 0;
+                consumer.accept(bucketStart, row, pieceEnd - from, fraction, from == start);
+                from = pieceEnd;
+            }
+        }
+    }
+
+    /**
+     * Time-weighted means per bucket of [fromEpochMs, toEpochMs), computed straight from the epoch and value
+     * arrays without parsing or per-row objects. Each bucket carries the OR of the flags of the rows in it.
+     */
+    public static MetricColumns aggregate(MetricColumns rows, long fromEpochMs, long toEpochMs, long bucketMs,
+                                          Deadband.Interpolation interpolation) {
+        MetricBuckets buckets = new MetricBuckets(rows, (int) Math.min(100_000, Math.max(0, toEpochMs - fromEpochMs) / bucketMs + 1));
+        forEachSpan(rows.size(), rows::epochMs, fromEpochMs, toEpochMs, bucketMs, interpolation, buckets);
+        buckets.flush();
+        return buckets.aggregated;
+    }
+
+    /**
+     * The same for one interface's rows: time-weighted mean rates and, per bucket, the peak of the rate
+     * in the busier direction held at any time in it.
+     */
+    public static InterfaceColumns aggregate(InterfaceColumns rows, long fromEpochMs, long toEpochMs, long bucketMs,
+                                             Deadband.Interpolation interpolation) {
+        InterfaceBuckets buckets = new InterfaceBuckets(rows);
+        forEachSpan(rows.size(), rows::epochMs, fromEpochMs, toEpochMs, bucketMs, interpolation, buckets);
+        buckets.flush();
+        return buckets.aggregated;
+    }
+
+    private static final class MetricBuckets implements SpanConsumer {
+        private final MetricColumns rows;
+        private final MetricColumns aggregated;
+        private long bucketStart = Long.MIN_VALUE;
+        private double weightMs, cpu, memoryUsed, memoryTotal, memoryAvailable;
+        private int flags;
 
-        // Group the records into time buckets
-        for (HistoricalDataDAO.MetricRecord record : records) {
-            // Parse the timestamp (assumed to be in ISO_LOCAL_DATE_TIME format)
-            LocalDateTime dateTime = LocalDateTime.parse(record.timestamp(), formatter);
-            // Determine the bucket starting time by rounding down the minutes
-            int minuteBucket = (dateTime.getMinute() / (int) bucketMinutes) * (int) bucketMinutes;
-            LocalDateTime bucketStart = dateTime.truncatedTo(ChronoUnit.HOURS).plusMinutes(minuteBucket);
+        private MetricBuckets(MetricColumns rows, int capacity) {
+            this.rows = rows;
+            this.aggregated = new MetricColumns(capacity);
+        }
+
+        @Override
+        public void accept(long pieceBucketStart, int row, double pieceMs, double fraction, boolean own) {
+            if (pieceBucketStart != bucketStart) {
+                flush();
+                bucketStart = pieceBucketStart;
+            }
+            int next = Math.min(row + 1, rows.size() - 1);
+            weightMs += pieceMs;
+            cpu += lerp(rows.cpuUsage(row), rows.cpuUsage(next), fraction) * pieceMs;
+            memoryUsed += lerp(rows.memoryUsed(row), rows.memoryUsed(next), fraction) * pieceMs;
+            memoryTotal += lerp(rows.memoryTotal(row), rows.memoryTotal(next), fraction) * pieceMs;
+            memoryAvailable += lerp(rows.memoryAvailable(row), rows.memoryAvailable(next), fraction) * pieceMs;
+            if (own) {
+                flags |= rows.anomalyFlags(row);
+            }
+        }
 
-            buckets.computeIfAbsent(bucketStart, k -> new ArrayList<>()).add(record);
+        private void flush() {
+            if (weightMs > 0) {
+                aggregated.add(bucketStart, cpu / weightMs, memoryUsed / weightMs, memoryTotal / weightMs,
+                        memoryAvailable / weightMs, flags);
+            }
+            weightMs = cpu = memoryUsed = memoryTotal = memoryAvailable = 0;
+            flags = 0;
         }
+    }
 
-        // Prepare the aggregated records list
-        List<HistoricalDataDAO.MetricRecord> aggregatedRecords = new ArrayList<>();
-        for (Map.Entry<LocalDateTime, List<HistoricalDataDAO.MetricRecord>> entry : buckets.entrySet()) {
-            List<HistoricalDataDAO.MetricRecord> group = entry.getValue();
+    private static final class InterfaceBuckets implements SpanConsumer {
+        private final InterfaceColumns rows;
+        private final InterfaceColumns aggregated;
+        private long bucketStart = Long.MIN_VALUE;
+        private double weightMs, rx, tx, errors, peak;
 
-            // Compute averages for each metric
-            double avgCpu = group.stream().mapToDouble(r -> r.cpuUsage()).average().orElse(0.0);
-            double avgMemUsed = group.stream().mapToDouble(r -> r.memoryUsed()).average().orElse(0.0);
-            double avgMemTotal = group.stream().mapToDouble(r -> r.memoryTotal()).average().orElse(0.0);
-            double avgMemAvailable = group.stream().mapToDouble(r -> r.memoryAvailable()).average().orElse(0.0);
+        private InterfaceBuckets(InterfaceColumns rows) {
+            this.rows = rows;
+            this.aggregated = new InterfaceColumns(rows.name(), 0);
+        }
 
-            // Format the bucket's start time as a string (you can adjust the pattern if needed)
-            String aggregatedTimestamp = entry.getKey().format(formatter);
-            aggregatedRecords.add(new HistoricalDataDAO.MetricRecord(aggregatedTimestamp, avgCpu, avgMemUsed, avgMemTotal, avgMemAvailable));
+        @Override
+        public void accept(long pieceBucketStart, int row, double pieceMs, double fraction, boolean own) {
+            if (pieceBucketStart != bucketStart) {
+                flush();
+                bucketStart = pieceBucketStart;
+            }
+            int next = Math.min(row + 1, rows.size() - 1);
+            weightMs += pieceMs;
+            rx += lerp(rows.rxBytesPerSec(row), rows.rxBytesPerSec(next), fraction) * pieceMs;
+            tx += lerp(rows.txBytesPerSec(row), rows.txBytesPerSec(next), fraction) * pieceMs;
+            errors += lerp(rows.errorsPerSec(row), rows.errorsPerSec(next), fraction) * pieceMs;
+            peak = Math.max(peak, lerp(rows.peakBytesPerSec(row), rows.peakBytesPerSec(next), fraction));
         }
 
-        return aggregatedRecords;
+        private void flush() {
+            if (weightMs > 0) {
+                aggregated.add(bucketStart, rx / weightMs, tx / weightMs, peak, errors / weightMs);
+            }
+            weightMs = rx = tx = errors = peak = 0;
+        }
+    }
+
+    public static double lerp(double from, double to, double fraction) {
+        return from + (to - from) * fraction;
     }
 }
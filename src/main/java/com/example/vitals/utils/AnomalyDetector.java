@@ -0,0 +1,159 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.models.Metric;
+import com.example.vitals.models.SystemSample;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming anomaly detector for the live metrics.
+ * Each metric keeps an exponentially weighted mean and variance, updated in O(1) with constant memory;
+ * a sample is anomalous when its z-score against that baseline exceeds the configured limit.
+ * Optionally a seasonal (hour-of-day) baseline built from stored history must agree, so daily load
+ * patterns are not flagged. The seasonal baseline is rebuilt on its own thread, never on the collector's.
+ */
+public class AnomalyDetector {
+
+    private static final Metric[] METRICS = Metric.values();
+    // Metrics with a seasonal baseline in the database, with their index into SeasonalBaseline
+    private static final int SEASONAL_CPU = 0;
+    private static final int SEASONAL_MEMORY = 1;
+
+    private final double zThreshold;
+    private final long timeConstantMs;
+    private final long warmupSamples;
+
+    private final double[] means = new double[METRICS.length];
+    private final double[] variances = new double[METRICS.length];
+    private long samples;
+    private long prevTimestamp;
+
+    // Replaced wholesale by the refresh thread, read lock-free by the collector
+    private volatile SeasonalBaseline seasonalBaseline;
+    private ScheduledExecutorService seasonalRefresher;
+
+    public AnomalyDetector() {
+        this(VitalsConfig.getDouble("vitals.anomaly.zThreshold", 4.0),
+                VitalsConfig.getLong("vitals.anomaly.timeConstantMs", 10 * 60_000),
+                VitalsConfig.getLong("vitals.anomaly.warmupSamples", 30));
+    }
+
+    /**
+     * @param zThreshold     z-score above which a value is anomalous
+     * @param timeConstantMs time over which old samples fade out of the moving baseline
+     * @param warmupSamples  number of samples to learn from before anything is flagged
+     */
+    public AnomalyDetector(double zThreshold, long timeConstantMs, long warmupSamples) {
+        this.zThreshold = zThreshold;
+        this.timeConstantMs = timeConstantMs;
+        this.warmupSamples = warmupSamples;
+    }
+
+    /**
+     * Starts refreshing the hour-of-day baseline from stored history in the background, once now and then hourly.
+     */
+    public void enableSeasonalBaseline(HistoricalDataDAO dao, int days) {
+        seasonalRefresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vitals-anomaly-baseline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        seasonalRefresher.scheduleWithFixedDelay(() -> seasonalBaseline = SeasonalBaseline.from(dao.getHourlyStats(days)),
+                0, 1, TimeUnit.HOURS);
+    }
+
+    /**
+     * Updates every metric's baseline with the sample and returns its anomaly flags, one bit per Metric ordinal.
+     */
+    public int evaluate(SystemSample sample) {
+        // Samples arrive at adaptive intervals, so the smoothing factor follows the elapsed time
+        long elapsed = samples == 0 ? 0 : Math.max(1, sample.timestamp() - prevTimestamp);
+        double alpha = samples == 0 ? 1.0 : 1.0 - Math.exp(-(double) elapsed / timeConstantMs);
+        prevTimestamp = sample.timestamp();
+        samples++;
+
+        SeasonalBaseline seasonal = seasonalBaseline;
+        int hour = seasonal != null ? LocalTime.ofInstant(Instant.ofEpochMilli(sample.timestamp()), ZoneId.systemDefault()).getHour() : 0;
+        int flags = 0;
+        for (int i = 0; i < METRICS.length; i++) {
+            double value = METRICS[i].valueOf(sample);
+            double diff = value - means[i];
+
+            if (samples > warmupSamples && isDeviation(diff, variances[i])) {
+                int seasonalIndex = seasonalIndex(METRICS[i]);
+                if (seasonal == null || seasonalIndex < 0 || seasonal.isAnomalous(seasonalIndex, hour, value, zThreshold)) {
+                    flags |= flag(METRICS[i]);
+                }
+            }
+
+            // West's incremental EWMA mean and variance update
+            double increment = alpha * diff;
+            means[i] += increment;
+            variances[i] = (1 - alpha) * (variances[i] + diff * increment);
+        }
+        return flags;
+    }
+
+    private boolean isDeviation(double diff, double variance) {
+        // A small floor keeps perfectly flat series from flagging every tiny change
+        double stdDev = Math.sqrt(variance) + 1e-3;
+        return Math.abs(diff) / stdDev > zThreshold;
+    }
+
+    private static int seasonalIndex(Metric metric) {
+        return switch (metric) {
+            case CPU_USAGE -> SEASONAL_CPU;
+            case MEMORY_USED -> SEASONAL_MEMORY;
+            default -> -1;
+        };
+    }
+
+    public static int flag(Metric metric) {
+        return 1 << metric.ordinal();
+    }
+
+    public static boolean isFlagged(int flags, Metric metric) {
+        return (flags & flag(metric)) != 0;
+    }
+
+    /**
+     * Mean and standard deviation per hour of day for the metrics stored in the database.
+     * Hours with too few samples have no baseline and defer to the moving baseline alone.
+     */
+    private record SeasonalBaseline(double[][] means, double[][] stdDevs, boolean[] known) {
+
+        private static final long MIN_SAMPLES_PER_HOUR = 100;
+
+        static SeasonalBaseline from(List<HistoricalDataDAO.HourlyStats> stats) {
+            double[][] means = new double[2][24];
+            double[][] stdDevs = new double[2][24];
+            boolean[] known = new boolean[24];
+            for (HistoricalDataDAO.HourlyStats hourly : stats) {
+                if (hourly.hour() < 0 || hourly.hour() > 23 || hourly.samples() < MIN_SAMPLES_PER_HOUR) {
+                    continue;
+                }
+                means[SEASONAL_CPU][hourly.hour()] = hourly.cpuMean();
+                stdDevs[SEASONAL_CPU][hourly.hour()] = Math.sqrt(hourly.cpuVariance());
+                means[SEASONAL_MEMORY][hourly.hour()] = hourly.memoryMean();
+                stdDevs[SEASONAL_MEMORY][hourly.hour()] = Math.sqrt(hourly.memoryVariance());
+                known[hourly.hour()] = true;
+            }
+            return new SeasonalBaseline(means, stdDevs, known);
+        }
+
+        boolean isAnomalous(int index, int hour, double value, double zThreshold) {
+            if (!known[hour]) {
+                return true;
+            }
+            double stdDev = stdDevs[index][hour] + 1e-3;
+            return Math.abs(value - means[index][hour]) / stdDev > zThreshold;
+        }
+    }
+}
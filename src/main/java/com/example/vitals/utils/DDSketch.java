@@ -0,0 +1,246 @@
+package com.example.vitals.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with relative-error guarantees (DDSketch).
+ * Values are counted in logarithmically sized buckets, so any quantile is returned within the relative
+ * accuracy of the true value, whatever the distribution. Two sketches merge by adding bucket counts,
+ * which makes percentiles over any range a merge of the per-bucket sketches stored with the rollups.
+ * Metrics are non-negative; values too small to index (an idle CPU) are kept in a separate zero bucket.
+ */
+public class DDSketch {
+
+    /**
+     * Relative accuracy of every stored sketch; sketches only merge with equal accuracy.
+     */
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    private static final double MIN_INDEXABLE_VALUE = 1e-6;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+
+    // Dense counts for bucket indexes [offset, offset + counts.length), grown on demand
+    private long[] counts = new long[0];
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public DDSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public DDSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1: " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long weight) {
+        if (weight <= 0 || Double.isNaN(value)) {
+            return;
+        }
+        if (value < MIN_INDEXABLE_VALUE) {
+            zeroCount += weight;
+        } else {
+            int index = (int) Math.ceil(Math.log(value) / logGamma);
+            ensureCapacity(index, index);
+            counts[index - offset] += weight;
+        }
+        count += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value counted by the other sketch to this one.
+     */
+    public void merge(DDSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge sketches with relative accuracy "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * The value at the given quantile (0.0 - 1.0), or NaN if the sketch is empty.
+     */
+    public double getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (quantile <= 0) {
+            return min;
+        }
+        if (quantile >= 1) {
+            return max;
+        }
+
+        double rank = quantile * (count - 1);
+        long seen = zeroCount;
+        if (seen > rank) {
+            return Math.max(0, min);
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                // Bucket i covers (gamma^(index-1), gamma^index]; its midpoint is within the relative accuracy
+                double value = 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+                return Math.max(min, Math.min(max, value));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Compact binary form for storage: non-empty buckets only, with varint-encoded index deltas and counts.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + counts.length * 3);
+        ByteBuffer header = ByteBuffer.allocate(1 + 3 * Double.BYTES);
+        header.put(FORMAT_VERSION).putDouble(relativeAccuracy).putDouble(min).putDouble(max);
+        out.writeBytes(header.array());
+        writeVarLong(out, zeroCount);
+
+        int nonEmpty = 0;
+        for (long c : counts) {
+            if (c != 0) {
+                nonEmpty++;
+            }
+        }
+        writeVarLong(out, nonEmpty);
+        int previousIndex = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                int index = offset + i;
+                // Zigzag so the (possibly negative) first index stays short
+                int delta = index - previousIndex;
+                writeVarLong(out, (delta << 1) ^ (delta >> 31));
+                writeVarLong(out, counts[i]);
+                previousIndex = index;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static DDSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format version " + version);
+        }
+        DDSketch sketch = new DDSketch(buffer.getDouble());
+        double min = buffer.getDouble();
+        double max = buffer.getDouble();
+        sketch.zeroCount = readVarLong(buffer);
+        sketch.count = sketch.zeroCount;
+
+        long nonEmpty = readVarLong(buffer);
+        int index = 0;
+        for (long i = 0; i < nonEmpty; i++) {
+            int zigzag = (int) readVarLong(buffer);
+            index += (zigzag >>> 1) ^ -(zigzag & 1);
+            long bucketCount = readVarLong(buffer);
+            sketch.ensureCapacity(index, index);
+            sketch.counts[index - sketch.offset] += bucketCount;
+            sketch.count += bucketCount;
+        }
+        sketch.min = min;
+        sketch.max = max;
+        return sketch;
+    }
+
+    private void ensureCapacity(int lowIndex, int highIndex) {
+        if (counts.length == 0) {
+            offset = lowIndex;
+            counts = new long[Math.max(8, highIndex - lowIndex + 1)];
+            return;
+        }
+        int newLow = Math.min(lowIndex, offset);
+        int newHigh = Math.max(highIndex, offset + counts.length - 1);
+        if (newLow == offset && newHigh < offset + counts.length) {
+            return;
+        }
+        // Grow with some slack so a drifting value does not reallocate on every new bucket
+        int slack = Math.max(8, (newHigh - newLow + 1) / 4);
+        if (newLow < offset) {
+            newLow -= slack;
+        }
+        if (newHigh >= offset + counts.length) {
+            newHigh += slack;
+        }
+        long[] grown = new long[newHigh - newLow + 1];
+        System.arraycopy(counts, 0, grown, offset - newLow, counts.length);
+        counts = grown;
+        offset = newLow;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "DDSketch[count=" + count + ", p50=" + getValueAtQuantile(0.5) + ", p99=" + getValueAtQuantile(0.99)
+                + ", buckets=" + Arrays.stream(counts).filter(c -> c != 0).count() + "]";
+    }
+}
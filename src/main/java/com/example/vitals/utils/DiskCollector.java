@@ -0,0 +1,247 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.models.DiskUsage;
+import oshi.software.os.FileSystem;
+import oshi.software.os.OSFileStore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Space usage of every real filesystem, on any platform.
+ * The list of file stores is cached. On Linux it is rebuilt only when /proc/self/mountinfo changes,
+ * which costs one small read per check; elsewhere OSHI enumerates the stores at a long interval.
+ * Pseudo filesystems (proc, tmpfs, cgroup, ...), container overlays, snap images and network mounts
+ * are left out, and bind mounts of one device are reported once. Space is sampled per mount at its
+ * own cadence, so a collector tick only returns the cached values.
+ */
+public class DiskCollector {
+
+    private static final Path MOUNTINFO = Path.of("/proc/self/mountinfo");
+
+    // Kernel, virtual and image filesystems that hold no user data
+    private static final Set<String> PSEUDO_TYPES = Set.of(
+            "proc", "sysfs", "devtmpfs", "devpts", "tmpfs", "ramfs", "rootfs", "cgroup", "cgroup2", "cpuset",
+            "securityfs", "pstore", "efivarfs", "bpf", "debugfs", "tracefs", "configfs", "fusectl", "mqueue",
+            "hugetlbfs", "binfmt_misc", "autofs", "rpc_pipefs", "nsfs", "selinuxfs", "nfsd", "overlay", "aufs",
+            "squashfs", "iso9660", "udf", "devfs", "fdescfs", "procfs", "shm", "none");
+    // Remote filesystems; a hung server would block the space query
+    private static final Set<String> REMOTE_TYPES = Set.of(
+            "nfs", "nfs4", "cifs", "smb3", "smbfs", "afs", "ceph", "glusterfs", "davfs", "sshfs");
+    // Pseudo mount points not already caught by their type; /run/media/<user> holds real removable drives
+    private static final String[] PSEUDO_MOUNT_PREFIXES = {"/proc/", "/sys/", "/dev/", "/run/user/", "/run/credentials/"};
+
+    private final FileSystem oshiFileSystem;
+    private final long sampleIntervalMs;
+    private final long storeRefreshMs;
+    private final boolean useMountinfo;
+
+    private byte[] lastMountinfo;
+    private long lastStoreRefresh = Long.MIN_VALUE;
+    private List<Mount> mounts = List.of();
+    private List<DiskUsage> disks = List.of();
+    private long lastSample = Long.MIN_VALUE;
+
+    /**
+     * A tracked filesystem: the NIO store on Linux, the OSHI store elsewhere.
+     */
+    private record Mount(String name, FileStore nioStore, OSFileStore oshiStore) {
+    }
+
+    public DiskCollector(FileSystem oshiFileSystem) {
+        this(oshiFileSystem, VitalsConfig.getLong("vitals.disk.sampleMs", 10_000),
+                VitalsConfig.getLong("vitals.disk.storeRefreshMs", 60_000));
+    }
+
+    /**
+     * @param sampleIntervalMs how often space is sampled and, on Linux, the mount table checked for changes
+     * @param storeRefreshMs   how often OSHI re-enumerates the file stores where there is no mountinfo
+     */
+    public DiskCollector(FileSystem oshiFileSystem, long sampleIntervalMs, long storeRefreshMs) {
+        this.oshiFileSystem = oshiFileSystem;
+        this.sampleIntervalMs = sampleIntervalMs;
+        this.storeRefreshMs = storeRefreshMs;
+        this.useMountinfo = Files.isReadable(MOUNTINFO);
+    }
+
+    /**
+     * Usage of every tracked filesystem, resampled when the sample interval has passed.
+     */
+    public synchronized List<DiskUsage> getDisks() {
+        long now = System.currentTimeMillis();
+        if (lastSample == Long.MIN_VALUE || now - lastSample >= sampleIntervalMs) {
+            refreshMounts(now);
+            disks = sample();
+            lastSample = now;
+        }
+        return disks;
+    }
+
+    /**
+     * The system disk: C: on Windows, / elsewhere, otherwise the largest filesystem.
+     */
+    public synchronized DiskUsage getPrimaryDisk() {
+        List<DiskUsage> current = getDisks();
+        DiskUsage largest = null;
+        for (DiskUsage disk : current) {
+            if (disk.driveName().equals("C:") || disk.driveName().equals("/")) {
+                return disk;
+            }
+            if (largest == null || disk.totalGB() > largest.totalGB()) {
+                largest = disk;
+            }
+        }
+        return largest != null ? largest : new DiskUsage(0, useMountinfo ? "/" : "C:", 0);
+    }
+
+    private void refreshMounts(long now) {
+        if (useMountinfo) {
+            try {
+                byte[] mountinfo = Files.readAllBytes(MOUNTINFO);
+                if (!Arrays.equals(mountinfo, lastMountinfo)) {
+                    mounts = parseMountinfo(new String(mountinfo, StandardCharsets.UTF_8));
+                    lastMountinfo = mountinfo;
+                }
+                return;
+            } catch (IOException e) {
+                System.err.println("Cannot read " + MOUNTINFO + ", using OSHI file stores: " + e.getMessage());
+            }
+        }
+        if (lastStoreRefresh == Long.MIN_VALUE || now - lastStoreRefresh >= storeRefreshMs) {
+            mounts = enumerateOshiStores();
+            lastStoreRefresh = now;
+        }
+    }
+
+    /**
+     * Parses /proc/self/mountinfo lines of the form
+     * "36 35 98:0 /mnt1 /mnt/parent rw,noatime master:1 - ext3 /dev/root rw,errors=continue".
+     */
+    private static List<Mount> parseMountinfo(String mountinfo) {
+        List<Mount> parsed = new ArrayList<>();
+        Set<String> devices = new HashSet<>();
+        String rootMountPoint = null;
+        for (String line : mountinfo.split("\n")) {
+            String[] fields = line.split(" ");
+            int separator = Arrays.asList(fields).indexOf("-");
+            if (fields.length < 5 || separator < 0 || separator + 2 >= fields.length) {
+                continue;
+            }
+            String mountPoint = unescape(fields[4]);
+            String type = fields[separator + 1];
+            String source = fields[separator + 2];
+            if (mountPoint.equals("/")) {
+                rootMountPoint = mountPoint;
+            }
+            if (isExcluded(type, mountPoint)) {
+                continue;
+            }
+            // Bind mounts and btrfs subvolumes repeat a device; report its first (outermost) mount only
+            String device = source.startsWith("/dev/") ? source : fields[2];
+            if (!devices.add(device)) {
+                continue;
+            }
+            addNioMount(parsed, mountPoint);
+        }
+        // Inside a container the root is an overlay; report it rather than nothing
+        if (parsed.isEmpty() && rootMountPoint != null) {
+            addNioMount(parsed, rootMountPoint);
+        }
+        return parsed;
+    }
+
+    private static void addNioMount(List<Mount> mounts, String mountPoint) {
+        try {
+            mounts.add(new Mount(mountPoint, Files.getFileStore(Path.of(mountPoint)), null));
+        } catch (IOException | RuntimeException e) {
+            // Unreadable mount (permissions, stale); skipped until the mount table changes
+        }
+    }
+
+    private List<Mount> enumerateOshiStores() {
+        List<Mount> enumerated = new ArrayList<>();
+        for (OSFileStore store : oshiFileSystem.getFileStores(true)) {
+            String mount = store.getMount();
+            if (isExcluded(store.getType(), mount)) {
+                continue;
+            }
+            // Windows drives are reported by letter, as "C:"
+            String name = mount.length() >= 2 && mount.charAt(1) == ':' ? mount.substring(0, 2).toUpperCase() : mount;
+            enumerated.add(new Mount(name, null, store));
+        }
+        return enumerated;
+    }
+
+    private static boolean isExcluded(String type, String mountPoint) {
+        String lowerType = type.toLowerCase();
+        if (PSEUDO_TYPES.contains(lowerType) || REMOTE_TYPES.contains(lowerType)
+                || (lowerType.startsWith("fuse.") && !lowerType.equals("fuse.ntfs-3g"))) {
+            return true;
+        }
+        for (String prefix : PSEUDO_MOUNT_PREFIXES) {
+            if (mountPoint.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<DiskUsage> sample() {
+        List<DiskUsage> sampled = new ArrayList<>(mounts.size());
+        for (Mount mount : mounts) {
+            long total;
+            long usable;
+            if (mount.nioStore() != null) {
+                try {
+                    total = mount.nioStore().getTotalSpace();
+                    usable = mount.nioStore().getUsableSpace();
+                } catch (IOException e) {
+                    continue;
+                }
+            } else {
+                if (!mount.oshiStore().updateAttributes()) {
+                    continue;
+                }
+                total = mount.oshiStore().getTotalSpace();
+                usable = mount.oshiStore().getUsableSpace();
+            }
+            if (total <= 0) {
+                continue;
+            }
+            double totalGB = total / (1024.0 * 1024 * 1024);
+            double usedGB = (total - usable) / (1024.0 * 1024 * 1024);
+            sampled.add(new DiskUsage(usedGB, mount.name(), totalGB));
+        }
+        return List.copyOf(sampled);
+    }
+
+    // mountinfo escapes space, tab, newline and backslash as octal, e.g. "\040"
+    private static String unescape(String field) {
+        if (field.indexOf('\\') < 0) {
+            return field;
+        }
+        StringBuilder unescaped = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 3 < field.length()) {
+                try {
+                    unescaped.append((char) Integer.parseInt(field.substring(i + 1, i + 4), 8));
+                    i += 3;
+                    continue;
+                } catch (NumberFormatException e) {
+                    // Not an escape; keep the backslash
+                }
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+}
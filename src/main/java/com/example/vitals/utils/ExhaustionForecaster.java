@@ -0,0 +1,190 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.alerts.AlertEngine;
+import com.example.vitals.alerts.AlertEvent;
+import com.example.vitals.alerts.AlertRule;
+import com.example.vitals.bus.SampleEvent;
+import com.example.vitals.bus.SampleHandler;
+import com.example.vitals.controllers.SystemProbe;
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.dao.MetricRollups;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.Metric;
+import com.example.vitals.models.ResourceForecast;
+import com.example.vitals.models.SystemSample;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Forecasts when memory and every mounted disk run full. The series are reduced to one point per
+ * minute, the same resolution as the minute rollups, and each point updates a TrendModel in O(1);
+ * memory starts from the stored minute rollups, so a restart does not lose the trend. A warning
+ * goes to the alert sinks while the estimate is below the configured horizon.
+ */
+public class ExhaustionForecaster implements SampleHandler {
+
+    private static final long MINUTE_MS = 60_000;
+
+    private final SystemProbe probe;
+    private final HistoricalDataDAO historicalDataDAO;
+    private final AlertEngine alertEngine;
+    private final Consumer<List<ResourceForecast>> listener;
+    private final double halfLifeHours;
+    private final double warnHours;
+    private final long minPoints;
+
+    private final Series memory;
+    private final Map<String, Series> disks = new HashMap<>();
+    private boolean seeded;
+
+    // Open minute of memory samples
+    private long currentMinute = Long.MIN_VALUE;
+    private double memorySum;
+    private long memoryCount;
+    private double memoryTotal;
+
+    private static final class Series {
+        private final TrendModel model;
+        private double used;
+        private double capacity;
+        private AlertRule warning;
+
+        private Series(double halfLifeHours) {
+            model = new TrendModel(halfLifeHours);
+        }
+    }
+
+    /**
+     * @param historicalDataDAO store to seed the memory trend from, or null
+     * @param alertEngine       engine whose sinks receive the warnings, or null
+     * @param listener          receives the forecasts once a minute, e.g. the dashboard, or null
+     */
+    public ExhaustionForecaster(SystemProbe probe, HistoricalDataDAO historicalDataDAO, AlertEngine alertEngine,
+                                Consumer<List<ResourceForecast>> listener) {
+        this.probe = probe;
+        this.historicalDataDAO = historicalDataDAO;
+        this.alertEngine = alertEngine;
+        this.listener = listener;
+        this.halfLifeHours = VitalsConfig.getDouble("vitals.forecast.halfLifeHours", 12);
+        this.warnHours = VitalsConfig.getDouble("vitals.forecast.warnHours", 24);
+        this.minPoints = VitalsConfig.getLong("vitals.forecast.minPoints", 30);
+        this.memory = new Series(halfLifeHours);
+    }
+
+    @Override
+    public void onSample(SampleEvent event, long sequence, boolean endOfBatch) {
+        SystemSample sample = event.getSample();
+        if (!seeded) {
+            seeded = true;
+            seedMemory(sample.timestamp());
+        }
+        long minute = Math.floorDiv(sample.timestamp(), MINUTE_MS);
+        if (minute != currentMinute) {
+            if (memoryCount > 0) {
+                closeMinute(currentMinute * MINUTE_MS);
+            }
+            currentMinute = minute;
+            memorySum = 0;
+            memoryCount = 0;
+        }
+        memorySum += sample.memory().usedGB();
+        memoryCount++;
+        memoryTotal = sample.memory().totalGB();
+    }
+
+    // Replays the minute rollups of the last few half-lives; older points would carry almost no weight
+    private void seedMemory(long nowMs) {
+        if (historicalDataDAO == null) {
+            return;
+        }
+        long fromMs = nowMs - (long) (halfLifeHours * 4 * 3_600_000L);
+        List<MetricRollups.Bucket> buckets = historicalDataDAO.getRollups(HistoricalDataDAO.LOCAL_HOST,
+                MetricRollups.Resolution.MINUTE, localTimestamp(fromMs), localTimestamp(Math.floorDiv(nowMs, MINUTE_MS) * MINUTE_MS));
+        for (MetricRollups.Bucket bucket : buckets) {
+            if (bucket.getSamples() > 0) {
+                memory.model.add(bucket.getStart().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), bucket.getMemoryMean());
+            }
+        }
+    }
+
+    private static String localTimestamp(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+
+    private void closeMinute(long minuteStartMs) {
+        memory.used = memorySum / memoryCount;
+        memory.capacity = memoryTotal;
+        memory.model.add(minuteStartMs, memory.used);
+
+        // Disks are read once per minute from the cached collector, so each mount costs one model update
+        List<DiskUsage> mounts = probe.getAllDiskUsage();
+        Set<String> seen = new HashSet<>();
+        for (DiskUsage mount : mounts) {
+            if (mount.totalGB() <= 0) {
+                continue;
+            }
+            Series disk = disks.computeIfAbsent(mount.driveName(), name -> new Series(halfLifeHours));
+            disk.used = mount.usedGB();
+            disk.capacity = mount.totalGB();
+            disk.model.add(minuteStartMs, disk.used);
+            seen.add(mount.driveName());
+        }
+        for (Iterator<Map.Entry<String, Series>> it = disks.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Series> entry = it.next();
+            if (!seen.contains(entry.getKey())) {
+                // An unmounted disk resolves its warning and starts over if it comes back
+                updateWarning(entry.getKey(), true, entry.getValue(), Double.POSITIVE_INFINITY, minuteStartMs);
+                it.remove();
+            }
+        }
+
+        List<ResourceForecast> forecasts = new ArrayList<>(disks.size() + 1);
+        forecasts.add(forecast("Memory", false, memory, minuteStartMs));
+        for (Map.Entry<String, Series> entry : disks.entrySet()) {
+            forecasts.add(forecast(entry.getKey(), true, entry.getValue(), minuteStartMs));
+        }
+        if (listener != null) {
+            listener.accept(forecasts);
+        }
+    }
+
+    private ResourceForecast forecast(String resource, boolean disk, Series series, long timestamp) {
+        TrendModel model = series.model;
+        boolean ready = model.getPoints() >= minPoints && series.capacity > 0;
+        double slope = ready ? model.slopePerHour() : Double.NaN;
+        double hours = ready ? model.hoursUntil(series.capacity) : Double.NaN;
+        updateWarning(resource, disk, series, hours, timestamp);
+        return new ResourceForecast(resource, disk, series.used, series.capacity, slope * 24, hours, series.warning != null);
+    }
+
+    // Fires below the horizon and resolves above a quarter more, so an estimate hovering near it does not flap
+    private void updateWarning(String resource, boolean disk, Series series, double hours, long timestamp) {
+        if (alertEngine == null || Double.isNaN(hours)) {
+            return;
+        }
+        if (series.warning == null && hours < warnHours) {
+            double capacity = Math.round(series.capacity * 10) / 10.0;
+            String name = (disk ? "Disk " + resource : "Memory") + " full in under " + formatHorizon();
+            series.warning = new AlertRule(name, disk ? Metric.DISK_USED : Metric.MEMORY_USED, true, capacity, capacity, 0, 0);
+            alertEngine.publish(new AlertEvent(series.warning, true, series.used, timestamp));
+        } else if (series.warning != null && hours > warnHours * 1.25) {
+            alertEngine.publish(new AlertEvent(series.warning, false, series.used, timestamp));
+            series.warning = null;
+        }
+    }
+
+    private String formatHorizon() {
+        return warnHours == Math.rint(warnHours) ? (long) warnHours + "h" : warnHours + "h";
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.dao.MetricColumns;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated history cut into fixed-size time tiles, the way a map is cut into image tiles.
+ * A tile holds POINTS_PER_TILE buckets at one resolution level; levels are powers of two seconds,
+ * so zooming moves between levels and panning only fetches the tiles entering the view.
+ * Each tile is one bounded range query keyed on the epoch timestamp, never an OFFSET scan.
+ * Complete tiles are kept in an LRU cache; the tile containing "now" is always refetched.
+ * Thread-safe: the viewport loader and the prefetcher share one instance.
+ */
+public class HistoryTileCache {
+
+    public static final int POINTS_PER_TILE = 128;
+    private static final int MAX_TILES = (int) VitalsConfig.getLong("vitals.history.tileCacheSize", 512);
+
+    /**
+     * A tile: resolution level (bucket length) and index of the tile along the time axis.
+     */
+    public record TileKey(String host, long bucketMs, long index) {
+
+        public long startEpochMs() {
+            return index * bucketMs * POINTS_PER_TILE;
+        }
+
+        public long endEpochMs() {
+            return startEpochMs() + bucketMs * POINTS_PER_TILE;
+        }
+    }
+
+    private final HistoricalDataDAO dao;
+    private final Map<TileKey, MetricColumns> tiles = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, MetricColumns> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+
+    public HistoryTileCache(HistoricalDataDAO dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Smallest resolution level (a power of two seconds) that shows the span in at most the given number of points.
+     */
+    public static long bucketMsFor(long spanMs, int targetPoints) {
+        long wanted = Math.max(1_000, spanMs / Math.max(1, targetPoints));
+        long bucketSeconds = Long.highestOneBit(Math.max(1, (wanted + 999) / 1_000));
+        if (bucketSeconds * 1_000 < wanted) {
+            bucketSeconds <<= 1;
+        }
+        return bucketSeconds * 1_000;
+    }
+
+    public static long tileIndex(long epochMs, long bucketMs) {
+        return Math.floorDiv(epochMs, bucketMs * POINTS_PER_TILE);
+    }
+
+    /**
+     * Returns the tile, from the cache or the database. Tiles still being written to are not cached.
+     */
+    public MetricColumns getTile(TileKey key) {
+        synchronized (tiles) {
+            MetricColumns cached = tiles.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        MetricColumns tile = dao.getAggregatedMetricColumns(key.host(), key.startEpochMs(), key.endEpochMs(),
+                (int) (key.bucketMs() / 1_000));
+        if (key.endEpochMs() <= System.currentTimeMillis() && !Thread.currentThread().isInterrupted()) {
+            synchronized (tiles) {
+                tiles.put(key, tile);
+            }
+        }
+        return tile;
+    }
+
+    public boolean isCached(TileKey key) {
+        synchronized (tiles) {
+            return tiles.containsKey(key);
+        }
+    }
+
+    /**
+     * Rows of every tile overlapping [fromEpochMs, toEpochMs) at the level, cut to that range.
+     * Returns null if the calling thread is interrupted part way.
+     */
+    public MetricColumns getWindow(String host, long fromEpochMs, long toEpochMs, long bucketMs) {
+        MetricColumns window = new MetricColumns((int) Math.min(100_000, (toEpochMs - fromEpochMs) / bucketMs + 1));
+        for (long index = tileIndex(fromEpochMs, bucketMs); index <= tileIndex(toEpochMs - 1, bucketMs); index++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            MetricColumns tile = getTile(new TileKey(host, bucketMs, index));
+            for (int i = 0; i < tile.size(); i++) {
+                long epochMs = tile.epochMs(i);
+                if (epochMs >= fromEpochMs && epochMs < toEpochMs) {
+                    window.add(epochMs, tile.cpuUsage(i), tile.memoryUsed(i), tile.memoryTotal(i),
+                            tile.memoryAvailable(i), tile.anomalyFlags(i));
+                }
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Loads the tiles covering the windows of the same span directly before and after the given one,
+     * so the next pan shows cached data.
+     */
+    public void prefetchAround(String host, long fromEpochMs, long toEpochMs, long bucketMs) {
+        long span = toEpochMs - fromEpochMs;
+        long firstIndex = tileIndex(fromEpochMs - span, bucketMs);
+        long lastIndex = tileIndex(Math.min(toEpochMs + span, System.currentTimeMillis()) - 1, bucketMs);
+        for (long index = firstIndex; index <= lastIndex; index++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            TileKey key = new TileKey(host, bucketMs, index);
+            if (!isCached(key)) {
+                getTile(key);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (tiles) {
+            tiles.clear();
+        }
+    }
+}
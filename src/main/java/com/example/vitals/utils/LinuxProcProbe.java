@@ -0,0 +1,267 @@
+package com.example.vitals.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Allocation-free reader for the Linux procfs files backing the live CPU, memory and network probes.
+ * Each file is kept open and re-read from offset 0 into a reusable direct buffer, and the numbers
+ * are parsed straight from the bytes, so a sampling tick creates no Strings or boxed values.
+ * Instances are not thread-safe; SystemInfoController owns one per collector.
+ */
+public final class LinuxProcProbe implements AutoCloseable {
+
+    private static final Path PROC_STAT = Path.of("/proc/stat");
+    private static final Path PROC_MEMINFO = Path.of("/proc/meminfo");
+    private static final Path PROC_NET_DEV = Path.of("/proc/net/dev");
+
+    private static final byte[] CPU_KEY = {'c', 'p', 'u', ' '};
+    private static final byte[] MEM_TOTAL_KEY = {'M', 'e', 'm', 'T', 'o', 't', 'a', 'l', ':'};
+    private static final byte[] MEM_AVAILABLE_KEY = {'M', 'e', 'm', 'A', 'v', 'a', 'i', 'l', 'a', 'b', 'l', 'e', ':'};
+    private static final byte[] CACHED_KEY = {'C', 'a', 'c', 'h', 'e', 'd', ':'};
+
+    private final FileChannel statChannel;
+    private final FileChannel meminfoChannel;
+    private final FileChannel netDevChannel;
+
+    // procfs files are small, the buffers only grow if a host has an unusual number of CPUs or NICs
+    private ByteBuffer statBuffer = ByteBuffer.allocateDirect(16 * 1024);
+    private ByteBuffer meminfoBuffer = ByteBuffer.allocateDirect(8 * 1024);
+    private ByteBuffer netDevBuffer = ByteBuffer.allocateDirect(8 * 1024);
+
+    // Parse cursor shared by the helpers below
+    private int cursor;
+
+    // Previous aggregate CPU ticks for load calculation
+    private long prevBusyTicks;
+    private long prevTotalTicks;
+
+    // Results of the last readMemory() call, in kB as reported by the kernel
+    private long memTotalKb;
+    private long memAvailableKb;
+    private long cachedKb;
+
+    public LinuxProcProbe() throws IOException {
+        statChannel = FileChannel.open(PROC_STAT, StandardOpenOption.READ);
+        meminfoChannel = FileChannel.open(PROC_MEMINFO, StandardOpenOption.READ);
+        netDevChannel = FileChannel.open(PROC_NET_DEV, StandardOpenOption.READ);
+
+        // Prime the CPU counters so the first load reading covers a real interval
+        readCpuLoad();
+    }
+
+    /**
+     * Whether the procfs fast path can be used on this machine.
+     */
+    public static boolean isSupported() {
+        String osName = System.getProperty("os.name", "");
+        return osName.toLowerCase().startsWith("linux")
+                && Files.isReadable(PROC_STAT)
+                && Files.isReadable(PROC_MEMINFO)
+                && Files.isReadable(PROC_NET_DEV);
+    }
+
+    /**
+     * Reads /proc/stat and returns the system-wide CPU load (0.0 - 1.0) since the previous call.
+     */
+    public double readCpuLoad() throws IOException {
+        statBuffer = readFully(statChannel, statBuffer);
+        if (findKey(statBuffer, CPU_KEY) < 0) {
+            return 0.0;
+        }
+
+        // cpu  user nice system idle iowait irq softirq steal [guest guest_nice]
+        long user = nextLong(statBuffer);
+        long nice = nextLong(statBuffer);
+        long system = nextLong(statBuffer);
+        long idle = nextLong(statBuffer);
+        long iowait = nextLong(statBuffer);
+        long irq = nextLong(statBuffer);
+        long softirq = nextLong(statBuffer);
+        long steal = nextLong(statBuffer);
+
+        // guest time is already accounted in user/nice, so it is not added again
+        long idleTicks = idle + iowait;
+        long totalTicks = user + nice + system + idleTicks + irq + softirq + steal;
+        long busyTicks = totalTicks - idleTicks;
+
+        long totalDiff = totalTicks - prevTotalTicks;
+        long busyDiff = busyTicks - prevBusyTicks;
+        prevTotalTicks = totalTicks;
+        prevBusyTicks = busyTicks;
+
+        if (totalDiff <= 0) {
+            return 0.0;
+        }
+        return Math.min(1.0, Math.max(0.0, (double) busyDiff / totalDiff));
+    }
+
+    /**
+     * Reads /proc/meminfo; results are available through the memory getters.
+     */
+    public void readMemory() throws IOException {
+        meminfoBuffer = readFully(meminfoChannel, meminfoBuffer);
+        memTotalKb = findKey(meminfoBuffer, MEM_TOTAL_KEY) >= 0 ? nextLong(meminfoBuffer) : 0;
+        memAvailableKb = findKey(meminfoBuffer, MEM_AVAILABLE_KEY) >= 0 ? nextLong(meminfoBuffer) : 0;
+        cachedKb = findKey(meminfoBuffer, CACHED_KEY) >= 0 ? nextLong(meminfoBuffer) : 0;
+    }
+
+    /**
+     * Reads /proc/net/dev and feeds the counters of every interface to the tracker, which works out
+     * the per-interface rates; interface names are matched against the tracker's slots byte by byte.
+     */
+    public void readNetworkInterfaces(NetworkInterfaceTracker tracker) throws IOException {
+        netDevBuffer = readFully(netDevChannel, netDevBuffer);
+        long nanos = System.nanoTime();
+        ByteBuffer buf = netDevBuffer;
+        int limit = buf.limit();
+        tracker.beginRound();
+
+        // Skip the two header lines
+        cursor = 0;
+        skipLine(buf);
+        skipLine(buf);
+
+        while (cursor < limit) {
+            while (cursor < limit && buf.get(cursor) == ' ') {
+                cursor++;
+            }
+            int nameStart = cursor;
+            while (cursor < limit && buf.get(cursor) != ':' && buf.get(cursor) != '\n') {
+                cursor++;
+            }
+            if (cursor >= limit || buf.get(cursor) != ':') {
+                skipLine(buf);
+                continue;
+            }
+            int nameEnd = cursor;
+            cursor++;
+
+            // Receive: bytes packets errs drop fifo frame compressed multicast, then transmit: bytes packets errs ...
+            long rxBytes = nextLong(buf);
+            long rxPackets = nextLong(buf);
+            long rxErrors = nextLong(buf);
+            for (int i = 0; i < 5; i++) {
+                nextLong(buf);
+            }
+            long txBytes = nextLong(buf);
+            long txPackets = nextLong(buf);
+            long txErrors = nextLong(buf);
+            skipLine(buf);
+
+            int slot = tracker.slotOf(buf, nameStart, nameEnd);
+            tracker.update(slot, nanos, rxBytes, rxPackets, rxErrors, txBytes, txPackets, txErrors);
+        }
+    }
+
+    public long getMemTotalKb() {
+        return memTotalKb;
+    }
+
+    public long getMemAvailableKb() {
+        return memAvailableKb;
+    }
+
+    public long getCachedKb() {
+        return cachedKb;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (statChannel; meminfoChannel; netDevChannel) {
+            // Channels are closed by try-with-resources
+        }
+    }
+
+    /**
+     * Reads a procfs file from offset 0 into the buffer, growing it if the content does not fit.
+     * The returned buffer is flipped and ready for absolute reads.
+     */
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            long position = 0;
+            int read;
+            while (buffer.hasRemaining() && (read = channel.read(buffer, position)) > 0) {
+                position += read;
+            }
+            if (buffer.hasRemaining()) {
+                buffer.flip();
+                return buffer;
+            }
+            buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+        }
+    }
+
+    /**
+     * Positions the cursor right after the given key when it starts a line.
+     * Returns the new cursor position, or -1 if the key is not present.
+     */
+    private int findKey(ByteBuffer buf, byte[] key) {
+        int limit = buf.limit();
+        int lineStart = 0;
+        while (lineStart + key.length <= limit) {
+            if (rangeEquals(buf, lineStart, lineStart + key.length, key)) {
+                cursor = lineStart + key.length;
+                return cursor;
+            }
+            int i = lineStart;
+            while (i < limit && buf.get(i) != '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the next unsigned decimal number at or after the cursor on the current line.
+     */
+    private long nextLong(ByteBuffer buf) {
+        int limit = buf.limit();
+        while (cursor < limit) {
+            byte b = buf.get(cursor);
+            if (b >= '0' && b <= '9') {
+                break;
+            }
+            if (b == '\n') {
+                return 0;
+            }
+            cursor++;
+        }
+        long value = 0;
+        while (cursor < limit) {
+            byte b = buf.get(cursor);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+            cursor++;
+        }
+        return value;
+    }
+
+    private void skipLine(ByteBuffer buf) {
+        int limit = buf.limit();
+        while (cursor < limit && buf.get(cursor) != '\n') {
+            cursor++;
+        }
+        cursor++;
+    }
+
+    private static boolean rangeEquals(ByteBuffer buf, int start, int end, byte[] expected) {
+        if (end - start != expected.length || end > buf.limit()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buf.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
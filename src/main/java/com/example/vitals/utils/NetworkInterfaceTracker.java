@@ -0,0 +1,251 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.NetworkActivity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-interface network rates computed from cumulative counters.
+ * Every interface gets a slot index on first sight, and its previous counters, timestamps and rates live
+ * in flat primitive arrays addressed by that index, so a tick boxes nothing and looks nothing up in a map.
+ * Intervals are measured with System.nanoTime per interface. A counter that goes backwards is either a
+ * 32-bit counter that wrapped, which is corrected, or a reset (driver reload, interface re-created), after
+ * which the interval is skipped and the counter re-baselined. Loopback and virtual interfaces (bridges,
+ * veth pairs, tunnels, VPNs) are tracked but left out of the results, so bridged traffic is not counted twice.
+ * Instances are not thread-safe; SystemInfoController owns one per collector.
+ */
+public class NetworkInterfaceTracker {
+
+    // Previous counters per slot
+    private static final int RX_BYTES = 0;
+    private static final int RX_PACKETS = 1;
+    private static final int RX_ERRORS = 2;
+    private static final int TX_BYTES = 3;
+    private static final int TX_PACKETS = 4;
+    private static final int TX_ERRORS = 5;
+    private static final int COUNTERS = 6;
+
+    // Rates per slot, in the order of InterfaceActivity
+    private static final int RATES = 5;
+
+    // Counters of older drivers and of the Windows MIB_IFROW API are 32 bits wide
+    private static final long WRAP_32 = 1L << 32;
+
+    // Shorter intervals are dominated by counter update granularity; the previous rates are kept instead
+    private static final long MIN_INTERVAL_NANOS = 50_000_000L;
+
+    private static final Path SYS_CLASS_NET = Path.of("/sys/class/net");
+    private static final String[] VIRTUAL_PREFIXES = {
+            "lo", "docker", "veth", "br-", "virbr", "vnet", "vmnet", "vboxnet", "tun", "tap", "wg", "tailscale",
+            "zt", "utun", "awdl", "llw", "bridge", "gif", "stf", "anpi", "cali", "flannel", "cni", "kube", "dummy"};
+
+    private String[] names = new String[8];
+    private byte[][] nameBytes = new byte[8][];
+    private boolean[] virtual = new boolean[8];
+    // Whether the slot holds a baseline to compute rates from
+    private boolean[] primed = new boolean[8];
+    private long[] lastNanos = new long[8];
+    // Update round in which the slot was last seen; interfaces missing from a round are dropped from the results
+    private long[] lastRound = new long[8];
+    private long[] counters = new long[8 * COUNTERS];
+    private double[] rates = new double[8 * RATES];
+    private int slots;
+    private long round;
+
+    /**
+     * Starts a round of updates; call once per tick before updating the interfaces.
+     */
+    public void beginRound() {
+        round++;
+    }
+
+    /**
+     * Slot of the interface whose name is the given byte range, creating it on first sight.
+     * Only a new interface allocates.
+     */
+    public int slotOf(ByteBuffer buf, int start, int end) {
+        for (int slot = 0; slot < slots; slot++) {
+            byte[] name = nameBytes[slot];
+            if (name.length == end - start && rangeEquals(buf, start, name)) {
+                return slot;
+            }
+        }
+        byte[] name = new byte[end - start];
+        buf.get(start, name);
+        return addSlot(new String(name, StandardCharsets.UTF_8), name, null);
+    }
+
+    /**
+     * Slot of the named interface, creating it on first sight.
+     *
+     * @param virtualHint whether the caller already knows the interface is virtual, or null to decide by name and sysfs
+     */
+    public int slotOf(String name, Boolean virtualHint) {
+        for (int slot = 0; slot < slots; slot++) {
+            if (names[slot].equals(name)) {
+                return slot;
+            }
+        }
+        return addSlot(name, name.getBytes(StandardCharsets.UTF_8), virtualHint);
+    }
+
+    /**
+     * Feeds the cumulative counters of an interface read at the given System.nanoTime.
+     */
+    public void update(int slot, long nanos, long rxBytes, long rxPackets, long rxErrors,
+                       long txBytes, long txPackets, long txErrors) {
+        // An interface that disappeared and came back starts from fresh counters
+        boolean continuous = primed[slot] && lastRound[slot] == round - 1;
+        lastRound[slot] = round;
+        long elapsed = nanos - lastNanos[slot];
+        if (continuous && elapsed < MIN_INTERVAL_NANOS) {
+            return;
+        }
+
+        int base = slot * COUNTERS;
+        int rateBase = slot * RATES;
+        if (continuous) {
+            double seconds = elapsed / 1e9;
+            rates[rateBase] = rate(counters[base + RX_BYTES], rxBytes, seconds);
+            rates[rateBase + 1] = rate(counters[base + TX_BYTES], txBytes, seconds);
+            rates[rateBase + 2] = rate(counters[base + RX_PACKETS], rxPackets, seconds);
+            rates[rateBase + 3] = rate(counters[base + TX_PACKETS], txPackets, seconds);
+            rates[rateBase + 4] = rate(counters[base + RX_ERRORS], rxErrors, seconds)
+                    + rate(counters[base + TX_ERRORS], txErrors, seconds);
+        } else {
+            Arrays.fill(rates, rateBase, rateBase + RATES, 0);
+        }
+        counters[base + RX_BYTES] = rxBytes;
+        counters[base + RX_PACKETS] = rxPackets;
+        counters[base + RX_ERRORS] = rxErrors;
+        counters[base + TX_BYTES] = txBytes;
+        counters[base + TX_PACKETS] = txPackets;
+        counters[base + TX_ERRORS] = txErrors;
+        lastNanos[slot] = nanos;
+        primed[slot] = true;
+    }
+
+    // A reset counter contributes nothing for the interval it happened in
+    private static double rate(long previous, long current, double seconds) {
+        long delta = delta(previous, current);
+        return delta < 0 ? 0 : delta / seconds;
+    }
+
+    /**
+     * Counter increase since the previous reading, or -1 if the counter was reset.
+     */
+    static long delta(long previous, long current) {
+        if (current >= previous) {
+            return current - previous;
+        }
+        // A 32-bit counter that wrapped once: both readings fit in 32 bits and the wrapped distance is plausible.
+        // 64-bit counters do not wrap in practice.
+        if (previous < WRAP_32) {
+            long wrapped = current + WRAP_32 - previous;
+            if (wrapped < WRAP_32 / 2) {
+                return wrapped;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rates of every physical interface seen in the current round.
+     */
+    public List<InterfaceActivity> getInterfaces() {
+        List<InterfaceActivity> interfaces = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            if (!isReported(slot)) {
+                continue;
+            }
+            int r = slot * RATES;
+            interfaces.add(new InterfaceActivity(names[slot], rates[r], rates[r + 1], rates[r + 2], rates[r + 3], rates[r + 4]));
+        }
+        return interfaces;
+    }
+
+    /**
+     * Upload and download summed over the physical interfaces seen in the current round.
+     */
+    public NetworkActivity getTotals() {
+        double rx = 0;
+        double tx = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (isReported(slot)) {
+                rx += rates[slot * RATES];
+                tx += rates[slot * RATES + 1];
+            }
+        }
+        // Kbps (kilobits per second), as the dashboard has always shown them
+        return new NetworkActivity((int) (tx * 8 / 1024), (int) (rx * 8 / 1024));
+    }
+
+    private boolean isReported(int slot) {
+        return !virtual[slot] && lastRound[slot] == round;
+    }
+
+    private int addSlot(String name, byte[] bytes, Boolean virtualHint) {
+        if (slots == names.length) {
+            int capacity = slots * 2;
+            names = Arrays.copyOf(names, capacity);
+            nameBytes = Arrays.copyOf(nameBytes, capacity);
+            virtual = Arrays.copyOf(virtual, capacity);
+            primed = Arrays.copyOf(primed, capacity);
+            lastNanos = Arrays.copyOf(lastNanos, capacity);
+            lastRound = Arrays.copyOf(lastRound, capacity);
+            counters = Arrays.copyOf(counters, capacity * COUNTERS);
+            rates = Arrays.copyOf(rates, capacity * RATES);
+        }
+        int slot = slots++;
+        names[slot] = name;
+        nameBytes[slot] = bytes;
+        virtual[slot] = virtualHint != null ? virtualHint || isVirtualName(name) : isVirtual(name);
+        return slot;
+    }
+
+    /**
+     * Whether an interface is loopback or virtual. On Linux every interface without a backing device
+     * is linked under /sys/devices/virtual; elsewhere the usual names of virtual adapters are matched.
+     */
+    static boolean isVirtual(String name) {
+        Path link = SYS_CLASS_NET.resolve(name);
+        if (Files.isSymbolicLink(link)) {
+            try {
+                return Files.readSymbolicLink(link).toString().contains("/virtual/");
+            } catch (IOException e) {
+                // Fall back to the name
+            }
+        }
+        return isVirtualName(name);
+    }
+
+    private static boolean isVirtualName(String name) {
+        String lower = name.toLowerCase();
+        if (lower.contains("loopback") || lower.contains("virtual") || lower.contains("pseudo")) {
+            return true;
+        }
+        for (String prefix : VIRTUAL_PREFIXES) {
+            if (lower.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean rangeEquals(ByteBuffer buf, int start, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buf.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.controllers.SystemInfoController;
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Command-line benchmark comparing the per-tick cost of the OSHI probes against the Linux procfs fast path.
+ * A tick makes the same probe calls as the collector every interval: CPU (load, temperature, clock and
+ * process count), memory, network totals and per-interface rates, through SystemInfoController itself.
+ * Disk space is left out because the collector samples it on its own, much slower cadence.
+ * Reports latency percentiles and bytes allocated per tick for each path.
+ *
+ * Usage: java -cp vitals.jar com.example.vitals.utils.ProbeBenchmark [ticks] [warmupTicks]
+ */
+public class ProbeBenchmark {
+
+    private static final int DEFAULT_TICKS = 2_000;
+    private static final int DEFAULT_WARMUP_TICKS = 500;
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        int warmupTicks = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_WARMUP_TICKS;
+
+        try (SystemInfoController oshi = new SystemInfoController(false)) {
+            System.out.println(run("OSHI", oshi, ticks, warmupTicks));
+        }
+
+        if (!LinuxProcProbe.isSupported()) {
+            System.out.println("Linux /proc fast path not supported on this machine, skipping");
+            return;
+        }
+
+        try (SystemInfoController proc = new SystemInfoController(true)) {
+            if (!proc.isUsingNativeProbe()) {
+                System.out.println("Linux /proc fast path could not be opened, skipping");
+                return;
+            }
+            System.out.println(run("Linux /proc", proc, ticks, warmupTicks));
+        }
+    }
+
+    private static String run(String name, SystemInfoController probe, int ticks, int warmupTicks) {
+        for (int i = 0; i < warmupTicks; i++) {
+            tick(probe);
+        }
+
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long[] latencies = new long[ticks];
+
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            tick(probe);
+            latencies[i] = System.nanoTime() - start;
+        }
+        long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+
+        Arrays.sort(latencies);
+        double meanMicros = Arrays.stream(latencies).average().orElse(0) / 1_000.0;
+        return String.format("%-12s ticks=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus alloc/tick=%d B",
+                name, ticks, meanMicros,
+                latencies[ticks / 2] / 1_000.0,
+                latencies[Math.min(ticks - 1, (int) (ticks * 0.99))] / 1_000.0,
+                latencies[ticks - 1] / 1_000.0,
+                (allocatedAfter - allocatedBefore) / ticks);
+    }
+
+    // The probe calls of one SystemMonitor tick; the results include the small records handed to the sinks
+    private static void tick(SystemInfoController probe) {
+        CPUUsage cpu = probe.getLatestCPUUsage();
+        MemoryUsage memory = probe.getLatestMemoryUsage();
+        NetworkActivity network = probe.getLatestNetworkActivity();
+        int interfaces = probe.getLatestInterfaceActivity().size();
+        consume(cpu.usagePercentage() + memory.usedGB(), (long) network.downloadSpeedKbps() + interfaces + cpu.processCount());
+    }
+
+    // Keeps the JIT from eliminating the probe reads
+    private static volatile double sink;
+
+    private static void consume(double load, long value) {
+        sink = load + value;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.vitals.utils;
+
+import java.util.Arrays;
+
+/**
+ * Mean, minimum and maximum of one metric over several trailing time windows, e.g. 1, 5 and 15 minutes.
+ * The mean is time-weighted, since the collector samples at an adaptive interval: each sample counts for
+ * the time until the next one. Samples live once in a primitive ring shared by all windows; each window
+ * keeps a running sum of value × interval and monotonic deques of candidate minima and maxima, so an
+ * update is amortized O(1) and never rescans the window. Not thread safe.
+ */
+public class RollingStats {
+
+    private final long[] windowMs;
+
+    // Samples by sequence number, at index sequence & mask; head is the oldest one any window still needs
+    private long[] times;
+    private double[] values;
+    private int mask;
+    private long head;
+    private long tail;
+
+    // Per window: first sequence inside it, sum of value × time to the next sample, and the deques
+    // as rings of sequence numbers
+    private final long[] start;
+    private final double[] weightedSum;
+    private final long[][] minDeque;
+    private final long[] minHead;
+    private final long[] minTail;
+    private final long[][] maxDeque;
+    private final long[] maxHead;
+    private final long[] maxTail;
+
+    /**
+     * Window readouts in the order the windows were given; NaN where a window holds no sample.
+     */
+    public record Summary(double[] mean, double[] min, double[] max) {
+    }
+
+    public RollingStats(long... windowMs) {
+        this.windowMs = windowMs.clone();
+        int windows = windowMs.length;
+        start = new long[windows];
+        weightedSum = new double[windows];
+        minHead = new long[windows];
+        minTail = new long[windows];
+        maxHead = new long[windows];
+        maxTail = new long[windows];
+        minDeque = new long[windows][];
+        maxDeque = new long[windows][];
+        allocate(256);
+    }
+
+    private void allocate(int capacity) {
+        times = new long[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+        for (int w = 0; w < windowMs.length; w++) {
+            minDeque[w] = new long[capacity];
+            maxDeque[w] = new long[capacity];
+        }
+    }
+
+    /**
+     * Adds a sample; timestamps must not go backwards.
+     */
+    public void add(long epochMs, double value) {
+        if (tail - head == times.length) {
+            grow();
+        }
+        long sequence = tail++;
+        times[(int) sequence & mask] = epochMs;
+        values[(int) sequence & mask] = value;
+
+        for (int w = 0; w < windowMs.length; w++) {
+            if (start[w] < sequence) {
+                // The previous sample held until this one
+                long previous = sequence - 1;
+                weightedSum[w] += values[(int) previous & mask] * (epochMs - times[(int) previous & mask]);
+            }
+            long[] mins = minDeque[w];
+            while (minTail[w] > minHead[w] && values[(int) mins[(int) (minTail[w] - 1) & mask] & mask] >= value) {
+                minTail[w]--;
+            }
+            mins[(int) minTail[w]++ & mask] = sequence;
+            long[] maxs = maxDeque[w];
+            while (maxTail[w] > maxHead[w] && values[(int) maxs[(int) (maxTail[w] - 1) & mask] & mask] <= value) {
+                maxTail[w]--;
+            }
+            maxs[(int) maxTail[w]++ & mask] = sequence;
+
+            // Evict what fell out of the window; each sample leaves each window once
+            long cutoff = epochMs - windowMs[w];
+            while (start[w] < tail && times[(int) start[w] & mask] <= cutoff) {
+                if (start[w] < sequence) {
+                    weightedSum[w] -= values[(int) start[w] & mask] * (times[(int) (start[w] + 1) & mask] - times[(int) start[w] & mask]);
+                }
+                if (mins[(int) minHead[w] & mask] == start[w]) {
+                    minHead[w]++;
+                }
+                if (maxs[(int) maxHead[w] & mask] == start[w]) {
+                    maxHead[w]++;
+                }
+                start[w]++;
+            }
+            if (start[w] >= sequence) {
+                // Clears the rounding error the additions and subtractions accumulated
+                weightedSum[w] = 0;
+            }
+        }
+
+        long oldest = tail;
+        for (long first : start) {
+            oldest = Math.min(oldest, first);
+        }
+        head = oldest;
+    }
+
+    // Doubles every ring, keeping sequence numbers and therefore the deque contents valid
+    private void grow() {
+        long[] oldTimes = times;
+        double[] oldValues = values;
+        long[][] oldMins = minDeque.clone();
+        long[][] oldMaxs = maxDeque.clone();
+        int oldMask = mask;
+        allocate(times.length * 2);
+        for (long s = head; s < tail; s++) {
+            times[(int) s & mask] = oldTimes[(int) s & oldMask];
+            values[(int) s & mask] = oldValues[(int) s & oldMask];
+        }
+        for (int w = 0; w < windowMs.length; w++) {
+            for (long i = minHead[w]; i < minTail[w]; i++) {
+                minDeque[w][(int) i & mask] = oldMins[w][(int) i & oldMask];
+            }
+            for (long i = maxHead[w]; i < maxTail[w]; i++) {
+                maxDeque[w][(int) i & mask] = oldMaxs[w][(int) i & oldMask];
+            }
+        }
+    }
+
+    public int windowCount() {
+        return windowMs.length;
+    }
+
+    public long count(int window) {
+        return tail - start[window];
+    }
+
+    /**
+     * Time-weighted mean over the window, from its first sample to its latest; the latest sample alone
+     * when the window spans no time yet.
+     */
+    public double mean(int window) {
+        if (count(window) == 0) {
+            return Double.NaN;
+        }
+        long spanMs = times[(int) (tail - 1) & mask] - times[(int) start[window] & mask];
+        return spanMs > 0 ? weightedSum[window] / spanMs : values[(int) (tail - 1) & mask];
+    }
+
+    public double min(int window) {
+        return count(window) == 0 ? Double.NaN : values[(int) minDeque[window][(int) minHead[window] & mask] & mask];
+    }
+
+    public double max(int window) {
+        return count(window) == 0 ? Double.NaN : values[(int) maxDeque[window][(int) maxHead[window] & mask] & mask];
+    }
+
+    public Summary summary() {
+        int windows = windowMs.length;
+        double[] mean = new double[windows];
+        double[] min = new double[windows];
+        double[] max = new double[windows];
+        for (int w = 0; w < windows; w++) {
+            mean[w] = mean(w);
+            min[w] = min(w);
+            max[w] = max(w);
+        }
+        return new Summary(mean, min, max);
+    }
+
+    /**
+     * Forgets every sample, e.g. when the dashboard switches to another host.
+     */
+    public void clear() {
+        head = tail;
+        Arrays.fill(start, tail);
+        Arrays.fill(weightedSum, 0);
+        Arrays.fill(minHead, 0);
+        Arrays.fill(minTail, 0);
+        Arrays.fill(maxHead, 0);
+        Arrays.fill(maxTail, 0);
+    }
+}
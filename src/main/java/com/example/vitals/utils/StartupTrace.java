@@ -0,0 +1,31 @@
+package com.example.vitals.utils;
+
+import java.time.Instant;
+
+/**
+ * Built-in startup phase timing. Each phase is printed with the time since the JVM process started
+ * and since the previous phase, e.g. {@code [startup] +412 ms (+95 ms) first paint [JavaFX Application Thread]}.
+ * Disable with -Dvitals.startup.trace=false.
+ */
+public final class StartupTrace {
+
+    private static final boolean ENABLED = VitalsConfig.getBoolean("vitals.startup.trace", true);
+    private static final long PROCESS_START_MS = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli)
+            .orElse(System.currentTimeMillis());
+
+    private static long lastMarkMs = PROCESS_START_MS;
+
+    private StartupTrace() {
+    }
+
+    public static synchronized void mark(String phase) {
+        if (!ENABLED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        System.out.printf("[startup] +%d ms (+%d ms) %s [%s]%n",
+                now - PROCESS_START_MS, now - lastMarkMs, phase, Thread.currentThread().getName());
+        lastMarkMs = now;
+    }
+}
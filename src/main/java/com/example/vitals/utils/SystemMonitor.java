@@ -1,52 +1,213 @@
 package com.example.vitals.utils;
 
+import com.example.vitals.alerts.AlertEngine;
+import com.example.vitals.alerts.AlertRules;
+import com.example.vitals.alerts.DashboardBannerSink;
+import com.example.vitals.bus.BackpressurePolicy;
+import com.example.vitals.bus.SampleEvent;
+import com.example.vitals.bus.SampleEventBus;
+import com.example.vitals.bus.SampleHandler;
 import com.example.vitals.controllers.DashboardController;
-import com.example.vitals.controllers.SystemInfoController;
+import com.example.vitals.controllers.SystemProbe;
 import com.example.vitals.dao.HistoricalDataDAO;
+import com.example.vitals.export.NdjsonFileSink;
 import com.example.vitals.models.CPUUsage;
 import com.example.vitals.models.DiskUsage;
 import com.example.vitals.models.MemoryUsage;
 import com.example.vitals.models.NetworkActivity;
-import javafx.application.Platform;
+import com.example.vitals.models.SystemSample;
+import com.example.vitals.net.AgentClient;
+import com.example.vitals.shm.SnapshotLayout;
+import com.example.vitals.shm.SnapshotWriter;
 
-public class SystemMonitor implements Runnable {
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The collector loop: samples the probes at the adaptive interval and publishes every sample on the event bus.
+ * Dashboard, anomaly detection, storage, alerts, forecasting and the agent uplink are bus consumers on their own threads,
+ * so a slow sink never delays a tick, and a new sink subscribes to the bus instead of changing this loop.
+ */
+public class SystemMonitor implements Runnable, AutoCloseable {
 
     private final DashboardController dashboardController;
-    private final SystemInfoController infoController;
+    private final SystemProbe infoController;
     private final HistoricalDataDAO historicalDataDAO;
+    private final AgentClient agentClient;
+    private final AdaptiveSampler sampler;
+    private final AlertEngine alertEngine;
+    private final AnomalyDetector anomalyDetector;
+    private final SampleEventBus eventBus;
+    // NDJSON log for external pipelines, null unless vitals.ndjson.dir is set
+    private NdjsonFileSink ndjsonSink;
+    // Shared-memory live snapshot for local readers, null when disabled
+    private SnapshotWriter snapshotWriter;
+    private volatile boolean running = true;
+
+    // Disk usage changes slowly, so it is refreshed at the slow interval
+    private DiskUsage lastDisk;
+    private long lastDiskRefresh;
 
     public SystemMonitor(DashboardController dashboardController) {
+        this(dashboardController, SystemProbe.create(), new HistoricalDataDAO(), null);
+    }
+
+    /**
+     * @param dashboardController dashboard to update, or null when running headless
+     * @param infoController      live probes, real or synthetic
+     * @param historicalDataDAO   local store, or null to skip local storage (agent mode)
+     * @param agentClient         connection to a central collector, or null when not running as an agent
+     */
+    public SystemMonitor(DashboardController dashboardController, SystemProbe infoController,
+                         HistoricalDataDAO historicalDataDAO, AgentClient agentClient) {
         this.dashboardController = dashboardController;
-        this.infoController = new SystemInfoController();
-        this.historicalDataDAO = new HistoricalDataDAO();
+        this.infoController = infoController;
+        this.historicalDataDAO = historicalDataDAO;
+        this.agentClient = agentClient;
+        this.sampler = new AdaptiveSampler();
+        this.alertEngine = AlertRules.createEngine();
+        if (dashboardController != null) {
+            this.alertEngine.addSink(new DashboardBannerSink(dashboardController));
+        }
+        this.anomalyDetector = new AnomalyDetector();
+        if (historicalDataDAO != null && VitalsConfig.getBoolean("vitals.anomaly.seasonal", true)) {
+            anomalyDetector.enableSeasonalBaseline(historicalDataDAO, 14);
+        }
+
+        eventBus = new SampleEventBus((int) VitalsConfig.getLong("vitals.bus.capacity", 1_024));
+        // Stamps the anomaly flags into the ring slot; storage waits for it so every stored row carries them
+        SampleEventBus.Consumer anomalies = eventBus.subscribe("anomaly", BackpressurePolicy.BLOCK,
+                (event, sequence, endOfBatch) -> event.setAnomalyFlags(anomalyDetector.evaluate(event.getSample())));
+        if (dashboardController != null) {
+            // The dashboard hands off to the JavaFX Application Thread and only needs the newest sample
+            eventBus.subscribe("dashboard", BackpressurePolicy.forConsumer("dashboard", BackpressurePolicy.LATEST),
+                    (event, sequence, endOfBatch) -> dashboardController.updateFromSample(HistoricalDataDAO.LOCAL_HOST, event.getSample()));
+        }
+        eventBus.subscribe("alerts", BackpressurePolicy.forConsumer("alerts", BackpressurePolicy.BLOCK),
+                (event, sequence, endOfBatch) -> alertEngine.evaluate(event.getSample()));
+        if (VitalsConfig.getBoolean("vitals.forecast.enabled", true)) {
+            // One trend update per minute and resource; the forecaster reads every mount from the cached disk collector
+            eventBus.subscribe("forecast", BackpressurePolicy.forConsumer("forecast", BackpressurePolicy.BLOCK),
+                    new ExhaustionForecaster(infoController, historicalDataDAO, alertEngine,
+                            dashboardController != null ? dashboardController::updateForecasts : null));
+        }
+        if (historicalDataDAO != null) {
+            eventBus.subscribe("storage", BackpressurePolicy.forConsumer("storage", BackpressurePolicy.BLOCK),
+                    new StorageHandler(historicalDataDAO), anomalies);
+        }
+        String ndjsonDir = VitalsConfig.getString("vitals.ndjson.dir", null);
+        if (ndjsonDir != null) {
+            try {
+                ndjsonSink = NdjsonFileSink.fromConfig(Path.of(ndjsonDir));
+                eventBus.subscribe("ndjson", BackpressurePolicy.forConsumer("ndjson", BackpressurePolicy.BLOCK), ndjsonSink, anomalies);
+            } catch (IOException e) {
+                System.err.println("NDJSON log disabled, cannot open " + ndjsonDir + ": " + e.getMessage());
+            }
+        }
+        if (VitalsConfig.getBoolean("vitals.snapshot.enabled", true)) {
+            Path snapshotPath = SnapshotLayout.defaultPath();
+            try {
+                // Readers only want the newest sample, and it should carry its anomaly flags
+                snapshotWriter = new SnapshotWriter(snapshotPath);
+                eventBus.subscribe("snapshot", BackpressurePolicy.forConsumer("snapshot", BackpressurePolicy.LATEST),
+                        snapshotWriter, anomalies);
+            } catch (IOException e) {
+                System.err.println("Live snapshot disabled, cannot map " + snapshotPath + ": " + e.getMessage());
+            }
+        }
+        if (agentClient != null) {
+            // The agent buffers and drops oldest itself; offer() never blocks
+            eventBus.subscribe("agent", BackpressurePolicy.forConsumer("agent", BackpressurePolicy.DROP_OLDEST),
+                    (event, sequence, endOfBatch) -> agentClient.offer(event.getSample()));
+        }
+    }
+
+    /**
+     * The bus carrying this collector's samples; further sinks such as exporters subscribe here.
+     */
+    public SampleEventBus getEventBus() {
+        return eventBus;
     }
 
     @Override
     public void run() {
-        while (true) {
-            // Fetch live stats
+        while (running) {
+            // Fetch live stats, stamped with the time they were actually sampled
+            long timestamp = System.currentTimeMillis();
             CPUUsage cpu = infoController.getLatestCPUUsage();
             MemoryUsage memory = infoController.getLatestMemoryUsage();
-            DiskUsage disk = infoController.getLatestDiskUsage();
+            DiskUsage disk = getDiskUsage(timestamp);
             NetworkActivity network = infoController.getLatestNetworkActivity();
+            SystemSample sample = new SystemSample(timestamp, cpu, memory, disk, network,
+                    infoController.getLatestInterfaceActivity());
 
-            // Update UI on the JavaFX Application Thread
-            Platform.runLater(() -> {
-                dashboardController.updateCPUUsage(cpu.usagePercentage());
-                dashboardController.updateMemoryUsage(memory.totalGB(), memory.usedGB(), memory.availableGB());
-                double availableDiskGB = disk.totalGB() - disk.usedGB();
-                dashboardController.updateDiskUsage(disk.totalGB(), disk.usedGB(), availableDiskGB);
-                dashboardController.updateNetworkActivity(network.uploadSpeedKbps(), network.downloadSpeedKbps());
-            });
-
-            // Log metrics into the SQLite DB
-            historicalDataDAO.logMetrics(cpu.usagePercentage(), memory.usedGB(), memory.totalGB(), memory.availableGB());
+            // Hand the sample to every sink; only a BLOCK consumer a whole ring behind can make this wait
+            eventBus.publish(sample);
 
+            // Sleep for the adaptive interval, minus the time this tick already took
+            long interval = sampler.nextInterval(sample);
+            long sleepMs = interval - (System.currentTimeMillis() - timestamp);
             try {
-                Thread.sleep(2000); // update every 2 seconds
+                if (sleepMs > 0) {
+                    Thread.sleep(sleepMs);
+                }
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stops collecting and lets every sink finish the samples already published.
+     */
+    @Override
+    public void close() {
+        running = false;
+        eventBus.close();
+        if (ndjsonSink != null) {
+            ndjsonSink.close();
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+        }
+    }
+
+    private DiskUsage getDiskUsage(long timestamp) {
+        if (lastDisk == null || timestamp - lastDiskRefresh >= sampler.getSlowIntervalMs()) {
+            lastDisk = infoController.getLatestDiskUsage();
+            lastDiskRefresh = timestamp;
+        }
+        return lastDisk;
+    }
+
+    /**
+     * Writes samples as they come, or in one transaction per catch-up batch when storage fell behind.
+     */
+    private static final class StorageHandler implements SampleHandler {
+        private static final int MAX_BATCH = 512;
+
+        private final HistoricalDataDAO historicalDataDAO;
+        private final List<SystemSample> samples = new ArrayList<>();
+        private int[] anomalyFlags = new int[16];
+
+        private StorageHandler(HistoricalDataDAO historicalDataDAO) {
+            this.historicalDataDAO = historicalDataDAO;
+        }
+
+        @Override
+        public void onSample(SampleEvent event, long sequence, boolean endOfBatch) {
+            if (samples.size() == anomalyFlags.length) {
+                anomalyFlags = Arrays.copyOf(anomalyFlags, anomalyFlags.length * 2);
+            }
+            anomalyFlags[samples.size()] = event.getAnomalyFlags();
+            samples.add(event.getSample());
+            if (endOfBatch || samples.size() >= MAX_BATCH) {
+                historicalDataDAO.logSamples(HistoricalDataDAO.LOCAL_HOST, samples, anomalyFlags);
+                samples.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.vitals.utils;
+
+/**
+ * Exponentially weighted least-squares line through a series, updated in O(1) per point.
+ * Only six weighted sums are kept; older points fade with the configured half-life, so the trend
+ * follows recent growth without ever refitting over history. Time is kept relative to the newest
+ * point, in hours, which keeps the sums well conditioned however long the model runs.
+ */
+public class TrendModel {
+
+    private final double decayPerHour;
+
+    // Weighted sums of 1, t, y, t^2, t*y and y^2 with t in hours relative to the newest point
+    private double s0;
+    private double st;
+    private double sy;
+    private double stt;
+    private double sty;
+    private double syy;
+    private long newestMs;
+    private long points;
+
+    public TrendModel(double halfLifeHours) {
+        this.decayPerHour = Math.log(2) / halfLifeHours;
+    }
+
+    public void add(long epochMs, double value) {
+        if (points > 0) {
+            double dt = (epochMs - newestMs) / 3_600_000.0;
+            // Move the origin to the new point (t' = t - dt), then fade every earlier point
+            double shiftedStt = stt - 2 * dt * st + dt * dt * s0;
+            double shiftedSty = sty - dt * sy;
+            double shiftedSt = st - dt * s0;
+            double weight = Math.exp(-decayPerHour * Math.max(0, dt));
+            s0 *= weight;
+            st = shiftedSt * weight;
+            sy *= weight;
+            stt = shiftedStt * weight;
+            sty = shiftedSty * weight;
+            syy *= weight;
+        }
+        // The new point sits at t = 0, so it only adds to the count and the value sums
+        s0 += 1;
+        sy += value;
+        syy += value * value;
+        newestMs = epochMs;
+        points++;
+    }
+
+    public long getPoints() {
+        return points;
+    }
+
+    /**
+     * Fitted growth per hour, NaN until the points span some time.
+     */
+    public double slopePerHour() {
+        double denominator = s0 * stt - st * st;
+        if (points < 2 || denominator <= 1e-12 * s0 * s0) {
+            return Double.NaN;
+        }
+        return (s0 * sty - st * sy) / denominator;
+    }
+
+    /**
+     * Standard error of the slope from the weighted residuals, NaN until there are a few points.
+     * A slope within about two standard errors of zero is noise rather than growth.
+     */
+    public double slopeStandardError() {
+        double slope = slopePerHour();
+        if (Double.isNaN(slope) || s0 <= 2) {
+            return Double.NaN;
+        }
+        double sttCentered = stt - st * st / s0;
+        double residuals = Math.max(0, syy - sy * sy / s0 - slope * (sty - st * sy / s0));
+        return Math.sqrt(residuals / (s0 - 2) / sttCentered);
+    }
+
+    /**
+     * Fitted value at the newest point.
+     */
+    public double level() {
+        double slope = slopePerHour();
+        return Double.isNaN(slope) ? (s0 == 0 ? Double.NaN : sy / s0) : (sy - slope * st) / s0;
+    }
+
+    /**
+     * Hours from the newest point until the fitted line reaches the limit: 0 if it already has,
+     * infinity if the series is not growing, NaN without a trend yet.
+     * Growth within two standard errors of zero is noise and counts as not growing.
+     */
+    public double hoursUntil(double limit) {
+        double slope = slopePerHour();
+        if (Double.isNaN(slope)) {
+            return Double.NaN;
+        }
+        double remaining = limit - level();
+        if (remaining <= 0) {
+            return 0;
+        }
+        return slope > 2 * slopeStandardError() ? remaining / slope : Double.POSITIVE_INFINITY;
+    }
+}
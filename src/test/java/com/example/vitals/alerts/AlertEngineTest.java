@@ -0,0 +1,97 @@
+package com.example.vitals.alerts;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertEngineTest {
+
+    private final AlertEngine engine = new AlertEngine();
+    private final List<AlertEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        engine.addSink(events::add);
+    }
+
+    @Test
+    void firesOnlyAfterTheBreachIsSustained() {
+        engine.addRule(AlertRule.parse("CPU high: CPU_USAGE > 90 for 30s"));
+
+        engine.evaluate(cpuSample(0, 95));
+        engine.evaluate(cpuSample(20_000, 95));
+        assertTrue(events.isEmpty());
+
+        engine.evaluate(cpuSample(30_000, 95));
+        assertEquals(1, events.size());
+        assertTrue(events.getFirst().firing());
+        assertEquals(30_000, events.getFirst().timestamp());
+
+        // Already firing: no repeated notifications
+        engine.evaluate(cpuSample(40_000, 99));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void aDipRestartsTheSustainPeriod() {
+        engine.addRule(AlertRule.parse("CPU high: CPU_USAGE > 90 for 30s"));
+
+        engine.evaluate(cpuSample(0, 95));
+        engine.evaluate(cpuSample(20_000, 50));
+        engine.evaluate(cpuSample(25_000, 95));
+        engine.evaluate(cpuSample(50_000, 95));
+        assertTrue(events.isEmpty());
+
+        engine.evaluate(cpuSample(55_000, 95));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void resolvesOnlyPastTheClearLevel() {
+        engine.addRule(AlertRule.parse("CPU high: CPU_USAGE > 90 clear 80"));
+
+        engine.evaluate(cpuSample(0, 95));
+        engine.evaluate(cpuSample(1_000, 85));
+        assertEquals(1, events.size());
+
+        engine.evaluate(cpuSample(2_000, 80));
+        assertEquals(2, events.size());
+        assertFalse(events.get(1).firing());
+    }
+
+    @Test
+    void waitsForTheRearmDelayBeforeFiringAgain() {
+        engine.addRule(AlertRule.parse("CPU high: CPU_USAGE > 90 rearm 60s"));
+
+        engine.evaluate(cpuSample(0, 95));
+        engine.evaluate(cpuSample(1_000, 50));
+        engine.evaluate(cpuSample(30_000, 95));
+        assertEquals(2, events.size());
+
+        engine.evaluate(cpuSample(61_000, 95));
+        assertEquals(3, events.size());
+        assertTrue(events.get(2).firing());
+    }
+
+    @Test
+    void rejectsAClearLevelOnTheBreachedSide() {
+        assertThrows(IllegalArgumentException.class, () -> AlertRule.parse("CPU high: CPU_USAGE > 90 clear 95"));
+    }
+
+    private static SystemSample cpuSample(long timestamp, int cpuPercent) {
+        return new SystemSample(timestamp, new CPUUsage(cpuPercent, 0, 0, 0), new MemoryUsage(16, 8, 0, 8),
+                new DiskUsage(100, "/", 500), new NetworkActivity(0, 0));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.vitals.bus;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SampleEventBusTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        try (SampleEventBus bus = new SampleEventBus(100)) {
+            assertEquals(128, bus.getCapacity());
+        }
+    }
+
+    @Test
+    void blockingConsumerSeesEverySampleInOrderAcrossWraps() {
+        List<Long> seen = new ArrayList<>();
+        SampleEventBus bus = new SampleEventBus(8);
+        SampleEventBus.Consumer consumer = bus.subscribe("storage", BackpressurePolicy.BLOCK,
+                (event, sequence, endOfBatch) -> seen.add(event.getSample().timestamp()));
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(i, bus.publish(sample(i)));
+        }
+        bus.close();
+
+        assertEquals(10_000, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i, seen.get(i));
+        }
+        assertEquals(0, consumer.getDropped());
+        assertEquals(-1, bus.publish(sample(10_000)));
+    }
+
+    @Test
+    void collectorWaitsForABlockingConsumerOneRingBehind() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SampleEventBus bus = new SampleEventBus(8);
+        bus.subscribe("storage", BackpressurePolicy.BLOCK, (event, sequence, endOfBatch) -> release.await());
+
+        Thread collector = new Thread(() -> {
+            for (long i = 0; i < 20; i++) {
+                bus.publish(sample(i));
+            }
+        });
+        collector.start();
+        collector.join(300);
+
+        // The consumer holds the first slot, so the collector fills the ring and waits there
+        assertTrue(collector.isAlive());
+        assertEquals(bus.getCapacity() - 1, bus.getCursor());
+
+        release.countDown();
+        collector.join(5_000);
+        assertEquals(19, bus.getCursor());
+        bus.close();
+    }
+
+    @Test
+    void latestConsumerNeverHoldsTheCollectorBack() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> seen = new ArrayList<>();
+        SampleEventBus bus = new SampleEventBus(8);
+        SampleEventBus.Consumer display = bus.subscribe("display", BackpressurePolicy.LATEST, (event, sequence, endOfBatch) -> {
+            started.countDown();
+            release.await();
+            seen.add(event.getSample().timestamp());
+        });
+
+        bus.publish(sample(0));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // The display is stuck on the first sample while the collector laps the ring many times
+        for (long i = 1; i < 1_000; i++) {
+            bus.publish(sample(i));
+        }
+        release.countDown();
+        bus.close();
+
+        assertEquals(1_000, display.getProcessed() + display.getDropped());
+        assertTrue(display.getDropped() > 0);
+        assertEquals(999, seen.getLast());
+    }
+
+    @Test
+    void dependentStageSeesTheFlagsOfTheStageBeforeIt() {
+        List<Integer> flags = new ArrayList<>();
+        SampleEventBus bus = new SampleEventBus(8);
+        SampleEventBus.Consumer detector = bus.subscribe("anomaly", BackpressurePolicy.BLOCK,
+                (event, sequence, endOfBatch) -> event.setAnomalyFlags((int) (sequence % 4)));
+        bus.subscribe("storage", BackpressurePolicy.BLOCK,
+                (event, sequence, endOfBatch) -> flags.add(event.getAnomalyFlags()), detector);
+        for (long i = 0; i < 100; i++) {
+            bus.publish(sample(i));
+        }
+        bus.close();
+
+        assertEquals(100, flags.size());
+        for (int i = 0; i < flags.size(); i++) {
+            assertEquals(i % 4, flags.get(i));
+        }
+    }
+
+    @Test
+    void onlyBlockingConsumersCanBeDependedOn() {
+        try (SampleEventBus bus = new SampleEventBus(8)) {
+            SampleEventBus.Consumer display = bus.subscribe("display", BackpressurePolicy.LATEST, (event, sequence, endOfBatch) -> {
+            });
+            assertThrows(IllegalArgumentException.class, () -> bus.subscribe("storage", BackpressurePolicy.BLOCK,
+                    (event, sequence, endOfBatch) -> {
+                    }, display));
+        }
+    }
+
+    private static SystemSample sample(long timestamp) {
+        return new SystemSample(timestamp, new CPUUsage(10, 0, 0, 0), new MemoryUsage(16, 8, 0, 8),
+                new DiskUsage(100, "/", 500), new NetworkActivity(0, 0));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.vitals.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DeadbandTest {
+
+    // Large enough that available memory stays within its tolerance while used memory moves
+    private static final double MEMORY_TOTAL = 1_000;
+
+    // Default tolerances: 2 percentage points of CPU, 1% of memory
+    private final Deadband.Channel channel = Deadband.metricChannel();
+
+    @Test
+    void storesTheFirstRowAndSkipsUnchangedOnes() {
+        assertEquals(Deadband.Decision.STORE, offer(0, false, "r0", 10, 8));
+        assertEquals(Deadband.Decision.SKIP, offer(2_000, false, "r1", 11.5, 8.05));
+        assertEquals(Deadband.Decision.SKIP, offer(4_000, false, "r2", 8.5, 7.95));
+    }
+
+    @Test
+    void storesTheEndOfThePlateauBeforeAChange() {
+        offer(0, false, "r0", 10, 8);
+        offer(2_000, false, "r1", 11, 8);
+        offer(4_000, false, "r2", 11, 8);
+
+        assertEquals(Deadband.Decision.STORE_HELD_AND_CURRENT, offer(6_000, false, "r3", 40, 8));
+        assertEquals(4_000, channel.heldEpochMs());
+        assertEquals("r2", channel.takeHeld());
+        assertNull(channel.takeHeld());
+
+        // The change becomes the new reference
+        assertEquals(Deadband.Decision.SKIP, offer(8_000, false, "r4", 41, 8));
+    }
+
+    @Test
+    void aChangeRightAfterAStoredRowHasNoHeldRow() {
+        offer(0, false, "r0", 10, 8);
+        assertEquals(Deadband.Decision.STORE, offer(2_000, false, "r1", 40, 8));
+        assertEquals(Deadband.Decision.STORE, offer(4_000, false, "r2", 10, 8));
+    }
+
+    @Test
+    void memoryToleranceIsRelative() {
+        offer(0, false, "r0", 10, 100);
+        assertEquals(Deadband.Decision.SKIP, offer(2_000, false, "r1", 10, 100.9));
+        assertEquals(Deadband.Decision.STORE_HELD_AND_CURRENT, offer(4_000, false, "r2", 10, 101.5));
+    }
+
+    @Test
+    void heartbeatStoresWithoutTheHeldRow() {
+        offer(0, false, "r0", 10, 8);
+        offer(30_000, false, "r1", 10, 8);
+
+        assertEquals(Deadband.Decision.STORE, offer(Deadband.HEARTBEAT_MS, false, "r2", 10, 8));
+        assertNull(channel.takeHeld());
+    }
+
+    @Test
+    void forcedRowIsStoredWithTheHeldRow() {
+        offer(0, false, "r0", 10, 8);
+        offer(2_000, false, "r1", 10, 8);
+
+        assertEquals(Deadband.Decision.STORE_HELD_AND_CURRENT, offer(4_000, true, "r2", 10, 8));
+        assertEquals("r1", channel.takeHeld());
+    }
+
+    @Test
+    void missingValueCountsAsAChange() {
+        offer(0, false, "r0", 10, 8);
+        assertEquals(Deadband.Decision.STORE, offer(2_000, false, "r1", Double.NaN, 8));
+        assertEquals(Deadband.Decision.SKIP, offer(4_000, false, "r2", Double.NaN, 8));
+    }
+
+    private Deadband.Decision offer(long epochMs, boolean force, String row, double cpu, double memoryUsed) {
+        return channel.offer(epochMs, force, row, cpu, memoryUsed, MEMORY_TOTAL - memoryUsed, MEMORY_TOTAL);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.vitals.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricRollupsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void burstOfFastSamplesDoesNotOutweighTheIdleTime() {
+        MetricRollups.Bucket bucket = new MetricRollups.Bucket(LocalDateTime.of(2026, 1, 1, 10, 0));
+        // 20 idle minutes sampled every 10 s, then a 30 s burst sampled every 250 ms
+        for (int i = 0; i < 120; i++) {
+            bucket.add(5, 8, 0, 10_000);
+        }
+        for (int i = 0; i < 120; i++) {
+            bucket.add(90, 8, 0, 250);
+        }
+
+        assertEquals(240, bucket.getSamples());
+        assertEquals(1_230_000, bucket.getWeightMs());
+        assertEquals(5, bucket.getCpuSketch().getValueAtQuantile(0.5), 5 * 0.01);
+        assertEquals(5, bucket.getCpuSketch().getValueAtQuantile(0.95), 5 * 0.01);
+        assertEquals(90, bucket.getCpuSketch().getValueAtQuantile(0.99), 90 * 0.01);
+    }
+
+    @Test
+    void mergedBucketsKeepTheTimeWeightedMean() {
+        MetricRollups.Bucket first = new MetricRollups.Bucket(LocalDateTime.of(2026, 1, 1, 10, 0));
+        first.add(10, 4, 1, 10_000);
+        MetricRollups.Bucket second = new MetricRollups.Bucket(LocalDateTime.of(2026, 1, 1, 10, 1));
+        second.add(10, 12, 2, 250);
+        second.add(10, 12, 0, 250);
+
+        first.merge(second);
+
+        assertEquals(3, first.getSamples());
+        assertEquals((4 * 10_000 + 12 * 500) / 10_500.0, first.getMemoryMean(), EPSILON);
+        assertEquals(1 | 2, first.getAnomalyFlags());
+    }
+}
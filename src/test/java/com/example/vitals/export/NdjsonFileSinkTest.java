@@ -0,0 +1,359 @@
+package com.example.vitals.export;
+
+import com.example.vitals.bus.BackpressurePolicy;
+import com.example.vitals.bus.SampleEventBus;
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.InterfaceActivity;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NdjsonFileSinkTest {
+
+    private static final String[] GB_FIELDS = {"memTotalGB", "memUsedGB", "memCacheGB", "memAvailableGB", "diskUsedGB", "diskTotalGB"};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void timestampsMatchInstantToString() throws IOException {
+        List<Long> times = new ArrayList<>(List.of(
+                1L, -1L, 999L, -999L,
+                951_782_400_123L,      // 2000-02-29, leap day of a leap century
+                4_107_542_399_999L,    // 2100-02-28, the century after is not a leap year
+                -2_208_988_799_999L,   // 1900-01-01
+                -12_219_292_799_001L,  // 1582, before the Gregorian calendar
+                -62_135_596_799_999L,  // 0001-01-01
+                253_402_300_799_999L)); // 9999-12-31T23:59:59.999
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 2_000; i++) {
+            times.add(random.nextLong(-62_135_596_800_000L, 253_402_300_800_000L));
+        }
+        List<SystemSample> samples = new ArrayList<>();
+        for (long time : times) {
+            samples.add(sample(time));
+        }
+
+        List<Map<String, Object>> lines = write("host", samples);
+        for (int i = 0; i < times.size(); i++) {
+            Instant expected = Instant.ofEpochMilli(times.get(i));
+            String ts = (String) lines.get(i).get("ts");
+            assertEquals(expected, Instant.parse(ts), ts);
+            // Instant.toString leaves out a zero millisecond part
+            String text = expected.getNano() == 0 ? ts.replace(".000Z", "Z") : ts;
+            assertEquals(expected.toString(), text);
+        }
+    }
+
+    @Test
+    void decimalsAreRoundedHalfUpWithTrailingZerosDropped() throws IOException {
+        SplittableRandom random = new SplittableRandom(11);
+        List<double[]> values = new ArrayList<>();
+        List<SystemSample> samples = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            double[] gb = new double[GB_FIELDS.length];
+            for (int f = 0; f < gb.length; f++) {
+                gb[f] = switch (random.nextInt(4)) {
+                    // Ties and near ties in decimal, which are rarely exact in binary
+                    case 0 -> (random.nextLong(-2_000_000, 2_000_000) + 0.5) / 1_000;
+                    case 1 -> random.nextLong(-2_000, 2_000) / 1_000.0;
+                    case 2 -> random.nextDouble(-1, 1) * Math.pow(10, random.nextInt(-4, 10));
+                    default -> random.nextDouble(-1e-3, 1e-3);
+                };
+            }
+            values.add(gb);
+            samples.add(new SystemSample(i, new CPUUsage(10, 40, 3_000, 200),
+                    new MemoryUsage(gb[0], gb[1], gb[2], gb[3]), new DiskUsage(gb[4], "/", gb[5]),
+                    new NetworkActivity(1, 2),
+                    List.of(new InterfaceActivity("eth0", gb[0], gb[1], gb[2], gb[3], gb[4]))));
+        }
+
+        List<Map<String, Object>> lines = write("host", samples);
+        for (int i = 0; i < samples.size(); i++) {
+            double[] gb = values.get(i);
+            Map<String, Object> line = lines.get(i);
+            for (int f = 0; f < GB_FIELDS.length; f++) {
+                assertDecimal(gb[f], 3, line.get(GB_FIELDS[f]));
+            }
+            Map<?, ?> nic = (Map<?, ?>) ((List<?>) line.get("interfaces")).getFirst();
+            assertDecimal(gb[0], 1, nic.get("rxBytesPerSec"));
+            assertDecimal(gb[1], 1, nic.get("txBytesPerSec"));
+            assertDecimal(gb[2], 1, nic.get("rxPacketsPerSec"));
+            assertDecimal(gb[3], 1, nic.get("txPacketsPerSec"));
+            assertDecimal(gb[4], 2, nic.get("errorsPerSec"));
+        }
+    }
+
+    @Test
+    void nonFiniteNumbersAreWrittenAsNull() throws IOException {
+        SystemSample sample = new SystemSample(0, new CPUUsage(-5, -40, 0, 0),
+                new MemoryUsage(Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0),
+                new DiskUsage(-1.25, "/", 100), new NetworkActivity(-3, 0));
+
+        Map<String, Object> line = write("host", List.of(sample)).getFirst();
+        assertNull(line.get("memTotalGB"));
+        assertNull(line.get("memUsedGB"));
+        assertNull(line.get("memCacheGB"));
+        assertTrue(line.containsKey("memCacheGB"));
+        assertEquals(new BigDecimal("0"), line.get("memAvailableGB"));
+        assertEquals(new BigDecimal("-1.25"), line.get("diskUsedGB"));
+        assertEquals(new BigDecimal("-5"), line.get("cpu"));
+        assertEquals(new BigDecimal("-40"), line.get("cpuTempC"));
+        assertEquals(new BigDecimal("-3"), line.get("uploadKbps"));
+    }
+
+    @Test
+    void namesAreEscapedAndEncodedAsUtf8() throws IOException {
+        String host = "büro-\"rack\\7\"\t日本🖥";
+        String drive = "/media/Données/\u0001\u007F߿ࠀ￿";
+        String nicName = "wlan-café-📶";
+        SystemSample sample = new SystemSample(0, new CPUUsage(1, 40, 3_000, 200),
+                new MemoryUsage(8, 4, 1, 3), new DiskUsage(1, drive, 2), new NetworkActivity(1, 2),
+                List.of(new InterfaceActivity(nicName, 1, 2, 3, 4, 0)));
+
+        Map<String, Object> line = write(host, List.of(sample)).getFirst();
+        assertEquals(host, line.get("host"));
+        assertEquals(drive, line.get("disk"));
+        assertEquals(nicName, ((Map<?, ?>) ((List<?>) line.get("interfaces")).getFirst()).get("name"));
+    }
+
+    private static void assertDecimal(double value, int decimals, Object actual) {
+        BigDecimal expected = new BigDecimal(value).setScale(decimals, RoundingMode.HALF_UP);
+        BigDecimal written = (BigDecimal) actual;
+        assertEquals(0, expected.compareTo(written), value + " to " + decimals + " decimals");
+        assertEquals(Math.max(0, expected.stripTrailingZeros().scale()), written.scale(), value + " written as " + written);
+    }
+
+    private static SystemSample sample(long timestamp) {
+        return new SystemSample(timestamp, new CPUUsage(10, 40, 3_000, 200),
+                new MemoryUsage(8, 4, 1, 3), new DiskUsage(100, "/", 200), new NetworkActivity(1, 2));
+    }
+
+    // Publishes the samples through a bus as the app does, then parses every line of the file
+    private List<Map<String, Object>> write(String host, List<SystemSample> samples) throws IOException {
+        NdjsonFileSink sink = new NdjsonFileSink(directory, 0, 0, 0, host);
+        SampleEventBus bus = new SampleEventBus(64);
+        bus.subscribe("ndjson", BackpressurePolicy.BLOCK, sink);
+        for (SystemSample sample : samples) {
+            bus.publish(sample);
+        }
+        bus.close();
+        sink.close();
+
+        byte[] bytes = Files.readAllBytes(directory.resolve(NdjsonFileSink.ACTIVE_FILE));
+        String text = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(bytes)).toString();
+        assertTrue(text.endsWith("\n"));
+        String[] rows = text.split("\n");
+        assertEquals(samples.size(), rows.length);
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (String row : rows) {
+            Object value = new JsonReader(row).readDocument();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> object = (Map<String, Object>) value;
+            lines.add(object);
+        }
+        return lines;
+    }
+
+    /**
+     * Strict RFC 8259 reader; numbers become BigDecimal so their exact text can be checked.
+     */
+    private static final class JsonReader {
+
+        private final String text;
+        private int pos;
+
+        JsonReader(String text) {
+            this.text = text;
+        }
+
+        Object readDocument() {
+            Object value = readValue();
+            if (pos != text.length()) {
+                throw error("trailing characters");
+            }
+            return value;
+        }
+
+        private Object readValue() {
+            if (pos >= text.length()) {
+                throw error("unexpected end");
+            }
+            char c = text.charAt(pos);
+            return switch (c) {
+                case '{' -> readObject();
+                case '[' -> readArray();
+                case '"' -> readString();
+                case 't' -> readLiteral("true", Boolean.TRUE);
+                case 'f' -> readLiteral("false", Boolean.FALSE);
+                case 'n' -> readLiteral("null", null);
+                default -> readNumber();
+            };
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            do {
+                String key = readString();
+                if (object.containsKey(key)) {
+                    throw error("duplicate key " + key);
+                }
+                expect(':');
+                object.put(key, readValue());
+            } while (tryConsume(','));
+            expect('}');
+            return object;
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            expect('[');
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            do {
+                array.add(readValue());
+            } while (tryConsume(','));
+            expect(']');
+            return array;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c < 0x20) {
+                    throw error("unescaped control character");
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escape = next();
+                switch (escape) {
+                    case '"', '\\', '/' -> sb.append(escape);
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw error("short unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> throw error("bad escape");
+                }
+            }
+        }
+
+        private BigDecimal readNumber() {
+            int start = pos;
+            tryConsume('-');
+            if (tryConsume('0')) {
+                if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    throw error("leading zero");
+                }
+            } else {
+                digits();
+            }
+            if (tryConsume('.')) {
+                digits();
+            }
+            if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                pos++;
+                if (!tryConsume('+')) {
+                    tryConsume('-');
+                }
+                digits();
+            }
+            return new BigDecimal(text.substring(start, pos));
+        }
+
+        private void digits() {
+            int start = pos;
+            while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("digit expected");
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if (!text.startsWith(literal, pos)) {
+                throw error("bad literal");
+            }
+            pos += literal.length();
+            return value;
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("unexpected end");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error("'" + c + "' expected");
+            }
+        }
+
+        private boolean tryConsume(char c) {
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in " + text);
+        }
+    }
+}
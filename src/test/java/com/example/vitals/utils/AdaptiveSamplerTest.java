@@ -0,0 +1,88 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.models.CPUUsage;
+import com.example.vitals.models.DiskUsage;
+import com.example.vitals.models.MemoryUsage;
+import com.example.vitals.models.NetworkActivity;
+import com.example.vitals.models.SystemSample;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AdaptiveSamplerTest {
+
+    private static final long SLOW_MS = 10_000;
+    private static final long FAST_MS = 250;
+    private static final long HOLD_MS = 5_000;
+
+    private final AdaptiveSampler sampler = new AdaptiveSampler(true, SLOW_MS, FAST_MS, HOLD_MS);
+
+    @Test
+    void staysSlowWhileFlat() {
+        assertEquals(SLOW_MS, sampler.nextInterval(sample(0, 5, 8, 100)));
+        assertEquals(SLOW_MS, sampler.nextInterval(sample(10_000, 8, 8.1, 300)));
+        assertEquals(SLOW_MS, sampler.nextInterval(sample(20_000, 4, 8, 0)));
+    }
+
+    @Test
+    void cpuSpikeSwitchesToFastOnTheFirstSlowTick() {
+        sampler.nextInterval(sample(0, 5, 8, 0));
+        sampler.nextInterval(sample(10_000, 5, 8, 0));
+
+        // 55 points in 10 s is only 5.5 points per second, but the step alone counts as activity
+        assertEquals(FAST_MS, sampler.nextInterval(sample(20_000, 60, 8, 0)));
+    }
+
+    @Test
+    void memoryAndNetworkJumpsSwitchToFastOnTheFirstSlowTick() {
+        sampler.nextInterval(sample(0, 5, 8, 0));
+        assertEquals(FAST_MS, sampler.nextInterval(sample(10_000, 5, 8.6, 0)));
+
+        AdaptiveSampler network = new AdaptiveSampler(true, SLOW_MS, FAST_MS, HOLD_MS);
+        network.nextInterval(sample(0, 5, 8, 0));
+        assertEquals(FAST_MS, network.nextInterval(sample(10_000, 5, 8, 6_000)));
+    }
+
+    @Test
+    void fastRateOfChangeKeepsSamplingFast() {
+        sampler.nextInterval(sample(0, 5, 8, 0));
+        sampler.nextInterval(sample(10_000, 60, 8, 0));
+
+        // 5 points in 250 ms is 20 points per second, above the rate although below the step
+        assertEquals(FAST_MS, sampler.nextInterval(sample(10_250, 65, 8, 0)));
+    }
+
+    @Test
+    void decaysBackToSlowAfterTheHoldPeriod() {
+        sampler.nextInterval(sample(0, 5, 8, 0));
+        long now = 10_000;
+        assertEquals(FAST_MS, sampler.nextInterval(sample(now, 60, 8, 0)));
+
+        long interval = FAST_MS;
+        while (now < 10_000 + HOLD_MS) {
+            now += interval;
+            interval = sampler.nextInterval(sample(now, 60, 8, 0));
+            if (now - 10_000 < HOLD_MS) {
+                assertEquals(FAST_MS, interval);
+            }
+        }
+        assertEquals(2 * FAST_MS, interval);
+        while (interval < SLOW_MS) {
+            now += interval;
+            long next = sampler.nextInterval(sample(now, 60, 8, 0));
+            assertEquals(Math.min(SLOW_MS, interval * 2), next);
+            interval = next;
+        }
+    }
+
+    @Test
+    void crossingTheCpuLevelCountsAsActivity() {
+        sampler.nextInterval(sample(0, 75, 8, 0));
+        assertEquals(FAST_MS, sampler.nextInterval(sample(10_000, 82, 8, 0)));
+    }
+
+    private static SystemSample sample(long timestamp, int cpuPercent, double memoryUsedGB, int downloadKbps) {
+        return new SystemSample(timestamp, new CPUUsage(cpuPercent, 0, 0, 0), new MemoryUsage(16, memoryUsedGB, 0, 16 - memoryUsedGB),
+                new DiskUsage(100, "/", 500), new NetworkActivity(0, downloadKbps));
+    }
+}
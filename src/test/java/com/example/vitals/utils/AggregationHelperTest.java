@@ -0,0 +1,106 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.dao.Deadband;
+import com.example.vitals.dao.InterfaceColumns;
+import com.example.vitals.dao.MetricColumns;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregationHelperTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void weightsEveryRowByTheTimeItHolds() {
+        MetricColumns rows = new MetricColumns(3);
+        rows.add(0, 10, 4, 16, 12, 1);
+        rows.add(20_000, 20, 4, 16, 12, 2);
+        rows.add(40_000, 0, 4, 16, 12, 4);
+
+        MetricColumns buckets = AggregationHelper.aggregate(rows, 0, 60_000, 30_000, Deadband.Interpolation.STEP);
+
+        assertEquals(2, buckets.size());
+        assertEquals(0, buckets.epochMs(0));
+        assertEquals((10 * 20 + 20 * 10) / 30.0, buckets.cpuUsage(0), EPSILON);
+        assertEquals(30_000, buckets.epochMs(1));
+        assertEquals((20 * 10 + 0 * 20) / 30.0, buckets.cpuUsage(1), EPSILON);
+        assertEquals(4, buckets.memoryUsed(1), EPSILON);
+        // A bucket carries the flags of the rows stored in it, not of the ones held into it
+        assertEquals(1 | 2, buckets.anomalyFlags(0));
+        assertEquals(4, buckets.anomalyFlags(1));
+    }
+
+    @Test
+    void rowBeforeTheRangeCarriesItsValueIn() {
+        MetricColumns rows = new MetricColumns(2);
+        rows.add(-10_000, 40, 4, 16, 12, 0);
+        rows.add(15_000, 0, 4, 16, 12, 0);
+
+        MetricColumns buckets = AggregationHelper.aggregate(rows, 0, 30_000, 30_000, Deadband.Interpolation.STEP);
+
+        assertEquals(1, buckets.size());
+        assertEquals(20, buckets.cpuUsage(0), EPSILON);
+    }
+
+    @Test
+    void outageIsOnlyFilledForTheLongestRowSpan() {
+        long bucketMs = 10_000;
+        long outageEnd = Deadband.MAX_ROW_SPAN_MS + 5 * bucketMs;
+        MetricColumns rows = new MetricColumns(2);
+        rows.add(0, 50, 4, 16, 12, 0);
+        rows.add(outageEnd, 50, 4, 16, 12, 0);
+
+        MetricColumns buckets = AggregationHelper.aggregate(rows, 0, outageEnd + bucketMs, bucketMs, Deadband.Interpolation.STEP);
+
+        long heldBuckets = Math.ceilDiv(Deadband.MAX_ROW_SPAN_MS, bucketMs);
+        assertEquals(heldBuckets + 1, buckets.size());
+        assertEquals((heldBuckets - 1) * bucketMs, buckets.epochMs((int) heldBuckets - 1));
+        assertEquals(Math.floorDiv(outageEnd, bucketMs) * bucketMs, buckets.lastEpochMs());
+        for (int row = 0; row < buckets.size(); row++) {
+            assertEquals(50, buckets.cpuUsage(row), EPSILON);
+        }
+    }
+
+    @Test
+    void linearInterpolationMovesBetweenRows() {
+        MetricColumns rows = new MetricColumns(2);
+        rows.add(0, 0, 4, 16, 12, 0);
+        rows.add(30_000, 30, 4, 16, 12, 0);
+
+        MetricColumns buckets = AggregationHelper.aggregate(rows, 0, 30_000, 10_000, Deadband.Interpolation.LINEAR);
+
+        assertEquals(3, buckets.size());
+        assertEquals(5, buckets.cpuUsage(0), EPSILON);
+        assertEquals(15, buckets.cpuUsage(1), EPSILON);
+        assertEquals(25, buckets.cpuUsage(2), EPSILON);
+    }
+
+    @Test
+    void bucketsAreAlignedToTheEpoch() {
+        MetricColumns rows = new MetricColumns(2);
+        rows.add(0, 10, 4, 16, 12, 0);
+        rows.add(50_000, 10, 4, 16, 12, 0);
+
+        MetricColumns buckets = AggregationHelper.aggregate(rows, 5_000, 45_000, 20_000, Deadband.Interpolation.STEP);
+
+        assertEquals(3, buckets.size());
+        assertEquals(0, buckets.epochMs(0));
+        assertEquals(20_000, buckets.epochMs(1));
+        assertEquals(40_000, buckets.epochMs(2));
+    }
+
+    @Test
+    void interfacePeakIsTheHighestHeldRate() {
+        InterfaceColumns rows = new InterfaceColumns("eth0", 3);
+        rows.add(0, 100, 10, 100, 0);
+        rows.add(5_000, 900, 10, 900, 0);
+        rows.add(10_000, 100, 10, 100, 0);
+
+        InterfaceColumns buckets = AggregationHelper.aggregate(rows, 0, 20_000, 20_000, Deadband.Interpolation.STEP);
+
+        assertEquals(1, buckets.size());
+        assertEquals(900, buckets.peakBytesPerSec(0), EPSILON);
+        assertEquals((100 * 5 + 900 * 5 + 100 * 10) / 20.0, buckets.rxBytesPerSec(0), EPSILON);
+    }
+}
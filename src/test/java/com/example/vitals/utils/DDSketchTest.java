@@ -0,0 +1,93 @@
+package com.example.vitals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DDSketchTest {
+
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999};
+
+    @Test
+    void mergedSketchStaysWithinRelativeAccuracy() {
+        Random random = new Random(42);
+        double[] values = new double[60_000];
+        DDSketch merged = new DDSketch();
+        // Three parts with different ranges, as per-bucket sketches of an idle, a busy and a spiky period
+        for (int part = 0; part < 3; part++) {
+            DDSketch sketch = new DDSketch();
+            for (int i = 0; i < 20_000; i++) {
+                double value = switch (part) {
+                    case 0 -> random.nextDouble() * 5;
+                    case 1 -> 40 + random.nextGaussian() * 10;
+                    default -> Math.exp(random.nextGaussian() * 2);
+                };
+                value = Math.max(0.01, value);
+                values[part * 20_000 + i] = value;
+                sketch.add(value);
+            }
+            merged.merge(sketch);
+        }
+
+        Arrays.sort(values);
+        assertEquals(values.length, merged.getCount());
+        assertEquals(values[0], merged.getMin());
+        assertEquals(values[values.length - 1], merged.getMax());
+        for (double quantile : QUANTILES) {
+            double expected = values[(int) (quantile * (values.length - 1))];
+            double actual = merged.getValueAtQuantile(quantile);
+            assertTrue(Math.abs(actual - expected) <= expected * DDSketch.DEFAULT_RELATIVE_ACCURACY + 1e-9,
+                    "q" + quantile + ": expected " + expected + ", got " + actual);
+        }
+    }
+
+    @Test
+    void mergeMatchesASketchOfAllValues() {
+        Random random = new Random(7);
+        DDSketch whole = new DDSketch();
+        DDSketch first = new DDSketch();
+        DDSketch second = new DDSketch();
+        for (int i = 0; i < 10_000; i++) {
+            double value = i % 10 == 0 ? 0 : random.nextDouble() * 100;
+            whole.add(value);
+            (i % 2 == 0 ? first : second).add(value);
+        }
+        first.merge(second);
+
+        assertEquals(whole.getCount(), first.getCount());
+        for (double quantile : QUANTILES) {
+            assertEquals(whole.getValueAtQuantile(quantile), first.getValueAtQuantile(quantile));
+        }
+    }
+
+    @Test
+    void survivesSerialization() {
+        DDSketch sketch = new DDSketch();
+        for (int i = 0; i <= 1_000; i++) {
+            sketch.add(i / 10.0);
+        }
+        DDSketch restored = DDSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.getCount(), restored.getCount());
+        assertEquals(sketch.getMin(), restored.getMin());
+        assertEquals(sketch.getMax(), restored.getMax());
+        for (double quantile : QUANTILES) {
+            assertEquals(sketch.getValueAtQuantile(quantile), restored.getValueAtQuantile(quantile));
+        }
+    }
+
+    @Test
+    void refusesToMergeDifferentAccuracies() {
+        assertThrows(IllegalArgumentException.class, () -> new DDSketch(0.01).merge(new DDSketch(0.02)));
+    }
+
+    @Test
+    void emptySketchHasNoQuantiles() {
+        assertTrue(Double.isNaN(new DDSketch().getValueAtQuantile(0.5)));
+    }
+}
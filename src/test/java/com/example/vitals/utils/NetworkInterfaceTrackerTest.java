@@ -0,0 +1,68 @@
+package com.example.vitals.utils;
+
+import com.example.vitals.models.InterfaceActivity;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NetworkInterfaceTrackerTest {
+
+    private static final long WRAP_32 = 1L << 32;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    @Test
+    void deltaOfAGrowingCounterIsTheDifference() {
+        assertEquals(0, NetworkInterfaceTracker.delta(1_000, 1_000));
+        assertEquals(500, NetworkInterfaceTracker.delta(1_000, 1_500));
+        assertEquals(10, NetworkInterfaceTracker.delta(Long.MAX_VALUE - 10, Long.MAX_VALUE));
+    }
+
+    @Test
+    void wrapped32BitCounterCountsTheDistanceAcrossTheWrap() {
+        assertEquals(300, NetworkInterfaceTracker.delta(WRAP_32 - 100, 200));
+        assertEquals(1, NetworkInterfaceTracker.delta(WRAP_32 - 1, 0));
+    }
+
+    @Test
+    void implausiblyLargeWrapIsAReset() {
+        // Wrapping would mean more than half the counter range passed in one interval
+        assertEquals(-1, NetworkInterfaceTracker.delta(WRAP_32 / 2, 10));
+        assertEquals(-1, NetworkInterfaceTracker.delta(1_000_000, 5));
+    }
+
+    @Test
+    void counterAbove32BitsGoingBackwardsIsAReset() {
+        assertEquals(-1, NetworkInterfaceTracker.delta(WRAP_32 + 1_000, 200));
+        assertEquals(-1, NetworkInterfaceTracker.delta(Long.MAX_VALUE, 0));
+    }
+
+    @Test
+    void ratesCarryAcrossAWrapAndSkipTheIntervalOfAReset() {
+        NetworkInterfaceTracker tracker = new NetworkInterfaceTracker();
+        int slot = tracker.slotOf("eth0", false);
+
+        tracker.beginRound();
+        tracker.update(slot, 0, WRAP_32 - 1_000, 10, 0, 5_000, 10, 0);
+
+        tracker.beginRound();
+        tracker.update(slot, SECOND_NANOS, 3_000, 20, 0, 7_000, 20, 0);
+        InterfaceActivity wrapped = tracker.getInterfaces().getFirst();
+        assertEquals(4_000, wrapped.rxBytesPerSec(), 1e-9);
+        assertEquals(2_000, wrapped.txBytesPerSec(), 1e-9);
+        assertEquals(10, wrapped.rxPacketsPerSec(), 1e-9);
+
+        // Driver reload: received bytes start over from zero, transmitted bytes keep counting
+        tracker.beginRound();
+        tracker.update(slot, 2 * SECOND_NANOS, 6_000, 30, 0, 8_000, 30, 0);
+        tracker.beginRound();
+        tracker.update(slot, 3 * SECOND_NANOS, 50, 40, 0, 9_000, 40, 0);
+        InterfaceActivity reset = tracker.getInterfaces().getFirst();
+        assertEquals(0, reset.rxBytesPerSec(), 1e-9);
+        assertEquals(1_000, reset.txBytesPerSec(), 1e-9);
+
+        // The next interval measures from the re-baselined counter
+        tracker.beginRound();
+        tracker.update(slot, 4 * SECOND_NANOS, 850, 50, 0, 10_000, 50, 0);
+        assertEquals(800, tracker.getInterfaces().getFirst().rxBytesPerSec(), 1e-9);
+    }
+}
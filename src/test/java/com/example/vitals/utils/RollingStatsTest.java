@@ -0,0 +1,101 @@
+package com.example.vitals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RollingStatsTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void evictsSamplesThatLeftEachWindow() {
+        RollingStats stats = new RollingStats(10_000, 30_000);
+        stats.add(0, 90);
+        stats.add(5_000, 10);
+        stats.add(20_000, 30);
+
+        assertEquals(1, stats.count(0));
+        assertEquals(30, stats.min(0));
+        assertEquals(30, stats.max(0));
+        assertEquals(3, stats.count(1));
+        assertEquals(10, stats.min(1));
+        assertEquals(90, stats.max(1));
+
+        stats.add(31_000, 20);
+        // The 90 left the longer window too, so its maximum falls back to the next candidate
+        assertEquals(3, stats.count(1));
+        assertEquals(30, stats.max(1));
+        assertEquals(10, stats.min(1));
+    }
+
+    @Test
+    void meanIsWeightedByTheTimeEachSampleHeld() {
+        RollingStats stats = new RollingStats(60_000);
+        stats.add(0, 10);
+        assertEquals(10, stats.mean(0), EPSILON);
+
+        stats.add(1_000, 20);
+        stats.add(10_000, 0);
+        assertEquals((10 * 1 + 20 * 9) / 10.0, stats.mean(0), EPSILON);
+
+        stats.add(65_000, 0);
+        assertEquals(2, stats.count(0));
+        assertEquals(0, stats.mean(0), EPSILON);
+    }
+
+    @Test
+    void matchesARescanAcrossRingGrowth() {
+        long windowMs = 60_000;
+        RollingStats stats = new RollingStats(windowMs);
+        Random random = new Random(3);
+        int samples = 5_000;
+        long[] times = new long[samples];
+        double[] values = new double[samples];
+        long time = 0;
+        for (int i = 0; i < samples; i++) {
+            // Adaptive sampling: bursts of fast samples between slow ones, more than the initial ring holds
+            time += random.nextInt(4) == 0 ? 10_000 : 100;
+            times[i] = time;
+            values[i] = random.nextDouble() * 100;
+            stats.add(time, values[i]);
+
+            int first = i;
+            while (first > 0 && times[first - 1] > time - windowMs) {
+                first--;
+            }
+            double min = Double.MAX_VALUE, max = -Double.MAX_VALUE, weighted = 0;
+            for (int j = first; j <= i; j++) {
+                min = Math.min(min, values[j]);
+                max = Math.max(max, values[j]);
+                if (j < i) {
+                    weighted += values[j] * (times[j + 1] - times[j]);
+                }
+            }
+            long spanMs = times[i] - times[first];
+            assertEquals(i - first + 1, stats.count(0));
+            assertEquals(min, stats.min(0));
+            assertEquals(max, stats.max(0));
+            assertEquals(spanMs > 0 ? weighted / spanMs : values[i], stats.mean(0), 1e-6);
+        }
+    }
+
+    @Test
+    void clearForgetsEverySample() {
+        RollingStats stats = new RollingStats(60_000);
+        stats.add(0, 50);
+        stats.add(1_000, 70);
+        stats.clear();
+
+        assertEquals(0, stats.count(0));
+        assertTrue(Double.isNaN(stats.mean(0)));
+        assertTrue(Double.isNaN(stats.max(0)));
+
+        stats.add(2_000, 5);
+        assertEquals(5, stats.mean(0), EPSILON);
+        assertEquals(5, stats.max(0));
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.vitals.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendModelTest {
+
+    private static final long START_MS = 1_760_000_000_000L;
+    private static final long MINUTE_MS = 60_000;
+    private static final double HALF_LIFE_HOURS = 12;
+
+    @Test
+    void linearSeriesGivesItsSlopeAndTimeToFullAfterMonthsOfPoints() {
+        TrendModel model = new TrendModel(HALF_LIFE_HOURS);
+        long time = START_MS;
+        // A month of minute points with some irregular gaps, so the origin moves by varying steps
+        for (int i = 0; i < 43_200; i++) {
+            time += i % 97 == 0 ? 7 * MINUTE_MS + 13_000 : MINUTE_MS;
+            model.add(time, line(time));
+        }
+
+        assertEquals(0.25, model.slopePerHour(), 1e-9);
+        assertEquals(line(time), model.level(), 1e-6);
+        assertEquals(0, model.slopeStandardError(), 1e-6);
+        double limit = line(time) + 40;
+        assertEquals(160, model.hoursUntil(limit), 1e-6);
+        assertEquals(0, model.hoursUntil(line(time) - 1));
+    }
+
+    @Test
+    void matchesADirectWeightedFitOfTheNoisySeries() {
+        SplittableRandom random = new SplittableRandom(3);
+        TrendModel model = new TrendModel(HALF_LIFE_HOURS);
+        List<Long> times = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        long time = START_MS;
+        for (int i = 0; i < 10_000; i++) {
+            time += MINUTE_MS + random.nextLong(-20_000, 20_000);
+            double value = line(time) + random.nextGaussian() * 3;
+            model.add(time, value);
+            times.add(time);
+            values.add(value);
+        }
+
+        // Weighted least squares over every point, with weights halving per half-life of age
+        double s0 = 0;
+        double st = 0;
+        double sy = 0;
+        double stt = 0;
+        double sty = 0;
+        for (int i = 0; i < times.size(); i++) {
+            double t = (times.get(i) - time) / 3_600_000.0;
+            double w = Math.pow(0.5, -t / HALF_LIFE_HOURS);
+            double y = values.get(i);
+            s0 += w;
+            st += w * t;
+            sy += w * y;
+            stt += w * t * t;
+            sty += w * t * y;
+        }
+        double slope = (s0 * sty - st * sy) / (s0 * stt - st * st);
+        double intercept = (sy - slope * st) / s0;
+        double tMean = st / s0;
+        double residuals = 0;
+        double spread = 0;
+        for (int i = 0; i < times.size(); i++) {
+            double t = (times.get(i) - time) / 3_600_000.0;
+            double w = Math.pow(0.5, -t / HALF_LIFE_HOURS);
+            double r = values.get(i) - intercept - slope * t;
+            residuals += w * r * r;
+            spread += w * (t - tMean) * (t - tMean);
+        }
+        double standardError = Math.sqrt(residuals / (s0 - 2) / spread);
+
+        assertEquals(slope, model.slopePerHour(), 1e-9 * Math.abs(slope));
+        assertEquals(intercept, model.level(), 1e-9 * Math.abs(intercept));
+        assertEquals(standardError, model.slopeStandardError(), 1e-6 * standardError);
+        assertTrue(model.slopePerHour() > 2 * model.slopeStandardError());
+    }
+
+    @Test
+    void olderGrowthFadesWithTheHalfLife() {
+        TrendModel model = new TrendModel(HALF_LIFE_HOURS);
+        long time = START_MS;
+        double value = 0;
+        for (int i = 0; i < 7 * 24 * 60; i++) {
+            time += MINUTE_MS;
+            value += 2.0 / 60;
+            model.add(time, value);
+        }
+        assertEquals(2, model.slopePerHour(), 1e-9);
+
+        // Twenty half-lives of slower growth leave the earlier week with about a millionth of the weight,
+        // little enough to outweigh its leverage from lying far back in time
+        for (int i = 0; i < 20 * HALF_LIFE_HOURS * 60; i++) {
+            time += MINUTE_MS;
+            value += 0.5 / 60;
+            model.add(time, value);
+        }
+        assertEquals(0.5, model.slopePerHour(), 0.01);
+    }
+
+    @Test
+    void flatNoisySeriesNeverFills() {
+        SplittableRandom random = new SplittableRandom(5);
+        TrendModel model = new TrendModel(HALF_LIFE_HOURS);
+        long time = START_MS;
+        for (int i = 0; i < 3 * 24 * 60; i++) {
+            time += MINUTE_MS;
+            model.add(time, 50 + random.nextGaussian() * 2);
+        }
+
+        assertTrue(Math.abs(model.slopePerHour()) < 2 * model.slopeStandardError());
+        assertEquals(Double.POSITIVE_INFINITY, model.hoursUntil(100));
+    }
+
+    @Test
+    void shrinkingSeriesNeverFillsAndTooFewPointsGiveNoTrend() {
+        TrendModel model = new TrendModel(HALF_LIFE_HOURS);
+        assertTrue(Double.isNaN(model.hoursUntil(100)));
+        model.add(START_MS, 50);
+        assertTrue(Double.isNaN(model.slopePerHour()));
+        assertTrue(Double.isNaN(model.hoursUntil(100)));
+
+        for (int i = 1; i <= 120; i++) {
+            model.add(START_MS + i * MINUTE_MS, 50 - i * 0.1);
+        }
+        assertEquals(-6, model.slopePerHour(), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, model.hoursUntil(100));
+    }
+
+    // 10 units plus a quarter per hour since the start
+    private static double line(long epochMs) {
+        return 10 + 0.25 * (epochMs - START_MS) / 3_600_000.0;
+    }
+}